@@ -13,5 +13,7 @@ public enum AuditAction {
     USER_UPDATED,
     DEVICE_STATUS_UPDATE,
     DEVICE_COMMAND_SENT,
-    DEVICE_AUTO_RELEASE
+    DEVICE_AUTO_RELEASE,
+    DEVICE_LIVENESS_TIMEOUT,
+    DEVICE_STATUS_FLAPPING
 }
\ No newline at end of file
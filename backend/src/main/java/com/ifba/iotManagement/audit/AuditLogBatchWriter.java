@@ -0,0 +1,48 @@
+package com.ifba.iotManagement.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Insere logs de auditoria em lote via JDBC. O {@code save} do JPA não agrupa inserts
+ * de entidades com {@code GenerationType.IDENTITY}, então o caminho em lote usa o JdbcTemplate.
+ */
+@Component
+public class AuditLogBatchWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO audit_logs (
+            public_id, user_id, username, action, resource_id, resource_name,
+            result, details, error_message, created_at, updated_at, deleted
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<AuditLogEntity> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, auditLogs, auditLogs.size(), (ps, auditLog) -> {
+            ps.setObject(1, auditLog.getPublicId());
+            ps.setObject(2, auditLog.getUserId());
+            ps.setString(3, auditLog.getUsername());
+            ps.setString(4, auditLog.getAction().name());
+            ps.setObject(5, auditLog.getResourceId());
+            ps.setString(6, auditLog.getResourceName());
+            ps.setString(7, auditLog.getResult().name());
+            ps.setString(8, auditLog.getDetails());
+            ps.setString(9, auditLog.getErrorMessage());
+            ps.setTimestamp(10, Timestamp.from(auditLog.getCreatedAt()));
+            ps.setTimestamp(11, Timestamp.from(auditLog.getUpdatedAt()));
+            ps.setBoolean(12, auditLog.getDeleted());
+        });
+    }
+}
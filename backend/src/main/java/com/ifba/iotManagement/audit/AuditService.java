@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -12,9 +13,11 @@ public class AuditService {
     private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
     
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogBatchWriter auditLogBatchWriter;
     
-    public AuditService(AuditLogRepository auditLogRepository) {
+    public AuditService(AuditLogRepository auditLogRepository, AuditLogBatchWriter auditLogBatchWriter) {
         this.auditLogRepository = auditLogRepository;
+        this.auditLogBatchWriter = auditLogBatchWriter;
     }
     
     public void logAction(
@@ -70,4 +73,17 @@ public class AuditService {
     public void logSystemAction(AuditAction action, UUID resourceId, String resourceName, AuditResult result, String details) {
         logAction(null, "SYSTEM", action, resourceId, resourceName, result, details);
     }
+    
+    public AuditLogEntity systemEntry(AuditAction action, UUID resourceId, String resourceName, AuditResult result, String details) {
+        return new AuditLogEntity(null, "SYSTEM", action, resourceId, resourceName, result, details, null);
+    }
+    
+    /**
+     * Persiste vários logs de uma vez, na transação corrente, usando batch JDBC.
+     * Diferente de {@link #logAction}, erros são propagados para que a transação seja revertida.
+     */
+    public void logAll(List<AuditLogEntity> auditLogs) {
+        auditLogBatchWriter.insertAll(auditLogs);
+        logger.info("AUDIT: {} entries written in batch", auditLogs.size());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.ifba.iotManagement.device;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+import java.time.Instant;
+
+/**
+ * Textos de auditoria do caminho de dispositivos. Montados por concatenação (sem {@code String.format})
+ * e só chamados nos ramos que de fato gravam auditoria.
+ */
+public final class DeviceAuditDetails {
+
+    private DeviceAuditDetails() {
+    }
+
+    public static String statusChanged(IotResourceStatus oldStatus, IotResourceStatus newStatus,
+                                       Instant timestamp, boolean activated) {
+        return "Device updated status from " + oldStatus + " to " + newStatus + " at " + timestamp
+                + (activated ? " (Device auto-activated)" : "");
+    }
+
+    public static String autoActivated(Instant timestamp) {
+        return "Device auto-activated on first connection at " + timestamp;
+    }
+
+    public static String autoReleased(Instant timestamp, String reason) {
+        return "Device auto-released resource at " + timestamp + " (reason: " + reason + ")";
+    }
+
+    public static String livenessTimeout(long silentSeconds, IotResourceStatus previousStatus) {
+        return "Device marked INACTIVE after " + silentSeconds + " seconds without heartbeat (was " + previousStatus + ")";
+    }
+
+    public static String flapSettled(IotResourceStatus persistedStatus, IotResourceStatus settledStatus,
+                                     Instant dampedSince, int transitions, int suppressedUpdates) {
+        return "Device status flapping since " + dampedSince + ": " + transitions + " transitions, "
+                + suppressedUpdates + " updates suppressed; settled at " + settledStatus + " (was " + persistedStatus + ")";
+    }
+}
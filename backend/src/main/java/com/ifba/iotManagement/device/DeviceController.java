@@ -1,17 +1,43 @@
 package com.ifba.iotManagement.device;
 
+import com.ifba.iotManagement.device.batch.DeviceStatusBatchService;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dedup.DeviceRequestDeduplicator;
+import com.ifba.iotManagement.device.dedup.DeviceRequestKind;
 import com.ifba.iotManagement.device.dto.DeviceAutoReleaseDto;
+import com.ifba.iotManagement.device.dto.DeviceBatchStatusResponseDto;
+import com.ifba.iotManagement.device.dto.DeviceCallbackDto;
+import com.ifba.iotManagement.device.dto.DeviceCommandAckDto;
 import com.ifba.iotManagement.device.dto.DeviceCommandDto;
 import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
 import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.dto.DeviceSyncDto;
+import com.ifba.iotManagement.device.ingest.DeviceIngestOutcome;
+import com.ifba.iotManagement.device.ingest.DeviceStatusCoalescer;
+import com.ifba.iotManagement.device.longpoll.DeviceLongPollService;
+import com.ifba.iotManagement.device.polling.DevicePollAdvisor;
+import com.ifba.iotManagement.device.push.DeviceCallbackRegistry;
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.device.registry.DeviceStateVersions;
+import com.ifba.iotManagement.device.sync.DeviceStatusSync;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/devices")
@@ -19,69 +45,293 @@ import org.springframework.web.bind.annotation.*;
 public class DeviceController {
     
     private final DeviceService deviceService;
+    private final DeviceStatusBatchService deviceStatusBatchService;
+    private final DeviceStatusCoalescer deviceStatusCoalescer;
+    private final DeviceLongPollService deviceLongPollService;
+    private final DeviceRequestDeduplicator deviceRequestDeduplicator;
+    private final DeviceRateLimiter deviceRateLimiter;
+    private final DeviceRegistryLoader deviceRegistryLoader;
+    private final DeviceStateVersions deviceStateVersions;
+    private final DeviceCommandOutbox deviceCommandOutbox;
+    private final DevicePollAdvisor devicePollAdvisor;
+    private final DeviceCallbackRegistry deviceCallbackRegistry;
+    private final DeviceStatusSync deviceStatusSync;
     
-    public DeviceController(DeviceService deviceService) {
+    public DeviceController(DeviceService deviceService,
+                            DeviceStatusBatchService deviceStatusBatchService,
+                            DeviceStatusCoalescer deviceStatusCoalescer,
+                            DeviceLongPollService deviceLongPollService,
+                            DeviceRequestDeduplicator deviceRequestDeduplicator,
+                            DeviceRateLimiter deviceRateLimiter,
+                            DeviceRegistryLoader deviceRegistryLoader,
+                            DeviceStateVersions deviceStateVersions,
+                            DeviceCommandOutbox deviceCommandOutbox,
+                            DevicePollAdvisor devicePollAdvisor,
+                            DeviceCallbackRegistry deviceCallbackRegistry,
+                            DeviceStatusSync deviceStatusSync) {
         this.deviceService = deviceService;
+        this.deviceStatusBatchService = deviceStatusBatchService;
+        this.deviceStatusCoalescer = deviceStatusCoalescer;
+        this.deviceLongPollService = deviceLongPollService;
+        this.deviceRequestDeduplicator = deviceRequestDeduplicator;
+        this.deviceRateLimiter = deviceRateLimiter;
+        this.deviceRegistryLoader = deviceRegistryLoader;
+        this.deviceStateVersions = deviceStateVersions;
+        this.deviceCommandOutbox = deviceCommandOutbox;
+        this.devicePollAdvisor = devicePollAdvisor;
+        this.deviceCallbackRegistry = deviceCallbackRegistry;
+        this.deviceStatusSync = deviceStatusSync;
     }
     
     @PostMapping("/status")
     @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
     @Operation(
             summary = "Atualizar status do dispositivo",
-            description = "Recebe atualizações de status dos dispositivos IoT simuladores"
+            description = "Recebe atualizações de status dos dispositivos IoT simuladores. "
+                    + "A resposta traz o status do recurso no servidor, os comandos RESERVE/RELEASE ainda não confirmados "
+                    + "e nextPollAfter (também no header Retry-After), dispensando as consultas separadas a /commands e /status. "
+                    + "ackSequence confirma os comandos até a sequência informada antes de montar a resposta"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Status atualizado com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Status atualizado com sucesso (ou reenvio já processado, com Idempotent-Replayed: true)"),
+            @ApiResponse(responseCode = "202", description = "Mudança de status aceita para gravação assíncrona (modo write-behind); o status da resposta ainda é o anterior"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado"),
+            @ApiResponse(responseCode = "429", description = "Limite de requisições do dispositivo ou IP excedido (ver Retry-After)")
+    })
+    public ResponseEntity<DeviceSyncDto> updateStatus(
+            @RequestBody DeviceStatusUpdateDto statusUpdate,
+            @RequestParam(required = false) Long ackSequence,
+            @RequestHeader(value = DeviceRequestDeduplicator.IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        // Validado pelo DeviceStatusUpdateDecoder durante a leitura do corpo; o limite por IP já foi aplicado pelo interceptor
+        deviceRateLimiter.checkDevice(statusUpdate.resourceId());
+        if (ackSequence != null) {
+            // Idempotente, então vale também para reenvios
+            deviceCommandOutbox.acknowledge(statusUpdate.resourceId(), ackSequence);
+        }
+        String dedupKey = deviceRequestDeduplicator.key(
+                DeviceRequestKind.STATUS, statusUpdate.resourceId(), statusUpdate.timestamp(), idempotencyKey);
+        if (!deviceRequestDeduplicator.tryAcquire(DeviceRequestKind.STATUS, dedupKey)) {
+            return duplicateAcknowledged(statusSync(statusUpdate.resourceId()));
+        }
+        ResponseEntity.BodyBuilder response;
+        try {
+            DeviceIngestOutcome outcome = deviceStatusCoalescer.offer(statusUpdate);
+            if (outcome == DeviceIngestOutcome.NOT_HANDLED) {
+                deviceService.updateResourceStatus(statusUpdate);
+            }
+            response = outcome == DeviceIngestOutcome.BUFFERED ? ResponseEntity.accepted() : ResponseEntity.ok();
+        } catch (RuntimeException e) {
+            deviceRequestDeduplicator.release(dedupKey);
+            throw e;
+        }
+        DeviceSyncDto sync = statusSync(statusUpdate.resourceId());
+        if (sync == null) {
+            return response.build();
+        }
+        return response
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(sync.nextPollAfter()))
+                .body(sync);
+    }
+    
+    @PostMapping("/status:batch")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Atualizar status de vários dispositivos",
+            description = "Recebe um lote de atualizações de status (aceita Content-Encoding: gzip). "
+                    + "Apenas a atualização mais recente de cada recurso é aplicada e o resultado de cada item é retornado, "
+                    + "com o status no servidor, os comandos pendentes e nextPollAfter do recurso"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; ver resultado de cada item"),
+            @ApiResponse(responseCode = "413", description = "Lote excede o número máximo de itens"),
+            @ApiResponse(responseCode = "429", description = "Limite de requisições do IP excedido (ver Retry-After)")
+    })
+    public ResponseEntity<DeviceBatchStatusResponseDto> updateStatusBatch(@RequestBody List<DeviceStatusUpdateDto> statusUpdates) {
+        // Montado após o commit do lote, quando o registro já reflete os novos status
+        return ResponseEntity.ok(deviceStatusSync.attach(deviceStatusBatchService.updateResourceStatuses(statusUpdates)));
+    }
+    
+    @GetMapping("/{resourceId}/commands")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Buscar comandos pendentes",
+            description = "Retorna, em ordem de sequência, os comandos RESERVE/RELEASE ainda não confirmados pelo dispositivo. "
+                    + "Sem comandos pendentes a resposta vem da memória, sem acesso ao banco. "
+                    + "O header Retry-After sugere quando consultar de novo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comandos pendentes (lista vazia se não houver)"),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
     })
-    public ResponseEntity<Void> updateStatus(@Valid @RequestBody DeviceStatusUpdateDto statusUpdate) {
-        deviceService.updateResourceStatus(statusUpdate);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<List<DeviceCommandDto>> getPendingCommands(
+            @PathVariable String resourceId,
+            @RequestParam(required = false) Integer limit) {
+        List<DeviceCommandDto> commands = deviceCommandOutbox.fetchPending(resourceId, limit);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.RETRY_AFTER, retryAfter(resourceId))
+                .body(commands);
     }
     
+    @PostMapping("/{resourceId}/commands/ack")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Confirmar comandos",
+            description = "Confirma o recebimento de todos os comandos do recurso até a sequência informada (inclusive). Idempotente"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Comandos confirmados"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
+    })
+    public ResponseEntity<Void> acknowledgeCommands(
+            @PathVariable String resourceId,
+            @Valid @RequestBody DeviceCommandAckDto ack) {
+        deviceCommandOutbox.acknowledge(resourceId, ack.sequence());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @Deprecated
     @GetMapping("/{resourceId}/commands/reserve")
     @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
     @Operation(
             summary = "Obter comando de reserva",
-            description = "Retorna comando para reservar um recurso específico"
+            description = "Retorna o comando RESERVE pendente mais antigo do outbox, sem auditar a consulta. "
+                    + "Obsoleto: usar /commands e /commands/ack",
+            deprecated = true
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Comando gerado com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Comando pendente (confirmar com /commands/ack)"),
+            @ApiResponse(responseCode = "204", description = "Nenhum comando desse tipo pendente"),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
     })
     public ResponseEntity<DeviceCommandDto> getReserveCommand(@PathVariable String resourceId) {
-        DeviceCommandDto command = deviceService.generateReserveCommand(resourceId);
-        return ResponseEntity.ok(command);
+        return pendingCommand(resourceId, DeviceCommandDto.RESERVE);
     }
     
+    @Deprecated
     @GetMapping("/{resourceId}/commands/release")
     @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
     @Operation(
             summary = "Obter comando de liberação",
-            description = "Retorna comando para liberar um recurso específico"
+            description = "Retorna o comando RELEASE pendente mais antigo do outbox, sem auditar a consulta. "
+                    + "Obsoleto: usar /commands e /commands/ack",
+            deprecated = true
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Comando gerado com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Comando pendente (confirmar com /commands/ack)"),
+            @ApiResponse(responseCode = "204", description = "Nenhum comando desse tipo pendente"),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
     })
     public ResponseEntity<DeviceCommandDto> getReleaseCommand(@PathVariable String resourceId) {
-        DeviceCommandDto command = deviceService.generateReleaseCommand(resourceId);
-        return ResponseEntity.ok(command);
+        return pendingCommand(resourceId, DeviceCommandDto.RELEASE);
+    }
+    
+    @GetMapping("/{resourceId}/commands/wait")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Aguardar comando (long-poll)",
+            description = "Responde com o comando pendente mais antigo do outbox ou mantém a requisição aberta até "
+                    + "uma reserva, liberação ou expiração gerar um comando para o recurso"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comando emitido para o recurso"),
+            @ApiResponse(responseCode = "204", description = "Nenhum comando emitido até o timeout"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado"),
+            @ApiResponse(responseCode = "503", description = "Limite de requisições em espera atingido; tentar após Retry-After")
+    })
+    public DeferredResult<ResponseEntity<DeviceCommandDto>> awaitCommand(
+            @PathVariable String resourceId,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        return deviceLongPollService.awaitCommand(resourceId, timeoutSeconds);
+    }
+    
+    @GetMapping("/{resourceId}/status/wait")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Aguardar mudança de status (long-poll)",
+            description = "Retorna imediatamente se o status atual difere de knownStatus; caso contrário aguarda a próxima mudança"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status atual do recurso"),
+            @ApiResponse(responseCode = "204", description = "Status não mudou até o timeout"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado"),
+            @ApiResponse(responseCode = "503", description = "Limite de requisições em espera atingido; tentar após Retry-After")
+    })
+    public DeferredResult<ResponseEntity<DeviceResourceStatusDto>> awaitStatusChange(
+            @PathVariable String resourceId,
+            @RequestParam(required = false) String knownStatus,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        return deviceLongPollService.awaitStatusChange(resourceId, knownStatus, timeoutSeconds);
     }
     
     @GetMapping("/{resourceId}/status")
     @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
     @Operation(
             summary = "Obter status atual do recurso",
-            description = "Permite ao dispositivo consultar o status atual do recurso no backend"
+            description = "Permite ao dispositivo consultar o status atual do recurso no backend. "
+                    + "A resposta traz um ETag; com If-None-Match igual ao estado atual responde 304 sem corpo. "
+                    + "nextPollAfter e o header Retry-After (também no 304) sugerem quando consultar de novo. "
+                    + "Com Accept application/cbor ou application/x-jackson-smile a resposta vem no formato binário"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Status obtido com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Estado não mudou desde o ETag informado"),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
     })
-    public ResponseEntity<?> getResourceStatus(@PathVariable String resourceId) {
-        return ResponseEntity.ok(deviceService.getResourceStatus(resourceId));
+    public ResponseEntity<?> getResourceStatus(@PathVariable String resourceId,
+                                               WebRequest webRequest,
+                                               HttpServletResponse response) {
+        DeviceRegistryEntry entry = deviceRegistryLoader.lookup(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with resourceId: " + resourceId));
+        // Versão lida antes do estado: no pior caso o dispositivo recebe o estado novo com o ETag antigo e consulta de novo
+        String etag = deviceStateVersions.etag(entry.id());
+        if (webRequest.checkNotModified(etag)) {
+            // O 304 é escrito pelo próprio checkNotModified, então o header vai direto na resposta
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(devicePollAdvisor.nextPollAfterSeconds(entry.id(), entry.status())));
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            return null;
+        }
+        DeviceResourceStatusDto status = deviceService.getResourceStatus(resourceId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                // O ETag é a versão do estado, igual em JSON, CBOR e Smile
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(status.nextPollAfter()))
+                .body(status);
+    }
+    
+    @PutMapping("/{resourceId}/callback")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(
+            summary = "Registrar URL de callback",
+            description = "Registra a URL que recebe os comandos RESERVE/RELEASE por push (POST JSON) assim que emitidos. "
+                    + "O host deve estar na lista devices.push.allowed-hosts; os comandos continuam exigindo confirmação em /commands/ack"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "URL registrada"),
+            @ApiResponse(responseCode = "400", description = "URL inválida ou host não permitido"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
+    })
+    public ResponseEntity<Void> registerCallback(
+            @PathVariable String resourceId,
+            @Valid @RequestBody DeviceCallbackDto callback) {
+        deviceCallbackRegistry.register(resourceId, callback.url());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{resourceId}/callback")
+    @SecurityRequirements(value = {}) // Sem autenticação para dispositivos IoT
+    @Operation(summary = "Remover URL de callback", description = "Volta a entregar comandos apenas por consulta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "URL removida"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
+    })
+    public ResponseEntity<Void> unregisterCallback(@PathVariable String resourceId) {
+        deviceCallbackRegistry.unregister(resourceId);
+        return ResponseEntity.noContent().build();
     }
     
     @PostMapping("/{resourceId}/auto-release")
@@ -91,13 +341,51 @@ public class DeviceController {
             description = "Recebe notificação quando dispositivo executa auto-liberação por timeout"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Auto-liberação processada com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Auto-liberação processada com sucesso (ou reenvio já processado, com Idempotent-Replayed: true)"),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
     })
     public ResponseEntity<Void> notifyAutoRelease(
             @PathVariable String resourceId,
-            @Valid @RequestBody DeviceAutoReleaseDto autoReleaseData) {
-        deviceService.processAutoRelease(resourceId, autoReleaseData);
+            @Valid @RequestBody DeviceAutoReleaseDto autoReleaseData,
+            @RequestHeader(value = DeviceRequestDeduplicator.IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        String dedupKey = deviceRequestDeduplicator.key(
+                DeviceRequestKind.AUTO_RELEASE, resourceId, autoReleaseData.timestamp(), idempotencyKey);
+        if (!deviceRequestDeduplicator.tryAcquire(DeviceRequestKind.AUTO_RELEASE, dedupKey)) {
+            return duplicateAcknowledged(null);
+        }
+        try {
+            deviceService.processAutoRelease(resourceId, autoReleaseData);
+        } catch (RuntimeException e) {
+            deviceRequestDeduplicator.release(dedupKey);
+            throw e;
+        }
         return ResponseEntity.ok().build();
     }
+    
+    private ResponseEntity<DeviceCommandDto> pendingCommand(String resourceId, String command) {
+        // O comando foi auditado ao entrar no outbox; a consulta não gera auditoria
+        return deviceCommandOutbox.findPending(resourceId, command)
+                .map(pending -> ResponseEntity.ok()
+                        .header(HttpHeaders.RETRY_AFTER, retryAfter(resourceId))
+                        .body(pending))
+                .orElseGet(() -> ResponseEntity.noContent()
+                        .header(HttpHeaders.RETRY_AFTER, retryAfter(resourceId))
+                        .build());
+    }
+    
+    private String retryAfter(String resourceId) {
+        return deviceRegistryLoader.lookup(resourceId)
+                .map(entry -> String.valueOf(devicePollAdvisor.nextPollAfterSeconds(entry.id(), entry.status())))
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with resourceId: " + resourceId));
+    }
+    
+    // Sem corpo quando a sincronização está desligada
+    private DeviceSyncDto statusSync(String resourceId) {
+        return deviceStatusSync.isEnabled() ? deviceStatusSync.snapshot(resourceId) : null;
+    }
+    
+    // Reenvio dentro da janela de deduplicação: confirmado sem acessar o banco
+    private static <T> ResponseEntity<T> duplicateAcknowledged(T body) {
+        return ResponseEntity.ok().header("Idempotent-Replayed", "true").body(body);
+    }
 }
\ No newline at end of file
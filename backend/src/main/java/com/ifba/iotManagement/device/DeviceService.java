@@ -4,19 +4,32 @@ import com.ifba.iotManagement.audit.AuditAction;
 import com.ifba.iotManagement.audit.AuditResult;
 import com.ifba.iotManagement.audit.AuditService;
 import com.ifba.iotManagement.device.dto.DeviceAutoReleaseDto;
-import com.ifba.iotManagement.device.dto.DeviceCommandDto;
 import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
 import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.flap.DeviceFlapDetector;
+import com.ifba.iotManagement.device.liveness.DeviceLivenessTracker;
+import com.ifba.iotManagement.device.ordering.DeviceStatusAcceptedEvent;
+import com.ifba.iotManagement.device.ordering.DeviceUpdateOrdering;
+import com.ifba.iotManagement.device.polling.DevicePollAdvisor;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceStateVersions;
+import com.ifba.iotManagement.device.singleflight.DeviceStatusReadCoalescer;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
 import com.ifba.iotManagement.iotResource.IotResourceEntity;
 import com.ifba.iotManagement.iotResource.IotResourceRepository;
 import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.iotResource.engine.ResourceStateEngine;
 import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveEntity;
 import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveRepository;
 import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
 
 @Service
 public class DeviceService {
@@ -26,41 +39,105 @@ public class DeviceService {
     private final IotResourceRepository resourceRepository;
     private final IotResourceReserveRepository reserveRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceRegistryLoader deviceRegistry;
+    private final DeviceLivenessTracker livenessTracker;
+    private final DeviceUpdateOrdering updateOrdering;
+    private final DevicePollAdvisor pollAdvisor;
+    private final DeviceFlapDetector flapDetector;
+    private final ResourceStateEngine stateEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final DeviceStateVersions stateVersions;
+    private final DeviceStatusReadCoalescer statusReads;
     
     public DeviceService(IotResourceRepository resourceRepository, 
                         IotResourceReserveRepository reserveRepository,
-                        AuditService auditService) {
+                        AuditService auditService,
+                        ApplicationEventPublisher eventPublisher,
+                        DeviceRegistryLoader deviceRegistry,
+                        DeviceLivenessTracker livenessTracker,
+                        DeviceUpdateOrdering updateOrdering,
+                        DevicePollAdvisor pollAdvisor,
+                        DeviceFlapDetector flapDetector,
+                        ResourceStateEngine stateEngine,
+                        TransactionTemplate transactionTemplate,
+                        DeviceStateVersions stateVersions,
+                        DeviceStatusReadCoalescer statusReads) {
         this.resourceRepository = resourceRepository;
         this.reserveRepository = reserveRepository;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.deviceRegistry = deviceRegistry;
+        this.livenessTracker = livenessTracker;
+        this.updateOrdering = updateOrdering;
+        this.pollAdvisor = pollAdvisor;
+        this.flapDetector = flapDetector;
+        this.stateEngine = stateEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.stateVersions = stateVersions;
+        this.statusReads = statusReads;
     }
     
-    @Transactional
     public void updateResourceStatus(DeviceStatusUpdateDto statusUpdate) {
+        transition(statusUpdate.resourceId(), () -> applyStatusUpdate(statusUpdate));
+    }
+    
+    private void applyStatusUpdate(DeviceStatusUpdateDto statusUpdate) {
         try {
-            // Buscar recurso pelo resourceId
-            IotResourceEntity resource = resourceRepository
-                    .findByResourceIdAndDeletedIsFalse(statusUpdate.resourceId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Resource not found with resourceId: " + statusUpdate.resourceId()));
+            DeviceRegistryEntry entry = lookupResource(statusUpdate.resourceId());
+            livenessTracker.touch(entry.resourceId());
             
-            // Verificar se é primeira conexão e dispositivo precisa ser ativado
-            boolean wasActivated = handleFirstConnection(resource, statusUpdate);
+            // Descartar atualização atrasada/fora de ordem sem carregar a entidade
+            boolean firstConnection = Boolean.TRUE.equals(statusUpdate.firstConnection());
+            Instant deviceTimestamp = updateOrdering.effectiveTimestamp(statusUpdate.timestamp());
+            if (updateOrdering.isStale(entry.id(), deviceTimestamp, firstConnection)) {
+                updateOrdering.reject(statusUpdate.resourceId(), statusUpdate.timestamp());
+                return;
+            }
             
             // Mapear status do dispositivo para enum
             IotResourceStatus newStatus;
             try {
-                newStatus = mapDeviceStatusToEnum(statusUpdate.status());
+                newStatus = DeviceStatusMapper.toResourceStatus(statusUpdate.status());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid status from device: " + statusUpdate.status());
             }
             
+            // Dispositivo oscilando: só a memória avança; o status assentado é gravado pelo DeviceFlapSettler
+            boolean activation = firstConnection && entry.status() == IotResourceStatus.INACTIVE;
+            if (!activation && flapDetector.suppress(entry.id(), entry.resourceId(), entry.status(), newStatus, deviceTimestamp)) {
+                eventPublisher.publishEvent(DeviceStatusAcceptedEvent.of(
+                        entry.id(), newStatus, deviceTimestamp, firstConnection, false));
+                return;
+            }
+            
+            // Buscar recurso pelo id interno
+            IotResourceEntity resource = loadResource(entry);
+            IotResourceStatus storedStatus = resource.getStatus();
+            
+            // Mudanças de estado passam pelo compare-and-set do timestamp no banco (seguro entre instâncias).
+            // A ordem em memória e a telemetria avançam só após o commit: com rollback, o reenvio continua válido
+            boolean changesState = newStatus != storedStatus
+                    || (firstConnection && storedStatus == IotResourceStatus.INACTIVE);
+            if (changesState && !updateOrdering.compareAndSet(entry.id(), deviceTimestamp, firstConnection)) {
+                updateOrdering.reject(statusUpdate.resourceId(), statusUpdate.timestamp());
+                return;
+            }
+            eventPublisher.publishEvent(DeviceStatusAcceptedEvent.of(
+                    entry.id(), newStatus, deviceTimestamp, firstConnection, true));
+            
+            // Verificar se é primeira conexão e dispositivo precisa ser ativado
+            boolean wasActivated = handleFirstConnection(resource, statusUpdate);
+            
             IotResourceStatus oldStatus = resource.getStatus();
             
             // Atualizar status apenas se mudou
             if (oldStatus != newStatus) {
                 resource.updateStatus(newStatus);
                 resourceRepository.save(resource);
+                if (storedStatus != newStatus) {
+                    eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, storedStatus));
+                }
                 
                 // Log de auditoria
                 auditService.logSystemAction(
@@ -68,9 +145,7 @@ public class DeviceService {
                         resource.getPublicId(),
                         resource.getName(),
                         AuditResult.SUCCESS,
-                        String.format("Device updated status from %s to %s at %s%s", 
-                                oldStatus, newStatus, statusUpdate.timestamp(),
-                                wasActivated ? " (Device auto-activated)" : "")
+                        DeviceAuditDetails.statusChanged(oldStatus, newStatus, statusUpdate.timestamp(), wasActivated)
                 );
                 
                 logger.info("Device status updated for resource {} from {} to {}{}",
@@ -79,6 +154,7 @@ public class DeviceService {
             } else if (wasActivated) {
                 // Apenas ativação sem mudança de status
                 resourceRepository.save(resource);
+                eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, storedStatus));
                 
                 logger.info("Device auto-activated for resource {} without status change", 
                         statusUpdate.resourceId());
@@ -100,66 +176,6 @@ public class DeviceService {
         }
     }
     
-    public DeviceCommandDto generateReserveCommand(String resourceId) {
-        try {
-            IotResourceEntity resource = resourceRepository
-                    .findByResourceIdAndDeletedIsFalse(resourceId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Resource not found with resourceId: " + resourceId));
-            
-            // Log comando enviado
-            auditService.logSystemAction(
-                    AuditAction.DEVICE_COMMAND_SENT,
-                    resource.getPublicId(),
-                    resource.getName(),
-                    AuditResult.SUCCESS,
-                    "RESERVE command sent to device"
-            );
-            
-            return new DeviceCommandDto(resourceId, "RESERVE", "Reserve this resource");
-            
-        } catch (Exception e) {
-            auditService.logSystemAction(
-                    AuditAction.DEVICE_COMMAND_SENT,
-                    null,
-                    resourceId,
-                    AuditResult.FAILURE,
-                    "Failed to send RESERVE command: " + e.getMessage()
-            );
-            throw e;
-        }
-    }
-    
-    public DeviceCommandDto generateReleaseCommand(String resourceId) {
-        try {
-            IotResourceEntity resource = resourceRepository
-                    .findByResourceIdAndDeletedIsFalse(resourceId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Resource not found with resourceId: " + resourceId));
-            
-            // Log comando enviado
-            auditService.logSystemAction(
-                    AuditAction.DEVICE_COMMAND_SENT,
-                    resource.getPublicId(),
-                    resource.getName(),
-                    AuditResult.SUCCESS,
-                    "RELEASE command sent to device"
-            );
-            
-            return new DeviceCommandDto(resourceId, "RELEASE", "Release this resource");
-            
-        } catch (Exception e) {
-            auditService.logSystemAction(
-                    AuditAction.DEVICE_COMMAND_SENT,
-                    null,
-                    resourceId,
-                    AuditResult.FAILURE,
-                    "Failed to send RELEASE command: " + e.getMessage()
-            );
-            throw e;
-        }
-    }
-    
     /**
      * Trata primeira conexão do dispositivo, ativando-o automaticamente se necessário
      * @param resource Recurso IoT
@@ -187,8 +203,7 @@ public class DeviceService {
                     resource.getPublicId(),
                     resource.getName(),
                     AuditResult.SUCCESS,
-                    String.format("Device auto-activated on first connection at %s", 
-                            statusUpdate.timestamp())
+                    DeviceAuditDetails.autoActivated(statusUpdate.timestamp())
             );
             
             return true;
@@ -200,21 +215,15 @@ public class DeviceService {
         return false;
     }
     
-    private IotResourceStatus mapDeviceStatusToEnum(String deviceStatus) {
-        return switch (deviceStatus.toUpperCase()) {
-            case "LIVRE", "FREE", "AVAILABLE" -> IotResourceStatus.FREE;
-            case "OCUPADO", "OCCUPIED", "RESERVED", "BUSY" -> IotResourceStatus.RESERVED;
-            case "INDISPONIVEL", "UNAVAILABLE", "INACTIVE", "OFFLINE" -> IotResourceStatus.INACTIVE;
-            default -> throw new IllegalArgumentException("Unknown device status: " + deviceStatus);
-        };
+    public DeviceResourceStatusDto getResourceStatus(String resourceId) {
+        // Leituras simultâneas do mesmo recurso na mesma versão compartilham uma carga (picos de reconexão)
+        DeviceRegistryEntry entry = lookupResource(resourceId);
+        return statusReads.load(resourceId, stateVersions.version(entry.id()), () -> loadResourceStatus(entry));
     }
     
-    public DeviceResourceStatusDto getResourceStatus(String resourceId) {
+    private DeviceResourceStatusDto loadResourceStatus(DeviceRegistryEntry entry) {
         try {
-            IotResourceEntity resource = resourceRepository
-                    .findByResourceIdAndDeletedIsFalse(resourceId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Resource not found with resourceId: " + resourceId));
+            IotResourceEntity resource = loadResource(entry);
             
             // Buscar detalhes da reserva se o recurso estiver reservado
             DeviceResourceStatusDto.ReserveDetailsDto reserveDetails = null;
@@ -233,22 +242,24 @@ public class DeviceService {
             return new DeviceResourceStatusDto(
                     resource.getResourceId(),
                     resource.getStatus().name(),
-                    reserveDetails
+                    reserveDetails,
+                    pollAdvisor.nextPollAfterSeconds(resource.getId(), resource.getStatus())
             );
             
         } catch (Exception e) {
-            logger.error("Error getting resource status for device {}", resourceId, e);
+            logger.error("Error getting resource status for device {}", entry.resourceId(), e);
             throw e;
         }
     }
     
-    @Transactional
     public void processAutoRelease(String resourceId, DeviceAutoReleaseDto autoReleaseData) {
+        transition(resourceId, () -> applyAutoRelease(resourceId, autoReleaseData));
+    }
+    
+    private void applyAutoRelease(String resourceId, DeviceAutoReleaseDto autoReleaseData) {
         try {
-            IotResourceEntity resource = resourceRepository
-                    .findByResourceIdAndDeletedIsFalse(resourceId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Resource not found with resourceId: " + resourceId));
+            IotResourceEntity resource = findResource(resourceId);
+            livenessTracker.touch(resource.getResourceId());
             
             // Verificar se recurso está realmente reservado
             if (resource.getStatus() != IotResourceStatus.RESERVED) {
@@ -268,6 +279,7 @@ public class DeviceService {
             }
             
             resourceRepository.save(resource);
+            eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, IotResourceStatus.RESERVED));
             
             // Log de auditoria
             auditService.logSystemAction(
@@ -275,8 +287,7 @@ public class DeviceService {
                     resource.getPublicId(),
                     resource.getName(),
                     AuditResult.SUCCESS,
-                    String.format("Device auto-released resource at %s (reason: %s)", 
-                            autoReleaseData.timestamp(), autoReleaseData.reason())
+                    DeviceAuditDetails.autoReleased(autoReleaseData.timestamp(), autoReleaseData.reason())
             );
             
             logger.info("Device auto-released resource {} (reason: {})", 
@@ -296,4 +307,34 @@ public class DeviceService {
             throw e;
         }
     }
+    
+    /**
+     * Executa a transição na vez do recurso no {@link ResourceStateEngine}, em transação própria.
+     * Recurso desconhecido segue direto para o caminho de erro (com auditoria de falha).
+     */
+    private void transition(String resourceId, Runnable work) {
+        Runnable transactional = () -> transactionTemplate.executeWithoutResult(status -> work.run());
+        deviceRegistry.lookup(resourceId).ifPresentOrElse(
+                entry -> stateEngine.execute(entry.id(), transactional),
+                transactional);
+    }
+    
+    /**
+     * Resolve o id interno pelo registro em memória e carrega o recurso pela chave primária.
+     */
+    private IotResourceEntity findResource(String resourceId) {
+        return loadResource(lookupResource(resourceId));
+    }
+    
+    private DeviceRegistryEntry lookupResource(String resourceId) {
+        return deviceRegistry.lookup(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Resource not found with resourceId: " + resourceId));
+    }
+    
+    private IotResourceEntity loadResource(DeviceRegistryEntry entry) {
+        return resourceRepository.findByIdAndDeletedFalse(entry.id())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Resource not found with resourceId: " + entry.resourceId()));
+    }
 }
\ No newline at end of file
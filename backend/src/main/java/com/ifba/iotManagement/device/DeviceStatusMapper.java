@@ -0,0 +1,60 @@
+package com.ifba.iotManagement.device;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+/**
+ * Traduz os status reportados pelos dispositivos (PT/EN) para {@link IotResourceStatus}.
+ * A comparação ignora maiúsculas/minúsculas sem criar Strings intermediárias.
+ */
+public final class DeviceStatusMapper {
+
+    private static final String[] TOKENS = {
+            "LIVRE", "FREE", "AVAILABLE",
+            "OCUPADO", "OCCUPIED", "RESERVED", "BUSY",
+            "INDISPONIVEL", "UNAVAILABLE", "INACTIVE", "OFFLINE"
+    };
+
+    private static final IotResourceStatus[] TOKEN_STATUSES = {
+            IotResourceStatus.FREE, IotResourceStatus.FREE, IotResourceStatus.FREE,
+            IotResourceStatus.RESERVED, IotResourceStatus.RESERVED, IotResourceStatus.RESERVED, IotResourceStatus.RESERVED,
+            IotResourceStatus.INACTIVE, IotResourceStatus.INACTIVE, IotResourceStatus.INACTIVE, IotResourceStatus.INACTIVE
+    };
+
+    private DeviceStatusMapper() {
+    }
+
+    public static IotResourceStatus toResourceStatus(String deviceStatus) {
+        for (int i = 0; i < TOKENS.length; i++) {
+            if (TOKENS[i].equalsIgnoreCase(deviceStatus)) {
+                return TOKEN_STATUSES[i];
+            }
+        }
+        throw new IllegalArgumentException("Unknown device status: " + deviceStatus);
+    }
+
+    /**
+     * Versão para o decoder de streaming: lê o token direto do buffer do parser.
+     *
+     * @return o status correspondente ou null se o token não for reconhecido
+     */
+    public static IotResourceStatus toResourceStatus(char[] chars, int offset, int length) {
+        for (int i = 0; i < TOKENS.length; i++) {
+            if (matches(TOKENS[i], chars, offset, length)) {
+                return TOKEN_STATUSES[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String token, char[] chars, int offset, int length) {
+        if (token.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(chars[offset + i]) != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ifba.iotManagement.device.batch;
+
+public enum DeviceBatchItemOutcome {
+    UPDATED,
+    ACTIVATED,
+    UNCHANGED,
+    SUPERSEDED,
+    STALE,
+    DAMPED,
+    THROTTLED,
+    NOT_FOUND,
+    INVALID
+}
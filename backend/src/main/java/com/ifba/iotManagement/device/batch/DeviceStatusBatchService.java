@@ -0,0 +1,346 @@
+package com.ifba.iotManagement.device.batch;
+
+import com.ifba.iotManagement.audit.AuditAction;
+import com.ifba.iotManagement.audit.AuditLogEntity;
+import com.ifba.iotManagement.audit.AuditResult;
+import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.DeviceAuditDetails;
+import com.ifba.iotManagement.device.DeviceStatusMapper;
+import com.ifba.iotManagement.device.dto.DeviceBatchItemResultDto;
+import com.ifba.iotManagement.device.dto.DeviceBatchStatusResponseDto;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.flap.DeviceFlapDetector;
+import com.ifba.iotManagement.device.liveness.DeviceLivenessTracker;
+import com.ifba.iotManagement.device.ordering.DeviceStatusAcceptedEvent;
+import com.ifba.iotManagement.device.ordering.DeviceStatusAcceptedEvent.AcceptedStatus;
+import com.ifba.iotManagement.device.ordering.DeviceUpdateOrdering;
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusBatchWriter;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.iotResource.engine.ResourceStateEngine;
+import com.ifba.iotManagement.iotResource.IotResourceStatusBatchWriter.OrderedStatusWrite;
+import com.ifba.iotManagement.shared.exceptions.PayloadTooLargeException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class DeviceStatusBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceStatusBatchService.class);
+
+    private final IotResourceRepository resourceRepository;
+    private final IotResourceStatusBatchWriter statusBatchWriter;
+    private final AuditService auditService;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceLivenessTracker livenessTracker;
+    private final DeviceUpdateOrdering updateOrdering;
+    private final DeviceRateLimiter rateLimiter;
+    private final DeviceFlapDetector flapDetector;
+    private final DeviceRegistryLoader deviceRegistry;
+    private final ResourceStateEngine stateEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${devices.batch.max-items:1000}")
+    private int maxItems;
+
+    public DeviceStatusBatchService(IotResourceRepository resourceRepository,
+                                    IotResourceStatusBatchWriter statusBatchWriter,
+                                    AuditService auditService,
+                                    Validator validator,
+                                    ApplicationEventPublisher eventPublisher,
+                                    DeviceLivenessTracker livenessTracker,
+                                    DeviceUpdateOrdering updateOrdering,
+                                    DeviceRateLimiter rateLimiter,
+                                    DeviceFlapDetector flapDetector,
+                                    DeviceRegistryLoader deviceRegistry,
+                                    ResourceStateEngine stateEngine,
+                                    TransactionTemplate transactionTemplate) {
+        this.resourceRepository = resourceRepository;
+        this.statusBatchWriter = statusBatchWriter;
+        this.auditService = auditService;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.livenessTracker = livenessTracker;
+        this.updateOrdering = updateOrdering;
+        this.rateLimiter = rateLimiter;
+        this.flapDetector = flapDetector;
+        this.deviceRegistry = deviceRegistry;
+        this.stateEngine = stateEngine;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Aplica um lote de atualizações de status. Apenas a atualização mais recente (por timestamp)
+     * de cada resourceId é considerada; os recursos são carregados com uma única consulta IN e
+     * as mudanças de status e os logs de auditoria são gravados com batch JDBC na mesma transação.
+     * Atualizações mais antigas que a última aceita para o recurso são descartadas como {@code STALE}
+     * e itens de dispositivos acima do limite de taxa são recusados como {@code THROTTLED}.
+     * Dispositivos oscilando ({@link DeviceFlapDetector}) recebem {@code DAMPED} e nada é gravado.
+     */
+    public DeviceBatchStatusResponseDto updateResourceStatuses(List<DeviceStatusUpdateDto> updates) {
+        if (updates.size() > maxItems) {
+            throw new PayloadTooLargeException(
+                    "Batch contains " + updates.size() + " items, maximum allowed is " + maxItems);
+        }
+        return transition(updates, true);
+    }
+
+    /**
+     * Grava atualizações já aceitas pelo write-behind ou assentadas pelo {@code DeviceFlapSettler}. A ordem em
+     * memória e o amortecimento de oscilação foram verificados na entrada do buffer, então aqui vale apenas o
+     * compare-and-set no banco; a ordem avança após o commit do lote.
+     */
+    public DeviceBatchStatusResponseDto applyBuffered(List<DeviceStatusUpdateDto> updates) {
+        return transition(updates, false);
+    }
+
+    /**
+     * Processa o lote com a vez de todos os seus recursos no {@link ResourceStateEngine}, em transação própria,
+     * para não intercalar com reservas e outras transições dos mesmos recursos. Recursos desconhecidos pelo
+     * registro não têm vez a tomar e terminam como {@code NOT_FOUND}.
+     */
+    private DeviceBatchStatusResponseDto transition(List<DeviceStatusUpdateDto> updates, boolean fromDevices) {
+        Set<Long> resourcePks = new HashSet<>();
+        for (DeviceStatusUpdateDto update : updates) {
+            if (update != null && update.resourceId() != null) {
+                deviceRegistry.lookup(update.resourceId()).ifPresent(entry -> resourcePks.add(entry.id()));
+            }
+        }
+        return stateEngine.executeAll(resourcePks,
+                () -> transactionTemplate.execute(status -> process(updates, fromDevices)));
+    }
+
+    /**
+     * @param fromDevices lote recebido diretamente dos dispositivos: aplica limite de taxa, ordem em memória e
+     *                    amortecimento de oscilação
+     */
+    private DeviceBatchStatusResponseDto process(List<DeviceStatusUpdateDto> updates, boolean fromDevices) {
+        DeviceBatchItemResultDto[] results = new DeviceBatchItemResultDto[updates.size()];
+
+        // Manter apenas a atualização mais recente de cada recurso
+        Map<String, Integer> latestByResource = new LinkedHashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            DeviceStatusUpdateDto update = updates.get(i);
+            String violation = validate(update);
+            if (violation != null) {
+                results[i] = result(i, update, DeviceBatchItemOutcome.INVALID, null, violation);
+                continue;
+            }
+            if (fromDevices && !rateLimiter.tryAcquireDevice(update.resourceId())) {
+                results[i] = result(i, update, DeviceBatchItemOutcome.THROTTLED, null,
+                        "Too many requests for resource " + update.resourceId());
+                continue;
+            }
+
+            Integer previousIndex = latestByResource.get(update.resourceId());
+            if (previousIndex == null) {
+                latestByResource.put(update.resourceId(), i);
+            } else if (update.timestamp().isBefore(updates.get(previousIndex).timestamp())) {
+                results[i] = result(i, update, DeviceBatchItemOutcome.SUPERSEDED, null,
+                        "A newer update for this resource is present in the batch");
+            } else {
+                DeviceStatusUpdateDto previous = updates.get(previousIndex);
+                results[previousIndex] = result(previousIndex, previous, DeviceBatchItemOutcome.SUPERSEDED, null,
+                        "A newer update for this resource is present in the batch");
+                latestByResource.put(update.resourceId(), i);
+            }
+        }
+
+        Map<String, IotResourceEntity> resources = latestByResource.isEmpty()
+                ? Map.of()
+                : resourceRepository.findAllByResourceIdInAndDeletedIsFalse(latestByResource.keySet())
+                        .stream()
+                        .collect(Collectors.toMap(IotResourceEntity::getResourceId, Function.identity(), (a, b) -> a));
+
+        List<StateChange> stateChanges = new ArrayList<>();
+        List<AuditLogEntity> auditLogs = new ArrayList<>();
+        List<AcceptedStatus> accepted = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : latestByResource.entrySet()) {
+            int index = entry.getValue();
+            DeviceStatusUpdateDto update = updates.get(index);
+            IotResourceEntity resource = resources.get(entry.getKey());
+
+            if (resource == null) {
+                results[index] = result(index, update, DeviceBatchItemOutcome.NOT_FOUND, null,
+                        "Resource not found with resourceId: " + update.resourceId());
+                auditLogs.add(auditService.systemEntry(
+                        AuditAction.DEVICE_STATUS_UPDATE,
+                        null,
+                        update.resourceId(),
+                        AuditResult.FAILURE,
+                        "Failed to update device status: " + results[index].message()
+                ));
+                continue;
+            }
+            livenessTracker.touch(resource.getResourceId());
+
+            IotResourceStatus newStatus;
+            try {
+                newStatus = DeviceStatusMapper.toResourceStatus(update.status());
+            } catch (IllegalArgumentException e) {
+                results[index] = result(index, update, DeviceBatchItemOutcome.INVALID, null,
+                        "Invalid status from device: " + update.status());
+                auditLogs.add(auditService.systemEntry(
+                        AuditAction.DEVICE_STATUS_UPDATE,
+                        resource.getPublicId(),
+                        resource.getName(),
+                        AuditResult.FAILURE,
+                        "Failed to update device status: " + results[index].message()
+                ));
+                continue;
+            }
+
+            boolean firstConnection = Boolean.TRUE.equals(update.firstConnection());
+            Instant deviceTimestamp = updateOrdering.effectiveTimestamp(update.timestamp());
+            if (fromDevices && updateOrdering.isStale(resource.getId(), deviceTimestamp, firstConnection)) {
+                results[index] = stale(index, update);
+                continue;
+            }
+
+            // Mesma semântica do caminho unitário: a ativação leva INACTIVE -> FREE antes do status reportado
+            IotResourceStatus storedStatus = resource.getStatus();
+            boolean wasActivated = firstConnection && storedStatus == IotResourceStatus.INACTIVE;
+            if (fromDevices && !wasActivated && flapDetector.suppress(
+                    resource.getId(), resource.getResourceId(), storedStatus, newStatus, deviceTimestamp)) {
+                accepted.add(new AcceptedStatus(resource.getId(), newStatus, deviceTimestamp, firstConnection, false));
+                results[index] = result(index, update, DeviceBatchItemOutcome.DAMPED, storedStatus,
+                        "Device status is flapping; updates are suppressed until it settles");
+                continue;
+            }
+            if (!wasActivated && newStatus == storedStatus) {
+                accepted.add(new AcceptedStatus(resource.getId(), newStatus, deviceTimestamp, firstConnection, true));
+                results[index] = result(index, update, DeviceBatchItemOutcome.UNCHANGED, newStatus, null);
+                continue;
+            }
+            stateChanges.add(new StateChange(index, update, resource, storedStatus, newStatus, wasActivated,
+                    new OrderedStatusWrite(resource.getId(), newStatus, deviceTimestamp, firstConnection)));
+        }
+
+        // Compare-and-set pelo timestamp do dispositivo; linhas não afetadas já têm uma atualização mais nova
+        boolean[] written = statusBatchWriter.updateStatusesIfNewer(
+                stateChanges.stream().map(StateChange::write).toList());
+        List<IotResourceStatusChangedEvent> statusChanges = new ArrayList<>();
+        int applied = 0;
+
+        for (int i = 0; i < stateChanges.size(); i++) {
+            StateChange change = stateChanges.get(i);
+            IotResourceEntity resource = change.resource();
+            DeviceStatusUpdateDto update = change.update();
+            if (!written[i]) {
+                results[change.index()] = stale(change.index(), update);
+                continue;
+            }
+            OrderedStatusWrite write = change.write();
+            accepted.add(new AcceptedStatus(write.id(), write.status(), write.deviceTimestamp(), write.resetSequence(), true));
+
+            IotResourceStatus oldStatus = change.wasActivated() ? IotResourceStatus.FREE : change.storedStatus();
+            if (change.wasActivated()) {
+                auditLogs.add(auditService.systemEntry(
+                        AuditAction.DEVICE_STATUS_UPDATE,
+                        resource.getPublicId(),
+                        resource.getName(),
+                        AuditResult.SUCCESS,
+                        DeviceAuditDetails.autoActivated(update.timestamp())
+                ));
+            }
+
+            if (change.newStatus() != change.storedStatus()) {
+                statusChanges.add(new IotResourceStatusChangedEvent(
+                        resource.getId(), resource.getPublicId(), resource.getResourceId(),
+                        change.storedStatus(), change.newStatus()));
+            }
+
+            if (oldStatus != change.newStatus()) {
+                auditLogs.add(auditService.systemEntry(
+                        AuditAction.DEVICE_STATUS_UPDATE,
+                        resource.getPublicId(),
+                        resource.getName(),
+                        AuditResult.SUCCESS,
+                        DeviceAuditDetails.statusChanged(oldStatus, change.newStatus(), update.timestamp(),
+                                change.wasActivated())
+                ));
+            }
+
+            DeviceBatchItemOutcome outcome = change.wasActivated()
+                    ? DeviceBatchItemOutcome.ACTIVATED
+                    : oldStatus != change.newStatus() ? DeviceBatchItemOutcome.UPDATED : DeviceBatchItemOutcome.UNCHANGED;
+            if (outcome != DeviceBatchItemOutcome.UNCHANGED) {
+                applied++;
+            }
+            results[change.index()] = result(change.index(), update, outcome, change.newStatus(), null);
+        }
+
+        auditService.logAll(auditLogs);
+        statusChanges.forEach(eventPublisher::publishEvent);
+        if (!accepted.isEmpty()) {
+            eventPublisher.publishEvent(new DeviceStatusAcceptedEvent(accepted));
+        }
+
+        logger.info("Device status batch processed: {} received, {} distinct resources, {} applied",
+                updates.size(), latestByResource.size(), applied);
+
+        return new DeviceBatchStatusResponseDto(updates.size(), applied, Arrays.asList(results));
+    }
+
+    private DeviceBatchItemResultDto stale(int index, DeviceStatusUpdateDto update) {
+        updateOrdering.reject(update.resourceId(), update.timestamp());
+        return result(index, update, DeviceBatchItemOutcome.STALE, null,
+                "A newer update for this resource was already accepted");
+    }
+
+    private String validate(DeviceStatusUpdateDto update) {
+        if (update == null) {
+            return "Item cannot be null";
+        }
+        Set<ConstraintViolation<DeviceStatusUpdateDto>> violations = validator.validate(update);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static DeviceBatchItemResultDto result(int index,
+                                                   DeviceStatusUpdateDto update,
+                                                   DeviceBatchItemOutcome outcome,
+                                                   IotResourceStatus status,
+                                                   String message) {
+        return new DeviceBatchItemResultDto(
+                index,
+                update != null ? update.resourceId() : null,
+                outcome,
+                status != null ? status.name() : null,
+                message,
+                null,
+                null
+        );
+    }
+
+    private record StateChange(int index,
+                               DeviceStatusUpdateDto update,
+                               IotResourceEntity resource,
+                               IotResourceStatus storedStatus,
+                               IotResourceStatus newStatus,
+                               boolean wasActivated,
+                               OrderedStatusWrite write) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.ifba.iotManagement.device.capture;
+
+import java.util.List;
+
+/**
+ * Requisição de dispositivo já atendida, como vai para o {@link DeviceTrafficJournal}.
+ *
+ * @param offsetMicros   chegada, em microssegundos desde o início da captura
+ * @param path           caminho após {@code /api/v1/devices}, com a query string
+ * @param durationMicros tempo no servidor até a resposta (inclui a espera dos long-polls)
+ */
+record CapturedRequest(long offsetMicros, String method, String path, List<Header> headers, int status,
+                       long durationMicros, boolean bodyTruncated, byte[] body) {
+
+    /**
+     * @param index posição do nome em {@link DeviceTrafficJournal#HEADERS}
+     */
+    record Header(int index, String value) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.ifba.iotManagement.device.capture;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captura as requisições {@code /api/v1/devices/**} para o {@link DeviceTrafficJournal} quando
+ * {@code devices.capture.enabled} está ligado.
+ * <p>
+ * O corpo é guardado à medida que o controller o lê (até {@code max-body-bytes}), sem leitura extra. Long-polls
+ * ({@code DeferredResult}) são registrados quando a resposta assíncrona termina, com o status final.
+ * O WebSocket dos gateways não é capturado.
+ */
+@Component
+public class DeviceTrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final String DEVICES_PATH = "/api/v1/devices";
+
+    private final DeviceTrafficJournal journal;
+
+    @Value("${devices.capture.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    public DeviceTrafficCaptureFilter(DeviceTrafficJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!journal.isCapturing() || !DeviceTrafficJournal.METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(DEVICES_PATH + "/") || path.startsWith(DEVICES_PATH + "/ws/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        CachingRequest cachingRequest = new CachingRequest(request, maxBodyBytes);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachingRequest, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        capture(cachingRequest, response.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // Exceção que escapou do RestExceptionHandler vira 500 no container
+                capture(cachingRequest, completed ? response.getStatus() : 500, start);
+            }
+        }
+    }
+
+    private void capture(CachingRequest request, int status, long start) {
+        long end = System.nanoTime();
+        String path = request.getRequestURI().substring(request.getContextPath().length() + DEVICES_PATH.length());
+        if (request.getQueryString() != null) {
+            path = path + "?" + request.getQueryString();
+        }
+        List<CapturedRequest.Header> headers = new ArrayList<>(2);
+        for (int i = 0; i < DeviceTrafficJournal.HEADERS.size(); i++) {
+            String value = request.getHeader(DeviceTrafficJournal.HEADERS.get(i));
+            if (value != null) {
+                headers.add(new CapturedRequest.Header(i, value));
+            }
+        }
+        journal.append(new CapturedRequest(journal.offsetMicros(start), request.getMethod(), path, headers, status,
+                (end - start) / 1_000, request.truncated, request.getContentAsByteArray()));
+    }
+
+    private static final class CachingRequest extends ContentCachingRequestWrapper {
+
+        private boolean truncated;
+
+        CachingRequest(HttpServletRequest request, int contentCacheLimit) {
+            super(request, contentCacheLimit);
+        }
+
+        @Override
+        protected void handleContentOverflow(int contentCacheLimit) {
+            truncated = true;
+        }
+    }
+}
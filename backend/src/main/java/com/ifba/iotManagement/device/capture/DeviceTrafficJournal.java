@@ -0,0 +1,186 @@
+package com.ifba.iotManagement.device.capture;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Journal binário do tráfego de dispositivos, lido pelo {@code TrafficReplayer} do módulo {@code device-loadgen}.
+ * <p>
+ * O filtro só enfileira a requisição capturada (fila limitada, sem bloqueio); um flush periódico grava no arquivo.
+ * Com a fila cheia as requisições são descartadas e contadas em {@code devices.capture.dropped}: a captura não
+ * pode segurar o caminho dos dispositivos. Ao passar de {@code max-file-bytes} a captura para.
+ * <p>
+ * Formato (versão 1), tudo dentro de um único stream gzip com sync flush a cada gravação:
+ * <pre>
+ * cabeçalho: "IOTJ" | u16 versão | i64 início da captura (epoch ms)
+ * registro:  varlong chegada (µs desde o início) | u8 método | UTF caminho (após /api/v1/devices, com query)
+ *            | u8 nº de headers, cada um u8 índice em HEADERS + UTF valor
+ *            | u16 status | varlong duração no servidor (µs) | u8 flags | varint tamanho do corpo + corpo
+ * </pre>
+ * Os registros saem na ordem em que as requisições terminam, não na de chegada (long-polls terminam até
+ * {@code devices.long-poll.max-timeout-seconds} depois); quem lê reordena pela chegada.
+ */
+@Component
+public class DeviceTrafficJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTrafficJournal.class);
+
+    static final int MAGIC = 0x494F544A; // "IOTJ"
+    static final int VERSION = 1;
+    static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
+    // Headers que mudam o processamento no DeviceController; o índice é gravado no lugar do nome
+    static final List<String> HEADERS = List.of("Content-Type", "Content-Encoding", "Accept", "If-None-Match",
+            "Idempotency-Key");
+    static final int FLAG_BODY_TRUNCATED = 1;
+
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Counter recordedCounter;
+    private final Counter droppedCounter;
+    private final long startNanos = System.nanoTime();
+    private final long startEpochMillis = System.currentTimeMillis();
+
+    @Value("${devices.capture.enabled:false}")
+    private boolean enabled;
+
+    @Value("${devices.capture.directory:captures}")
+    private Path directory;
+
+    @Value("${devices.capture.max-file-bytes:1073741824}")
+    private long maxFileBytes;
+
+    private volatile boolean stopped;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    public DeviceTrafficJournal(MeterRegistry meterRegistry,
+                                @Value("${devices.capture.max-pending:10000}") int maxPending) {
+        this.queue = new ArrayBlockingQueue<>(maxPending);
+        this.recordedCounter = Counter.builder("devices.capture.recorded")
+                .description("Device requests written to the traffic journal")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("devices.capture.dropped")
+                .description("Device requests not captured because the journal queue was full or failed")
+                .register(meterRegistry);
+        Gauge.builder("devices.capture.pending", queue, BlockingQueue::size)
+                .description("Captured device requests waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isCapturing() {
+        return enabled && !stopped;
+    }
+
+    /**
+     * Microssegundos entre o início da captura e o instante {@code nanoTime} informado.
+     */
+    long offsetMicros(long nanoTime) {
+        return Math.max(0, (nanoTime - startNanos) / 1_000);
+    }
+
+    void append(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            droppedCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devices.capture.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (queue.isEmpty() || stopped) {
+            return;
+        }
+        List<CapturedRequest> batch = new ArrayList<>(queue.size());
+        queue.drainTo(batch);
+        try {
+            if (out == null) {
+                open();
+            }
+            for (CapturedRequest request : batch) {
+                write(request);
+            }
+            out.flush();
+            recordedCounter.increment(batch.size());
+            if (file.getChannel().position() >= maxFileBytes) {
+                logger.warn("Traffic journal reached {} bytes, device capture stopped", maxFileBytes);
+                stop();
+            }
+        } catch (IOException e) {
+            droppedCounter.increment(batch.size());
+            logger.error("Erro ao gravar {} requisições no journal de tráfego, captura interrompida", batch.size(), e);
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        stop();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve("device-traffic-" + startEpochMillis + ".iotj");
+        file = new FileOutputStream(path.toFile());
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(file, 64 * 1024, true), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(startEpochMillis);
+        logger.info("Capturing device traffic to {}", path.toAbsolutePath());
+    }
+
+    private void write(CapturedRequest request) throws IOException {
+        writeVarLong(request.offsetMicros());
+        out.writeByte(METHODS.indexOf(request.method()));
+        out.writeUTF(request.path());
+        out.writeByte(request.headers().size());
+        for (CapturedRequest.Header header : request.headers()) {
+            out.writeByte(header.index());
+            out.writeUTF(header.value());
+        }
+        out.writeShort(request.status());
+        writeVarLong(request.durationMicros());
+        out.writeByte(request.bodyTruncated() ? FLAG_BODY_TRUNCATED : 0);
+        writeVarLong(request.body().length);
+        out.write(request.body());
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private synchronized void stop() {
+        stopped = true;
+        droppedCounter.increment(queue.size());
+        queue.clear();
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Could not close traffic journal", e);
+            }
+            out = null;
+        }
+    }
+}
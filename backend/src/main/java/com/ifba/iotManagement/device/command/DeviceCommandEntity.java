@@ -0,0 +1,48 @@
+package com.ifba.iotManagement.device.command;
+
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.shared.AbstractEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "device_commands")
+@Getter
+public class DeviceCommandEntity extends AbstractEntity {
+
+    // Chave interna do recurso, sem associação para não carregar a entidade ao listar comandos
+    @Column(name = "resource_id")
+    private Long resourcePk;
+    private String command;
+    private String details;
+    private Instant deliveredAt;
+
+    public DeviceCommandEntity() {
+        super();
+    }
+
+    public DeviceCommandEntity(Long resourcePk, String command, String details) {
+        super();
+        this.resourcePk = resourcePk;
+        this.command = command;
+        this.details = details;
+    }
+
+    public DeviceCommandDto toDto(String resourceId) {
+        return new DeviceCommandDto(resourceId, command, details, getId());
+    }
+
+    @Override
+    protected void validate() {
+        if (resourcePk == null) {
+            throw new IllegalStateException("Resource cannot be null");
+        }
+        if (command == null) {
+            throw new IllegalStateException("Command cannot be null");
+        }
+    }
+}
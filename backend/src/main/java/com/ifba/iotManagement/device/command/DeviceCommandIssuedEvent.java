@@ -0,0 +1,14 @@
+package com.ifba.iotManagement.device.command;
+
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+
+/**
+ * Publicado quando uma operação de reserva exige que o dispositivo reserve ou libere o recurso.
+ * Os consumidores (long-poll, gateways de push) devem reagir apenas após o commit.
+ */
+public record DeviceCommandIssuedEvent(
+        Long resourcePk,
+        String resourceId,
+        DeviceCommandDto command
+) {
+}
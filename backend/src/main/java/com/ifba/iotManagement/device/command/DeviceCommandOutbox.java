@@ -0,0 +1,186 @@
+package com.ifba.iotManagement.device.command;
+
+import com.ifba.iotManagement.audit.AuditAction;
+import com.ifba.iotManagement.audit.AuditResult;
+import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outbox de comandos RESERVE/RELEASE para os dispositivos.
+ * <p>
+ * O comando é gravado em {@code device_commands} na mesma transação da reserva, e o id da linha é o número
+ * de sequência. O dispositivo busca os pendentes em lote e confirma até uma sequência; as linhas confirmadas
+ * são removidas periodicamente. Um índice em memória (recurso → maior sequência pendente) faz com que a
+ * busca sem nada pendente responda sem acessar o banco.
+ */
+@Service
+public class DeviceCommandOutbox implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceCommandOutbox.class);
+
+    private final DeviceCommandRepository commandRepository;
+    private final DeviceRegistryLoader registryLoader;
+    private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Long> pendingHeads = new ConcurrentHashMap<>();
+
+    @Value("${devices.commands.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${devices.commands.delivered-retention-minutes:60}")
+    private long deliveredRetentionMinutes;
+
+    public DeviceCommandOutbox(DeviceCommandRepository commandRepository,
+                               DeviceRegistryLoader registryLoader,
+                               AuditService auditService,
+                               ApplicationEventPublisher eventPublisher) {
+        this.commandRepository = commandRepository;
+        this.registryLoader = registryLoader;
+        this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object[] head : commandRepository.findPendingHeads()) {
+            pendingHeads.put((Long) head[0], (Long) head[1]);
+        }
+        logger.info("Outbox de comandos carregado: {} recursos com comandos pendentes", pendingHeads.size());
+    }
+
+    /**
+     * Grava o comando na transação corrente (a mesma da reserva) e publica o {@link DeviceCommandIssuedEvent} com a sequência.
+     */
+    @Transactional
+    public DeviceCommandDto enqueue(IotResourceEntity resource, DeviceCommandDto command) {
+        DeviceCommandEntity saved = commandRepository.save(
+                new DeviceCommandEntity(resource.getId(), command.command(), command.details()));
+        DeviceCommandDto queued = saved.toDto(resource.getResourceId());
+
+        auditService.logSystemAction(
+                AuditAction.DEVICE_COMMAND_SENT,
+                resource.getPublicId(),
+                resource.getName(),
+                AuditResult.SUCCESS,
+                queued.command() + " command queued for device (sequence " + queued.sequence() + ")"
+        );
+        eventPublisher.publishEvent(new DeviceCommandIssuedEvent(resource.getId(), resource.getResourceId(), queued));
+        return queued;
+    }
+
+    /**
+     * Comandos ainda não confirmados, em ordem de sequência.
+     */
+    public List<DeviceCommandDto> fetchPending(String resourceId, Integer limit) {
+        DeviceRegistryEntry entry = requireResource(resourceId);
+        Long head = pendingHeads.get(entry.id());
+        if (head == null) {
+            return List.of();
+        }
+        int batchSize = limit == null ? maxBatchSize : Math.max(1, Math.min(limit, maxBatchSize));
+        List<DeviceCommandDto> pending = commandRepository
+                .findByResourcePkAndDeliveredAtIsNullOrderByIdAsc(entry.id(), Limit.of(batchSize))
+                .stream()
+                .map(command -> command.toDto(resourceId))
+                .toList();
+        if (pending.isEmpty()) {
+            // Confirmado por outra instância; só remove se nenhum comando novo chegou nesse meio tempo
+            pendingHeads.remove(entry.id(), head);
+        }
+        return pending;
+    }
+
+    /**
+     * Comando pendente mais antigo do tipo informado, para as rotas obsoletas {@code /commands/reserve} e
+     * {@code /commands/release}. Sem nada pendente responde só com a memória.
+     */
+    public Optional<DeviceCommandDto> findPending(String resourceId, String command) {
+        DeviceRegistryEntry entry = requireResource(resourceId);
+        if (!hasPending(entry.id())) {
+            return Optional.empty();
+        }
+        return fetchPending(resourceId, null).stream()
+                .filter(pending -> command.equals(pending.command()))
+                .findFirst();
+    }
+
+    /**
+     * Consulta só a memória: indica se o recurso tem comandos não confirmados.
+     */
+    public boolean hasPending(long resourcePk) {
+        return pendingHeads.containsKey(resourcePk);
+    }
+
+    /**
+     * Confirma o recebimento de todos os comandos do recurso até {@code upToSequence} (inclusive). Idempotente.
+     *
+     * @return quantidade de comandos confirmados por esta chamada
+     */
+    @Transactional
+    public int acknowledge(String resourceId, long upToSequence) {
+        DeviceRegistryEntry entry = requireResource(resourceId);
+        if (!pendingHeads.containsKey(entry.id())) {
+            return 0;
+        }
+        int acknowledged = commandRepository.markDelivered(entry.id(), upToSequence, Instant.now());
+        // Com rollback os comandos continuam pendentes, então a cabeça só sai após o commit
+        eventPublisher.publishEvent(new DeviceCommandsAcknowledgedEvent(entry.id(), upToSequence));
+        if (acknowledged > 0) {
+            logger.debug("{} command(s) acknowledged by resource {} up to sequence {}", acknowledged, resourceId, upToSequence);
+        }
+        return acknowledged;
+    }
+
+    @Scheduled(fixedDelayString = "${devices.commands.compaction-interval-ms:300000}")
+    @Transactional
+    public void compactDelivered() {
+        int removed = commandRepository.deleteDeliveredBefore(
+                Instant.now().minus(Duration.ofMinutes(deliveredRetentionMinutes)));
+        if (removed > 0) {
+            logger.info("Removed {} delivered device commands from the outbox", removed);
+        }
+    }
+
+    // Antes dos long-polls: um waiter registrado depois da entrega já encontra o comando como pendente
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        if (event.command().sequence() != null) {
+            pendingHeads.merge(event.resourcePk(), event.command().sequence(), Math::max);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandsAcknowledged(DeviceCommandsAcknowledgedEvent event) {
+        pendingHeads.computeIfPresent(event.resourcePk(), (id, head) -> head <= event.upToSequence() ? null : head);
+    }
+
+    private DeviceRegistryEntry requireResource(String resourceId) {
+        return registryLoader.lookup(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with resourceId: " + resourceId));
+    }
+}
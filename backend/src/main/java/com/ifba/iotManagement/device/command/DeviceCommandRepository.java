@@ -0,0 +1,44 @@
+package com.ifba.iotManagement.device.command;
+
+import com.ifba.iotManagement.shared.BaseRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DeviceCommandRepository extends BaseRepository<DeviceCommandEntity> {
+
+    List<DeviceCommandEntity> findByResourcePkAndDeliveredAtIsNullOrderByIdAsc(Long resourcePk, Limit limit);
+
+    /**
+     * Maior sequência pendente de cada recurso com comandos não entregues.
+     */
+    @Query("""
+        SELECT c.resourcePk, MAX(c.id)
+        FROM DeviceCommandEntity c
+        WHERE c.deliveredAt IS NULL
+        GROUP BY c.resourcePk
+        """)
+    List<Object[]> findPendingHeads();
+
+    @Modifying
+    @Query("""
+        UPDATE DeviceCommandEntity c
+        SET c.deliveredAt = :now, c.updatedAt = :now
+        WHERE c.resourcePk = :resourcePk
+            AND c.id <= :upToSequence
+            AND c.deliveredAt IS NULL
+        """)
+    int markDelivered(
+            @Param("resourcePk") Long resourcePk,
+            @Param("upToSequence") Long upToSequence,
+            @Param("now") Instant now
+    );
+
+    @Modifying
+    @Query("DELETE FROM DeviceCommandEntity c WHERE c.deliveredAt < :cutoff")
+    int deleteDeliveredBefore(@Param("cutoff") Instant cutoff);
+}
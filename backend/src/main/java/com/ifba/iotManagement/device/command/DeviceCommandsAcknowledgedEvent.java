@@ -0,0 +1,10 @@
+package com.ifba.iotManagement.device.command;
+
+/**
+ * Publicado pela confirmação de comandos; a cabeça em memória do recurso só é removida após o commit.
+ */
+public record DeviceCommandsAcknowledgedEvent(
+        long resourcePk,
+        long upToSequence
+) {
+}
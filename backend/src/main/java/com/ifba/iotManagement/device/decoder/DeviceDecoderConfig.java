@@ -0,0 +1,63 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Conversores dos payloads de dispositivos.
+ * <p>
+ * Além de JSON, os endpoints aceitam e produzem CBOR ({@code application/cbor}) e Smile
+ * ({@code application/x-jackson-smile}) por negociação de conteúdo. JSON continua o padrão: os conversores
+ * binários ficam depois do JSON, então só respondem quando o {@code Accept} pede o formato explicitamente.
+ */
+@Configuration
+public class DeviceDecoderConfig implements WebMvcConfigurer {
+
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ObjectMapper objectMapper;
+
+    public DeviceDecoderConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Mesmos módulos e configurações do mapper JSON da aplicação (datas ISO-8601, etc.)
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+
+        // Os conversores binários padrão do Spring usam um mapper próprio, sem a configuração da aplicação
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        int json = indexOfJsonConverter(converters);
+        converters.add(json + 1, new MappingJackson2CborHttpMessageConverter(cborMapper));
+        converters.add(json + 2, new MappingJackson2SmileHttpMessageConverter(smileMapper));
+
+        // Antes do conversor Jackson para ter prioridade nos payloads de status dos dispositivos
+        converters.add(0, new DeviceStatusUpdateMessageConverter(new DeviceStatusUpdateDecoder(objectMapper.getFactory())));
+        converters.add(1, new DeviceStatusUpdateMessageConverter(
+                new DeviceStatusUpdateDecoder(cborMapper.getFactory()), MediaType.APPLICATION_CBOR));
+        converters.add(2, new DeviceStatusUpdateMessageConverter(
+                new DeviceStatusUpdateDecoder(smileMapper.getFactory()), APPLICATION_SMILE));
+    }
+
+    private static int indexOfJsonConverter(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                return i;
+            }
+        }
+        return converters.size() - 1;
+    }
+}
@@ -0,0 +1,256 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ifba.iotManagement.device.DeviceStatusMapper;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.shared.exceptions.InvalidDevicePayloadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoder de {@link DeviceStatusUpdateDto} sobre o parser de streaming do Jackson, sem databinding.
+ * <p>
+ * O status é comparado direto no buffer de caracteres do parser e substituído pelo nome constante do
+ * {@link IotResourceStatus} correspondente, então tokens conhecidos não geram String nova; tokens
+ * desconhecidos são mantidos como vieram para que o serviço registre a falha como antes.
+ * Timestamps também são lidos do buffer. A validação do payload unitário é feita aqui mesmo,
+ * com as mesmas regras e mensagens das anotações do DTO.
+ */
+public class DeviceStatusUpdateDecoder {
+
+    private static final String MALFORMED_MESSAGE = "Payload do dispositivo inválido";
+    private static final String INVALID_FIELDS_MESSAGE = "Campos inválidos. Corrija os erros e tente novamente.";
+
+    private final JsonFactory jsonFactory;
+    private final String malformedMessage;
+
+    /**
+     * @param jsonFactory fábrica do formato aceito; {@code JsonFactory}, {@code CBORFactory} e {@code SmileFactory}
+     *                    produzem os mesmos tokens, então a leitura e a validação são idênticas nos três formatos
+     */
+    public DeviceStatusUpdateDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+        this.malformedMessage = "Malformed " + jsonFactory.getFormatName();
+    }
+
+    /**
+     * Lê e valida uma única atualização de status.
+     */
+    public DeviceStatusUpdateDto decode(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw malformed("body", "Expected a JSON object");
+            }
+            DeviceStatusUpdateDto update = readObject(parser);
+            validate(update);
+            return update;
+        } catch (JsonProcessingException e) {
+            throw malformed("body", malformedMessage);
+        }
+    }
+
+    /**
+     * Lê um lote de atualizações. Itens não são validados aqui: o serviço de lote reporta cada item inválido.
+     */
+    public List<DeviceStatusUpdateDto> decodeList(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw malformed("body", "Expected a JSON array");
+            }
+            List<DeviceStatusUpdateDto> updates = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NULL) {
+                    updates.add(null);
+                } else if (token == JsonToken.START_OBJECT) {
+                    updates.add(readObject(parser));
+                } else {
+                    throw malformed("[" + updates.size() + "]", "Expected a JSON object");
+                }
+            }
+            return updates;
+        } catch (JsonProcessingException e) {
+            throw malformed("body", malformedMessage);
+        }
+    }
+
+    private DeviceStatusUpdateDto readObject(JsonParser parser) throws IOException {
+        String resourceId = null;
+        String status = null;
+        Instant timestamp = null;
+        Boolean firstConnection = null;
+        Instant reservedAt = null;
+        Instant predictedEndTime = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Nomes de campo são canonicalizados pelo parser: não alocam por requisição
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "resourceId" -> resourceId = readText(parser, value, field);
+                case "status" -> status = readStatus(parser, value, field);
+                case "timestamp" -> timestamp = readInstant(parser, value, field);
+                case "firstConnection" -> firstConnection = readBoolean(parser, value, field);
+                case "reservedAt" -> reservedAt = readInstant(parser, value, field);
+                case "predictedEndTime" -> predictedEndTime = readInstant(parser, value, field);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new DeviceStatusUpdateDto(resourceId, status, timestamp, firstConnection, reservedAt, predictedEndTime);
+    }
+
+    private static String readText(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw malformed(field, "Expected a string");
+        }
+        return parser.getText();
+    }
+
+    private static String readStatus(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            IotResourceStatus status = DeviceStatusMapper.toResourceStatus(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (status != null) {
+                return status.name();
+            }
+        }
+        return readText(parser, value, field);
+    }
+
+    private static Instant readInstant(JsonParser parser, JsonToken value, String field) throws IOException {
+        try {
+            return switch (value) {
+                case VALUE_NULL -> null;
+                case VALUE_STRING -> parseInstant(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                case VALUE_NUMBER_INT -> Instant.ofEpochSecond(parser.getLongValue());
+                case VALUE_NUMBER_FLOAT -> {
+                    BigDecimal seconds = parser.getDecimalValue();
+                    yield Instant.ofEpochSecond(seconds.longValue(),
+                            seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+                }
+                default -> throw malformed(field, "Expected an ISO-8601 timestamp");
+            };
+        } catch (DateTimeException | ArithmeticException e) {
+            throw malformed(field, "Invalid timestamp");
+        }
+    }
+
+    /**
+     * Caminho rápido para o formato enviado pelos dispositivos ({@code yyyy-MM-ddTHH:mm:ss[.fração]Z}),
+     * lido direto do buffer; outros formatos ISO-8601 (ex.: com offset) caem no {@link DateTimeFormatter}.
+     */
+    static Instant parseInstant(char[] chars, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        int end = offset + length;
+        if (length >= 20
+                && chars[offset + 4] == '-' && chars[offset + 7] == '-'
+                && (chars[offset + 10] == 'T' || chars[offset + 10] == 't')
+                && chars[offset + 13] == ':' && chars[offset + 16] == ':'
+                && (chars[end - 1] == 'Z' || chars[end - 1] == 'z')) {
+            int year = digits(chars, offset, 4);
+            int month = digits(chars, offset + 5, 2);
+            int day = digits(chars, offset + 8, 2);
+            int hour = digits(chars, offset + 11, 2);
+            int minute = digits(chars, offset + 14, 2);
+            int second = digits(chars, offset + 17, 2);
+            int nanos = 0;
+            boolean valid = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && hour < 24
+                    && minute >= 0 && minute < 60 && second >= 0 && second < 60;
+            int fractionLength = length - 20;
+            if (valid && fractionLength > 0) {
+                int fraction = fractionLength > 1 && fractionLength <= 10 && chars[offset + 19] == '.'
+                        ? digits(chars, offset + 20, fractionLength - 1)
+                        : -1;
+                valid = fraction >= 0;
+                nanos = fraction;
+                for (int i = fractionLength - 1; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+            if (valid) {
+                long epochDay = LocalDate.of(year, month, day).toEpochDay();
+                return Instant.ofEpochSecond(epochDay * 86_400 + hour * 3_600L + minute * 60L + second, nanos);
+            }
+        }
+        return DateTimeFormatter.ISO_INSTANT.parse(CharBuffer.wrap(chars, offset, length), Instant::from);
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = chars[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static Boolean readBoolean(JsonParser parser, JsonToken value, String field) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_STRING -> {
+                String text = parser.getText();
+                if ("true".equalsIgnoreCase(text)) {
+                    yield Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(text)) {
+                    yield Boolean.FALSE;
+                }
+                throw malformed(field, "Expected a boolean");
+            }
+            default -> throw malformed(field, "Expected a boolean");
+        };
+    }
+
+    private static void validate(DeviceStatusUpdateDto update) {
+        Map<String, String> errors = null;
+        if (isBlank(update.resourceId())) {
+            errors = new HashMap<>();
+            errors.put("resourceId", "Resource ID cannot be blank");
+        }
+        if (isBlank(update.status())) {
+            errors = errors != null ? errors : new HashMap<>();
+            errors.put("status", "Status cannot be blank");
+        }
+        if (update.timestamp() == null) {
+            errors = errors != null ? errors : new HashMap<>();
+            errors.put("timestamp", "Timestamp cannot be null");
+        }
+        if (errors != null) {
+            throw new InvalidDevicePayloadException(INVALID_FIELDS_MESSAGE, errors);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static InvalidDevicePayloadException malformed(String field, String message) {
+        return new InvalidDevicePayloadException(MALFORMED_MESSAGE, Map.of(field, message));
+    }
+}
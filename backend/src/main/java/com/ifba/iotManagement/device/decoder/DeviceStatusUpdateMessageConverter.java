@@ -0,0 +1,74 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Lê {@link DeviceStatusUpdateDto} e {@code List<DeviceStatusUpdateDto>} com o {@link DeviceStatusUpdateDecoder}.
+ * Apenas leitura; os demais tipos continuam com o conversor Jackson padrão. Uma instância por formato
+ * (JSON, CBOR, Smile), cada uma com o decoder sobre a fábrica correspondente.
+ */
+public class DeviceStatusUpdateMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final DeviceStatusUpdateDecoder decoder;
+
+    public DeviceStatusUpdateMessageConverter(DeviceStatusUpdateDecoder decoder) {
+        this(decoder, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    public DeviceStatusUpdateMessageConverter(DeviceStatusUpdateDecoder decoder, MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+        this.decoder = decoder;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DeviceStatusUpdateDto.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == DeviceStatusUpdateDto.class || isUpdateList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return isUpdateList(type)
+                ? decoder.decodeList(inputMessage.getBody())
+                : decoder.decode(inputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return decoder.decode(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Object o, Type type, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Device status decoder is read-only");
+    }
+
+    private static boolean isUpdateList(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == DeviceStatusUpdateDto.class;
+    }
+}
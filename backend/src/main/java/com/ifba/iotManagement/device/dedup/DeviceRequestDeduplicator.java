@@ -0,0 +1,146 @@
+package com.ifba.iotManagement.device.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Janela de deduplicação para reenvios de dispositivos ({@code POST /devices/status} e {@code /auto-release}).
+ * <p>
+ * A chave é o header {@value #IDEMPOTENCY_HEADER} quando presente, senão (tipo, resourceId, timestamp).
+ * As chaves ficam em mapas ordenados por inserção, um por stripe (um lock por stripe), com prazo de
+ * {@code devices.dedup.window-seconds} e limite total de {@code devices.dedup.max-entries}: acima do limite
+ * a chave mais antiga é descartada, então a memória é limitada mesmo sob tráfego alto.
+ * A comparação é exata: não há falsos positivos.
+ */
+@Component
+public class DeviceRequestDeduplicator {
+
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long windowNanos;
+    private final boolean enabled;
+
+    private final Map<DeviceRequestKind, Counter> hits = new EnumMap<>(DeviceRequestKind.class);
+    private final Map<DeviceRequestKind, Counter> misses = new EnumMap<>(DeviceRequestKind.class);
+
+    public DeviceRequestDeduplicator(MeterRegistry meterRegistry,
+                                     @Value("${devices.dedup.enabled:true}") boolean enabled,
+                                     @Value("${devices.dedup.window-seconds:300}") long windowSeconds,
+                                     @Value("${devices.dedup.max-entries:100000}") int maxEntries,
+                                     @Value("${devices.dedup.stripes:64}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(stripeCount, 2) - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(Math.max(maxEntries / size, 1));
+        }
+        this.mask = size - 1;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.enabled = enabled;
+
+        for (DeviceRequestKind kind : DeviceRequestKind.values()) {
+            hits.put(kind, Counter.builder("devices.dedup.hits")
+                    .description("Device requests acknowledged as duplicates")
+                    .tag("kind", kind.name())
+                    .register(meterRegistry));
+            misses.put(kind, Counter.builder("devices.dedup.misses")
+                    .description("Device requests processed for the first time")
+                    .tag("kind", kind.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("devices.dedup.entries", this, DeviceRequestDeduplicator::size)
+                .description("Keys currently held in the dedup window")
+                .register(meterRegistry);
+    }
+
+    public String key(DeviceRequestKind kind, String resourceId, Instant timestamp, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return kind.name() + '|' + resourceId + "|K|" + idempotencyKey;
+        }
+        return kind.name() + '|' + resourceId + "|T|" + timestamp.getEpochSecond() + '.' + timestamp.getNano();
+    }
+
+    /**
+     * @return true se a requisição deve ser processada; false se é reenvio dentro da janela
+     */
+    public boolean tryAcquire(DeviceRequestKind kind, String key) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        Stripe stripe = stripeFor(key);
+        boolean duplicate;
+        synchronized (stripe) {
+            stripe.expire(now);
+            Long expiresAt = stripe.get(key);
+            duplicate = expiresAt != null && expiresAt - now > 0;
+            if (!duplicate) {
+                stripe.put(key, now + windowNanos);
+            }
+        }
+        (duplicate ? hits : misses).get(kind).increment();
+        return !duplicate;
+    }
+
+    /**
+     * Libera a chave quando o processamento falhou, para que o reenvio seja processado.
+     */
+    public void release(String key) {
+        if (!enabled) {
+            return;
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size();
+            }
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Long> {
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, false);
+            this.maxEntries = maxEntries;
+        }
+
+        // Todas as chaves têm o mesmo prazo, então a ordem de inserção é a ordem de expiração
+        private void expire(long now) {
+            Iterator<Long> iterator = values().iterator();
+            while (iterator.hasNext() && iterator.next() - now <= 0) {
+                iterator.remove();
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
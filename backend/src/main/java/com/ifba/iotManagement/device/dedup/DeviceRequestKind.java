@@ -0,0 +1,6 @@
+package com.ifba.iotManagement.device.dedup;
+
+public enum DeviceRequestKind {
+    STATUS,
+    AUTO_RELEASE
+}
@@ -0,0 +1,25 @@
+package com.ifba.iotManagement.device.dto;
+
+import com.ifba.iotManagement.device.batch.DeviceBatchItemOutcome;
+
+import java.util.List;
+
+/**
+ * @param commands      comandos ainda não confirmados do recurso; nulo nos itens sem recurso aplicável
+ *                      ({@code NOT_FOUND}, {@code INVALID}, {@code SUPERSEDED})
+ * @param nextPollAfter segundos sugeridos até a próxima consulta, nos mesmos itens que {@code commands}
+ */
+public record DeviceBatchItemResultDto(
+        int index,
+        String resourceId,
+        DeviceBatchItemOutcome outcome,
+        String status,
+        String message,
+        List<DeviceCommandDto> commands,
+        Long nextPollAfter
+) {
+    public DeviceBatchItemResultDto withSync(DeviceSyncDto sync) {
+        return new DeviceBatchItemResultDto(index, resourceId, outcome, sync.status(), message,
+                sync.commands(), sync.nextPollAfter());
+    }
+}
@@ -0,0 +1,10 @@
+package com.ifba.iotManagement.device.dto;
+
+import java.util.List;
+
+public record DeviceBatchStatusResponseDto(
+        int received,
+        int applied,
+        List<DeviceBatchItemResultDto> results
+) {
+}
@@ -0,0 +1,11 @@
+package com.ifba.iotManagement.device.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record DeviceCallbackDto(
+        @NotBlank(message = "Callback URL cannot be blank")
+        @Size(max = 2048, message = "Callback URL must have at most 2048 characters")
+        String url
+) {
+}
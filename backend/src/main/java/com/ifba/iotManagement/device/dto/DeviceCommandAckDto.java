@@ -0,0 +1,11 @@
+package com.ifba.iotManagement.device.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record DeviceCommandAckDto(
+        @NotNull(message = "Sequence cannot be null")
+        @Positive(message = "Sequence must be positive")
+        Long sequence
+) {
+}
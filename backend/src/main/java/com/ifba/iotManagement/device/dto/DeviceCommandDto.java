@@ -1,8 +1,22 @@
 package com.ifba.iotManagement.device.dto;
 
+/**
+ * @param sequence número de sequência no outbox, usado na confirmação; nulo para comandos gerados sob demanda
+ */
 public record DeviceCommandDto(
         String resourceId,
         String command,
-        String details
+        String details,
+        Long sequence
 ) {
-}
\ No newline at end of file
+    public static final String RESERVE = "RESERVE";
+    public static final String RELEASE = "RELEASE";
+
+    public static DeviceCommandDto reserve(String resourceId) {
+        return new DeviceCommandDto(resourceId, RESERVE, "Reserve this resource", null);
+    }
+
+    public static DeviceCommandDto release(String resourceId) {
+        return new DeviceCommandDto(resourceId, RELEASE, "Release this resource", null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.ifba.iotManagement.device.dto;
+
+import com.ifba.iotManagement.device.gateway.DeviceGatewayFrameType;
+
+import java.time.Instant;
+
+/**
+ * Frame enviado pelo dispositivo pela sessão WebSocket. O resourceId vem do caminho da conexão.
+ */
+public record DeviceGatewayFrameDto(
+        DeviceGatewayFrameType type,
+
+        // STATUS
+        String status,
+        Boolean firstConnection,
+        Instant reservedAt,
+        Instant predictedEndTime,
+
+        // AUTO_RELEASE
+        String reason,
+
+        // ACK: confirma os comandos do outbox até esta sequência (inclusive)
+        Long sequence,
+
+        Instant timestamp
+) {
+}
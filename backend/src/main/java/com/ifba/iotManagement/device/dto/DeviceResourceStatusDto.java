@@ -5,7 +5,9 @@ import java.time.Instant;
 public record DeviceResourceStatusDto(
         String resourceId,
         String status,
-        ReserveDetailsDto reserveDetails
+        ReserveDetailsDto reserveDetails,
+        // Segundos sugeridos até a próxima consulta (mesmo valor do header Retry-After)
+        Long nextPollAfter
 ) {
     public record ReserveDetailsDto(
             String userId,
@@ -0,0 +1,16 @@
+package com.ifba.iotManagement.device.dto;
+
+import java.util.List;
+
+/**
+ * Resposta de {@code POST /devices/status}: o estado do recurso no servidor e os comandos ainda não
+ * confirmados, para o dispositivo sincronizar sem consultas separadas.
+ */
+public record DeviceSyncDto(
+        String resourceId,
+        String status,
+        List<DeviceCommandDto> commands,
+        // Segundos sugeridos até a próxima consulta (mesmo valor do header Retry-After)
+        Long nextPollAfter
+) {
+}
@@ -0,0 +1,15 @@
+package com.ifba.iotManagement.device.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * @param status último status observado até o fim do intervalo (carregado dos intervalos anteriores quando não há amostras)
+ */
+public record DeviceTelemetryPointDto(
+        Instant bucketStart,
+        String status,
+        long samples,
+        Map<String, Long> samplesByStatus
+) {
+}
@@ -0,0 +1,15 @@
+package com.ifba.iotManagement.device.dto;
+
+import com.ifba.iotManagement.device.telemetry.TelemetryResolution;
+
+import java.time.Instant;
+import java.util.List;
+
+public record DeviceTelemetrySeriesDto(
+        String resourceId,
+        TelemetryResolution resolution,
+        Instant from,
+        Instant to,
+        List<DeviceTelemetryPointDto> points
+) {
+}
@@ -0,0 +1,14 @@
+package com.ifba.iotManagement.device.dto;
+
+import java.time.Instant;
+
+public record FlappingDeviceDto(
+        String resourceId,
+        String persistedStatus, // Status gravado antes do amortecimento
+        String lastReportedStatus,
+        Instant dampedSince,
+        Instant lastTransitionAt,
+        int transitions,
+        int suppressedUpdates
+) {
+}
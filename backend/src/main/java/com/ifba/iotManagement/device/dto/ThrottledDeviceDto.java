@@ -0,0 +1,7 @@
+package com.ifba.iotManagement.device.dto;
+
+public record ThrottledDeviceDto(
+        String resourceId,
+        long throttledRequests
+) {
+}
@@ -0,0 +1,41 @@
+package com.ifba.iotManagement.device.flap;
+
+import com.ifba.iotManagement.device.dto.FlappingDeviceDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/device-flaps")
+@Tag(name = "Device flapping", description = "Monitoramento de dispositivos com status oscilante")
+public class DeviceFlapController {
+
+    private final DeviceFlapDetector flapDetector;
+
+    public DeviceFlapController(DeviceFlapDetector flapDetector) {
+        this.flapDetector = flapDetector;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Dispositivos oscilando",
+            description = "Retorna os dispositivos amortecidos por oscilação de status, cujas atualizações não estão "
+                    + "sendo gravadas até estabilizarem (admin apenas)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado - apenas administradores")
+    })
+    public ResponseEntity<List<FlappingDeviceDto>> getFlappingDevices() {
+        return ResponseEntity.ok(flapDetector.flappingDevices());
+    }
+}
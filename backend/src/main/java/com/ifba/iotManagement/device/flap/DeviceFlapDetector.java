@@ -0,0 +1,141 @@
+package com.ifba.iotManagement.device.flap;
+
+import com.ifba.iotManagement.device.dto.FlappingDeviceDto;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detecta dispositivos cujo status oscila (sensor com defeito alternando livre/ocupado).
+ * <p>
+ * Só recursos com transição recente têm um {@link FlapHistory}; heartbeats que repetem o status gravado não
+ * alocam nada. Com {@code threshold} transições dentro de {@code window-seconds} o dispositivo entra em
+ * amortecimento: as atualizações seguintes avançam apenas a memória (sem UPDATE, auditoria ou telemetria) até
+ * ele ficar {@code quiet-seconds} sem transições, quando o {@link DeviceFlapSettler} grava o status assentado e
+ * um único registro de auditoria com o resumo do período.
+ */
+@Component
+public class DeviceFlapDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceFlapDetector.class);
+
+    private final ConcurrentHashMap<Long, FlapHistory> histories = new ConcurrentHashMap<>();
+    private final Counter dampedCounter;
+    private final Counter suppressedCounter;
+
+    @Value("${devices.flap.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devices.flap.threshold:6}")
+    private int threshold;
+
+    @Value("${devices.flap.window-seconds:10}")
+    private long windowSeconds;
+
+    @Value("${devices.flap.quiet-seconds:30}")
+    private long quietSeconds;
+
+    @Value("${devices.flap.max-tracked:10000}")
+    private int maxTracked;
+
+    public DeviceFlapDetector(MeterRegistry meterRegistry) {
+        this.dampedCounter = Counter.builder("devices.flap.damped")
+                .description("Devices put in damped state for flapping")
+                .register(meterRegistry);
+        this.suppressedCounter = Counter.builder("devices.flap.suppressed")
+                .description("Status updates not persisted because the device was flapping")
+                .register(meterRegistry);
+        Gauge.builder("devices.flap.tracked", histories, ConcurrentHashMap::size)
+                .description("Devices with recent status transitions being tracked for flapping")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra o status reportado por um dispositivo já validado e fora da regra de atualizações antigas.
+     *
+     * @param baseline status gravado, usado como último status quando o recurso ainda não é acompanhado
+     * @return true se o dispositivo está amortecido e a atualização não deve ser gravada
+     */
+    public boolean suppress(long resourcePk, String resourceId, IotResourceStatus baseline,
+                            IotResourceStatus reported, Instant deviceTimestamp) {
+        if (!enabled) {
+            return false;
+        }
+        FlapHistory history = histories.get(resourcePk);
+        if (history == null) {
+            if (reported == baseline || histories.size() >= maxTracked) {
+                return false;
+            }
+            history = histories.computeIfAbsent(resourcePk, pk -> new FlapHistory(resourceId, threshold, baseline));
+        }
+        synchronized (history) {
+            boolean wasDamped = history.isDamped();
+            boolean damped = history.record(reported, deviceTimestamp, System.currentTimeMillis(), windowSeconds * 1000);
+            if (damped && !wasDamped) {
+                dampedCounter.increment();
+                logger.warn("Device {} is flapping ({} transitions within {}s); suppressing status updates until it settles",
+                        resourceId, threshold, windowSeconds);
+            }
+            if (damped) {
+                suppressedCounter.increment();
+            }
+            return damped;
+        }
+    }
+
+    /**
+     * Remove e retorna os dispositivos amortecidos que ficaram {@code quiet-seconds} sem transições,
+     * descartando também os históricos ociosos.
+     */
+    List<SettledFlap> drainSettled() {
+        long now = System.currentTimeMillis();
+        long quietMillis = quietSeconds * 1000;
+        long windowMillis = windowSeconds * 1000;
+        List<SettledFlap> settled = new ArrayList<>();
+        histories.forEach((resourcePk, history) -> {
+            synchronized (history) {
+                if (history.isSettled(now, quietMillis)) {
+                    settled.add(history.settle(resourcePk));
+                    histories.remove(resourcePk, history);
+                } else if (history.isIdle(now, windowMillis)) {
+                    histories.remove(resourcePk, history);
+                }
+            }
+        });
+        return settled;
+    }
+
+    /**
+     * Dispositivos atualmente amortecidos, dos que mais oscilaram para os que menos oscilaram.
+     */
+    public List<FlappingDeviceDto> flappingDevices() {
+        List<FlappingDeviceDto> flapping = new ArrayList<>();
+        histories.forEach((resourcePk, history) -> {
+            synchronized (history) {
+                if (history.isDamped()) {
+                    flapping.add(history.snapshot());
+                }
+            }
+        });
+        flapping.sort(Comparator.comparingInt(FlappingDeviceDto::transitions).reversed());
+        return flapping;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        histories.remove(event.id());
+    }
+}
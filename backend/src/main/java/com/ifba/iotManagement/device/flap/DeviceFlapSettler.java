@@ -0,0 +1,64 @@
+package com.ifba.iotManagement.device.flap;
+
+import com.ifba.iotManagement.audit.AuditAction;
+import com.ifba.iotManagement.audit.AuditResult;
+import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.DeviceAuditDetails;
+import com.ifba.iotManagement.device.batch.DeviceStatusBatchService;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Encerra os períodos de amortecimento do {@link DeviceFlapDetector}: grava o último status reportado pelo
+ * caminho do write-behind ({@link DeviceStatusBatchService#applyBuffered}, com compare-and-set do timestamp,
+ * auditoria da transição e evento) e um registro {@link AuditAction#DEVICE_STATUS_FLAPPING} com o resumo.
+ */
+@Component
+public class DeviceFlapSettler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceFlapSettler.class);
+
+    private final DeviceFlapDetector flapDetector;
+    private final DeviceStatusBatchService batchService;
+    private final IotResourceRepository resourceRepository;
+    private final AuditService auditService;
+
+    public DeviceFlapSettler(DeviceFlapDetector flapDetector,
+                             DeviceStatusBatchService batchService,
+                             IotResourceRepository resourceRepository,
+                             AuditService auditService) {
+        this.flapDetector = flapDetector;
+        this.batchService = batchService;
+        this.resourceRepository = resourceRepository;
+        this.auditService = auditService;
+    }
+
+    @Scheduled(fixedDelayString = "${devices.flap.settle-interval-ms:1000}")
+    public void settle() {
+        for (SettledFlap flap : flapDetector.drainSettled()) {
+            try {
+                batchService.applyBuffered(List.of(new DeviceStatusUpdateDto(
+                        flap.resourceId(), flap.settledStatus().name(), flap.lastDeviceTimestamp(), false, null, null)));
+                resourceRepository.findByIdAndDeletedFalse(flap.resourcePk()).ifPresent(resource ->
+                        auditService.logSystemAction(
+                                AuditAction.DEVICE_STATUS_FLAPPING,
+                                resource.getPublicId(),
+                                resource.getName(),
+                                AuditResult.SUCCESS,
+                                DeviceAuditDetails.flapSettled(flap.persistedStatus(), flap.settledStatus(),
+                                        flap.dampedSince(), flap.transitions(), flap.suppressedUpdates())
+                        ));
+                logger.info("Device {} settled at {} after flapping ({} transitions, {} updates suppressed)",
+                        flap.resourceId(), flap.settledStatus(), flap.transitions(), flap.suppressedUpdates());
+            } catch (Exception e) {
+                logger.error("Error persisting settled status for flapping device {}", flap.resourceId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ifba.iotManagement.device.flap;
+
+import com.ifba.iotManagement.device.dto.FlappingDeviceDto;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+import java.time.Instant;
+
+/**
+ * Histórico de transições de um dispositivo: um ring buffer com os instantes (epoch millis) das últimas
+ * {@code threshold} mudanças de status reportadas. Se a mais antiga delas ainda está dentro da janela, o
+ * dispositivo está oscilando e entra em amortecimento até ficar {@code quiet-seconds} sem transições.
+ * Acesso sempre sincronizado no próprio objeto.
+ */
+final class FlapHistory {
+
+    private final String resourceId;
+    private final long[] transitions;
+    private int next;
+    private int count;
+
+    private IotResourceStatus lastReported;
+    private Instant lastTimestamp;
+    private long lastTransitionMillis;
+
+    private boolean damped;
+    private IotResourceStatus persistedStatus;
+    private long dampedSinceMillis;
+    private int dampedTransitions;
+    private int suppressed;
+
+    FlapHistory(String resourceId, int threshold, IotResourceStatus baseline) {
+        this.resourceId = resourceId;
+        this.transitions = new long[threshold];
+        this.lastReported = baseline;
+    }
+
+    /**
+     * Registra um status reportado.
+     *
+     * @return true se o dispositivo está amortecido e a atualização não deve ser gravada
+     */
+    boolean record(IotResourceStatus reported, Instant deviceTimestamp, long nowMillis, long windowMillis) {
+        if (lastTimestamp == null || deviceTimestamp.isAfter(lastTimestamp)) {
+            lastTimestamp = deviceTimestamp;
+        }
+        if (reported != lastReported) {
+            IotResourceStatus previous = lastReported;
+            lastReported = reported;
+            lastTransitionMillis = nowMillis;
+            transitions[next] = nowMillis;
+            next = (next + 1) % transitions.length;
+            count = Math.min(count + 1, transitions.length);
+
+            if (damped) {
+                dampedTransitions++;
+            } else if (count == transitions.length && nowMillis - transitions[next] <= windowMillis) {
+                // transitions[next] é a mais antiga do ring cheio
+                damped = true;
+                persistedStatus = previous;
+                dampedSinceMillis = nowMillis;
+                dampedTransitions = 1;
+                suppressed = 0;
+            }
+        }
+        if (damped) {
+            suppressed++;
+        }
+        return damped;
+    }
+
+    boolean isDamped() {
+        return damped;
+    }
+
+    boolean isSettled(long nowMillis, long quietMillis) {
+        return damped && nowMillis - lastTransitionMillis >= quietMillis;
+    }
+
+    boolean isIdle(long nowMillis, long windowMillis) {
+        return !damped && nowMillis - lastTransitionMillis > windowMillis;
+    }
+
+    SettledFlap settle(long resourcePk) {
+        return new SettledFlap(resourcePk, resourceId, persistedStatus, lastReported, lastTimestamp,
+                Instant.ofEpochMilli(dampedSinceMillis), dampedTransitions, suppressed);
+    }
+
+    FlappingDeviceDto snapshot() {
+        return new FlappingDeviceDto(
+                resourceId,
+                persistedStatus.name(),
+                lastReported.name(),
+                Instant.ofEpochMilli(dampedSinceMillis),
+                Instant.ofEpochMilli(lastTransitionMillis),
+                dampedTransitions,
+                suppressed
+        );
+    }
+}
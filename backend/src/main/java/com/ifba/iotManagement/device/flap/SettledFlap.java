@@ -0,0 +1,20 @@
+package com.ifba.iotManagement.device.flap;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+import java.time.Instant;
+
+/**
+ * Resumo de um período de amortecimento encerrado, gravado pelo {@link DeviceFlapSettler}.
+ */
+record SettledFlap(
+        long resourcePk,
+        String resourceId,
+        IotResourceStatus persistedStatus,
+        IotResourceStatus settledStatus,
+        Instant lastDeviceTimestamp,
+        Instant dampedSince,
+        int transitions,
+        int suppressedUpdates
+) {
+}
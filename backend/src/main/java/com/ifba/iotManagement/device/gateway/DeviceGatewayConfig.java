@@ -0,0 +1,36 @@
+package com.ifba.iotManagement.device.gateway;
+
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class DeviceGatewayConfig implements WebSocketConfigurer {
+
+    private final DeviceGatewayHandler deviceGatewayHandler;
+    private final DeviceRegistryLoader registryLoader;
+    private final DeviceRateLimiter rateLimiter;
+
+    @Value("${devices.gateway.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    public DeviceGatewayConfig(DeviceGatewayHandler deviceGatewayHandler,
+                               DeviceRegistryLoader registryLoader,
+                               DeviceRateLimiter rateLimiter) {
+        this.deviceGatewayHandler = deviceGatewayHandler;
+        this.registryLoader = registryLoader;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(deviceGatewayHandler, "/api/v1/devices/ws/*")
+                .addInterceptors(new DeviceGatewayHandshakeInterceptor(registryLoader, rateLimiter))
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ifba.iotManagement.device.gateway;
+
+public enum DeviceGatewayFrameType {
+    STATUS,
+    AUTO_RELEASE,
+    ACK
+}
@@ -0,0 +1,237 @@
+package com.ifba.iotManagement.device.gateway;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifba.iotManagement.device.DeviceService;
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dedup.DeviceRequestDeduplicator;
+import com.ifba.iotManagement.device.dedup.DeviceRequestKind;
+import com.ifba.iotManagement.device.dto.DeviceAutoReleaseDto;
+import com.ifba.iotManagement.device.dto.DeviceCommandAckDto;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.device.dto.DeviceGatewayFrameDto;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.ingest.DeviceIngestOutcome;
+import com.ifba.iotManagement.device.ingest.DeviceStatusCoalescer;
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import com.ifba.iotManagement.shared.exceptions.TooManyRequestsException;
+import com.ifba.iotManagement.web.RestErrorMessage;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gateway WebSocket dos dispositivos ({@code /api/v1/devices/ws/{resourceId}}).
+ * <p>
+ * Cada dispositivo mantém uma sessão aberta, envia frames STATUS e AUTO_RELEASE e recebe os comandos
+ * RESERVE/RELEASE ({@link DeviceCommandDto}) assim que são emitidos. Ao conectar, os comandos ainda pendentes
+ * no {@link DeviceCommandOutbox} são reenviados; o dispositivo os confirma com frames ACK.
+ * As mudanças de estado passam pelo mesmo {@link DeviceService} (e write-behind) usado pelos endpoints HTTP.
+ * Os envios passam por um {@link ConcurrentWebSocketSessionDecorator}: uma sessão lenta acumula mensagens
+ * até o limite de tempo/buffer configurado e então é encerrada, sem bloquear quem publica o comando.
+ */
+@Component
+public class DeviceGatewayHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceGatewayHandler.class);
+
+    private static final String OUTBOUND_SESSION_ATTRIBUTE = "outboundSession";
+    private static final CloseStatus REPLACED = new CloseStatus(4000, "Replaced by a newer session");
+
+    private final DeviceService deviceService;
+    private final DeviceStatusCoalescer deviceStatusCoalescer;
+    private final DeviceRequestDeduplicator deviceRequestDeduplicator;
+    private final DeviceRateLimiter deviceRateLimiter;
+    private final DeviceCommandOutbox commandOutbox;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DeviceSessionTable sessions;
+
+    @Value("${devices.gateway.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${devices.gateway.send-buffer-size-limit-bytes:65536}")
+    private int sendBufferSizeLimit;
+
+    public DeviceGatewayHandler(DeviceService deviceService,
+                                DeviceStatusCoalescer deviceStatusCoalescer,
+                                DeviceRequestDeduplicator deviceRequestDeduplicator,
+                                DeviceRateLimiter deviceRateLimiter,
+                                DeviceCommandOutbox commandOutbox,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${devices.gateway.session-shards:64}") int sessionShards) {
+        this.deviceService = deviceService;
+        this.deviceStatusCoalescer = deviceStatusCoalescer;
+        this.deviceRequestDeduplicator = deviceRequestDeduplicator;
+        this.deviceRateLimiter = deviceRateLimiter;
+        this.commandOutbox = commandOutbox;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.sessions = new DeviceSessionTable(sessionShards);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String resourceId = resourceId(session);
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferSizeLimit);
+        session.getAttributes().put(OUTBOUND_SESSION_ATTRIBUTE, outbound);
+
+        WebSocketSession previous = sessions.put(resourceId, outbound);
+        if (previous != null && previous.isOpen()) {
+            previous.close(REPLACED);
+        }
+        logger.info("Device gateway session opened for resource {} ({} active sessions)", resourceId, sessions.size());
+
+        // Sem comandos pendentes não há acesso ao banco
+        for (DeviceCommandDto command : commandOutbox.fetchPending(resourceId, null)) {
+            outbound.sendMessage(new TextMessage(objectMapper.writeValueAsString(command)));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        String resourceId = resourceId(session);
+        try {
+            DeviceGatewayFrameDto frame = objectMapper.readValue(message.getPayload(), DeviceGatewayFrameDto.class);
+            if (frame.type() == null) {
+                throw new IllegalArgumentException("Frame type is required");
+            }
+            deviceRateLimiter.checkDevice(resourceId);
+            switch (frame.type()) {
+                case STATUS -> handleStatus(resourceId, frame);
+                case AUTO_RELEASE -> handleAutoRelease(resourceId, frame);
+                case ACK -> handleAck(resourceId, frame);
+            }
+        } catch (ResourceNotFoundException e) {
+            sendError(session, HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (TooManyRequestsException e) {
+            sendError(session, HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        } catch (JsonProcessingException e) {
+            sendError(session, HttpStatus.BAD_REQUEST, "Malformed frame");
+        } catch (IllegalArgumentException e) {
+            sendError(session, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error handling gateway frame for resource {}", resourceId, e);
+            sendError(session, HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.warn("Transport error on device gateway session for resource {}: {}",
+                resourceId(session), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String resourceId = resourceId(session);
+        WebSocketSession outbound = (WebSocketSession) session.getAttributes().get(OUTBOUND_SESSION_ATTRIBUTE);
+        if (outbound != null) {
+            sessions.remove(resourceId, outbound);
+        }
+        logger.info("Device gateway session closed for resource {} ({})", resourceId, status);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        WebSocketSession session = sessions.get(event.resourceId());
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(event.command())));
+        } catch (Exception e) {
+            // Sessões que estouram o limite de envio são encerradas pelo decorator
+            logger.warn("Could not push {} command to resource {}: {}",
+                    event.command().command(), event.resourceId(), e.getMessage());
+        }
+    }
+
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    private void handleStatus(String resourceId, DeviceGatewayFrameDto frame) {
+        DeviceStatusUpdateDto update = new DeviceStatusUpdateDto(
+                resourceId,
+                frame.status(),
+                frame.timestamp(),
+                frame.firstConnection(),
+                frame.reservedAt(),
+                frame.predictedEndTime()
+        );
+        validate(update);
+        String dedupKey = deviceRequestDeduplicator.key(DeviceRequestKind.STATUS, resourceId, update.timestamp(), null);
+        if (!deviceRequestDeduplicator.tryAcquire(DeviceRequestKind.STATUS, dedupKey)) {
+            return;
+        }
+        try {
+            if (deviceStatusCoalescer.offer(update) == DeviceIngestOutcome.NOT_HANDLED) {
+                deviceService.updateResourceStatus(update);
+            }
+        } catch (RuntimeException e) {
+            deviceRequestDeduplicator.release(dedupKey);
+            throw e;
+        }
+    }
+
+    private void handleAutoRelease(String resourceId, DeviceGatewayFrameDto frame) {
+        DeviceAutoReleaseDto autoRelease = new DeviceAutoReleaseDto(frame.timestamp(), frame.reason());
+        validate(autoRelease);
+        String dedupKey = deviceRequestDeduplicator.key(
+                DeviceRequestKind.AUTO_RELEASE, resourceId, autoRelease.timestamp(), null);
+        if (!deviceRequestDeduplicator.tryAcquire(DeviceRequestKind.AUTO_RELEASE, dedupKey)) {
+            return;
+        }
+        try {
+            deviceService.processAutoRelease(resourceId, autoRelease);
+        } catch (RuntimeException e) {
+            deviceRequestDeduplicator.release(dedupKey);
+            throw e;
+        }
+    }
+
+    private void handleAck(String resourceId, DeviceGatewayFrameDto frame) {
+        DeviceCommandAckDto ack = new DeviceCommandAckDto(frame.sequence());
+        validate(ack);
+        commandOutbox.acknowledge(resourceId, ack.sequence());
+    }
+
+    private <T> void validate(T payload) {
+        Set<ConstraintViolation<T>> violations = validator.validate(payload);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private void sendError(WebSocketSession session, HttpStatus status, String message) throws IOException {
+        WebSocketSession outbound = (WebSocketSession) session.getAttributes().get(OUTBOUND_SESSION_ATTRIBUTE);
+        if (outbound != null && outbound.isOpen()) {
+            outbound.sendMessage(new TextMessage(objectMapper.writeValueAsString(new RestErrorMessage(status, message))));
+        }
+    }
+
+    private static String resourceId(WebSocketSession session) {
+        return (String) session.getAttributes().get(DeviceGatewayHandshakeInterceptor.RESOURCE_ID_ATTRIBUTE);
+    }
+}
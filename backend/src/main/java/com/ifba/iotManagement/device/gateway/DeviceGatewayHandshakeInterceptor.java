@@ -0,0 +1,62 @@
+package com.ifba.iotManagement.device.gateway;
+
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.shared.exceptions.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Recusa o upgrade com 404 quando o recurso do caminho {@code /devices/ws/{resourceId}} não existe
+ * e com 429 quando o IP ou o dispositivo excedeu o limite de taxa (tempestade de reconexões).
+ */
+class DeviceGatewayHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String RESOURCE_ID_ATTRIBUTE = "resourceId";
+
+    private final DeviceRegistryLoader registryLoader;
+    private final DeviceRateLimiter rateLimiter;
+
+    DeviceGatewayHandshakeInterceptor(DeviceRegistryLoader registryLoader, DeviceRateLimiter rateLimiter) {
+        this.registryLoader = registryLoader;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request,
+                                   ServerHttpResponse response,
+                                   WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        String path = request.getURI().getPath();
+        String resourceId = path.substring(path.lastIndexOf('/') + 1);
+        try {
+            if (request.getRemoteAddress() != null) {
+                rateLimiter.checkClient(request.getRemoteAddress().getAddress().getHostAddress());
+            }
+            rateLimiter.checkDevice(resourceId);
+        } catch (TooManyRequestsException e) {
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            return false;
+        }
+        if (resourceId.isBlank() || registryLoader.lookup(resourceId).isEmpty()) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        attributes.put(RESOURCE_ID_ATTRIBUTE, resourceId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request,
+                               ServerHttpResponse response,
+                               WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.ifba.iotManagement.device.gateway;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tabela resourceId -> sessão WebSocket dividida em shards, cada um com seu próprio lock,
+ * para que conexões e desconexões de dispositivos diferentes não disputem o mesmo lock.
+ */
+final class DeviceSessionTable {
+
+    private final Shard[] shards;
+    private final int mask;
+
+    DeviceSessionTable(int shardCount) {
+        int size = Integer.highestOneBit(Math.max(shardCount, 1) - 1) << 1;
+        this.shards = new Shard[Math.max(size, 1)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.mask = shards.length - 1;
+    }
+
+    /**
+     * @return a sessão anterior do recurso, se existir
+     */
+    WebSocketSession put(String resourceId, WebSocketSession session) {
+        Shard shard = shardFor(resourceId);
+        shard.lock.lock();
+        try {
+            return shard.sessions.put(resourceId, session);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    WebSocketSession get(String resourceId) {
+        Shard shard = shardFor(resourceId);
+        shard.lock.lock();
+        try {
+            return shard.sessions.get(resourceId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove apenas se a sessão registrada ainda for a informada (não derruba uma reconexão mais nova).
+     */
+    boolean remove(String resourceId, WebSocketSession session) {
+        Shard shard = shardFor(resourceId);
+        shard.lock.lock();
+        try {
+            return shard.sessions.remove(resourceId, session);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                total += shard.sessions.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    private Shard shardFor(String resourceId) {
+        int h = resourceId.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, WebSocketSession> sessions = new HashMap<>();
+    }
+}
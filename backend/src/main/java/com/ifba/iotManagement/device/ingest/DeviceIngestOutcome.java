@@ -0,0 +1,14 @@
+package com.ifba.iotManagement.device.ingest;
+
+public enum DeviceIngestOutcome {
+    /** O coalescer não tratou a atualização; ela deve seguir pelo caminho síncrono. */
+    NOT_HANDLED,
+    /** Status reportado é igual ao último conhecido; nada a gravar. */
+    UNCHANGED,
+    /** Transição aceita no buffer e será gravada no próximo flush. */
+    BUFFERED,
+    /** Atualização mais antiga que a última aceita para o recurso; descartada. */
+    STALE,
+    /** Dispositivo oscilando; nada é gravado até o {@code DeviceFlapSettler} assentar o status. */
+    DAMPED
+}
@@ -0,0 +1,208 @@
+package com.ifba.iotManagement.device.ingest;
+
+import com.ifba.iotManagement.device.DeviceStatusMapper;
+import com.ifba.iotManagement.device.batch.DeviceBatchItemOutcome;
+import com.ifba.iotManagement.device.batch.DeviceStatusBatchService;
+import com.ifba.iotManagement.device.dto.DeviceBatchItemResultDto;
+import com.ifba.iotManagement.device.dto.DeviceBatchStatusResponseDto;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.flap.DeviceFlapDetector;
+import com.ifba.iotManagement.device.liveness.DeviceLivenessTracker;
+import com.ifba.iotManagement.device.ordering.DeviceUpdateOrdering;
+import com.ifba.iotManagement.device.registry.DeviceRegistry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.device.telemetry.DeviceTelemetryRecorder;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modo de ingestão write-behind para {@code POST /devices/status}.
+ * <p>
+ * Heartbeats que repetem o último status conhecido são respondidos apenas com o {@link DeviceRegistry},
+ * sem tocar no banco. Transições reais entram em um buffer que guarda somente a atualização mais
+ * recente de cada recurso e é gravado periodicamente em lote pelo {@link DeviceStatusBatchService}.
+ * Quando o buffer está cheio a atualização volta para o caminho síncrono, o que funciona como backpressure.
+ * Dispositivos oscilando ({@link DeviceFlapDetector}) são amortecidos antes do buffer, como nos outros caminhos.
+ * Lotes que falham por erro passageiro do banco voltam ao buffer; a ordem em memória de cada recurso só
+ * avança depois do commit do lote.
+ */
+@Component
+public class DeviceStatusCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceStatusCoalescer.class);
+
+    private final DeviceRegistry registry;
+    private final DeviceRegistryLoader registryLoader;
+    private final DeviceStatusBatchService batchService;
+    private final DeviceLivenessTracker livenessTracker;
+    private final DeviceUpdateOrdering updateOrdering;
+    private final DeviceTelemetryRecorder telemetryRecorder;
+    private final DeviceFlapDetector flapDetector;
+
+    private final Map<String, DeviceStatusUpdateDto> pending = new ConcurrentHashMap<>();
+
+    @Value("${devices.ingest.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${devices.ingest.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${devices.ingest.write-behind.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public DeviceStatusCoalescer(DeviceRegistry registry,
+                                 DeviceRegistryLoader registryLoader,
+                                 DeviceStatusBatchService batchService,
+                                 DeviceLivenessTracker livenessTracker,
+                                 DeviceUpdateOrdering updateOrdering,
+                                 DeviceTelemetryRecorder telemetryRecorder,
+                                 DeviceFlapDetector flapDetector) {
+        this.registry = registry;
+        this.registryLoader = registryLoader;
+        this.batchService = batchService;
+        this.livenessTracker = livenessTracker;
+        this.updateOrdering = updateOrdering;
+        this.telemetryRecorder = telemetryRecorder;
+        this.flapDetector = flapDetector;
+    }
+
+    public DeviceIngestOutcome offer(DeviceStatusUpdateDto update) {
+        if (!enabled) {
+            return DeviceIngestOutcome.NOT_HANDLED;
+        }
+
+        IotResourceStatus reportedStatus;
+        try {
+            reportedStatus = DeviceStatusMapper.toResourceStatus(update.status());
+        } catch (IllegalArgumentException e) {
+            // Caminho síncrono gera o erro e a auditoria de falha
+            return DeviceIngestOutcome.NOT_HANDLED;
+        }
+
+        DeviceRegistryEntry entry = registryLoader.lookup(update.resourceId()).orElse(null);
+        if (entry == null) {
+            return DeviceIngestOutcome.NOT_HANDLED;
+        }
+        livenessTracker.touch(update.resourceId());
+
+        boolean firstConnection = Boolean.TRUE.equals(update.firstConnection());
+        Instant deviceTimestamp = updateOrdering.effectiveTimestamp(update.timestamp());
+        if (updateOrdering.isStale(entry.id(), deviceTimestamp, firstConnection)) {
+            updateOrdering.reject(update.resourceId(), update.timestamp());
+            return DeviceIngestOutcome.STALE;
+        }
+
+        boolean activation = firstConnection && entry.status() == IotResourceStatus.INACTIVE;
+        // Dispositivo oscilando: só a memória avança; o status assentado é gravado pelo DeviceFlapSettler
+        if (!activation && flapDetector.suppress(
+                entry.id(), entry.resourceId(), entry.status(), reportedStatus, deviceTimestamp)) {
+            updateOrdering.accept(entry.id(), deviceTimestamp, firstConnection);
+            return DeviceIngestOutcome.DAMPED;
+        }
+        if (!activation && entry.status() == reportedStatus) {
+            updateOrdering.accept(entry.id(), deviceTimestamp, firstConnection);
+            // Transições bufferizadas são registradas no flush, pelo DeviceStatusBatchService
+            telemetryRecorder.record(entry.id(), reportedStatus, deviceTimestamp);
+            return DeviceIngestOutcome.UNCHANGED;
+        }
+
+        if (pending.size() >= maxPending && !pending.containsKey(update.resourceId())) {
+            return DeviceIngestOutcome.NOT_HANDLED;
+        }
+
+        DeviceStatusUpdateDto latest = pending.merge(update.resourceId(), update, DeviceStatusCoalescer::newest);
+        registry.updateStatus(update.resourceId(), DeviceStatusMapper.toResourceStatus(latest.status()));
+        // A ordem em memória só avança quando o flush confirma o compare-and-set no banco
+        return DeviceIngestOutcome.BUFFERED;
+    }
+
+    @Scheduled(fixedDelayString = "${devices.ingest.write-behind.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<DeviceStatusUpdateDto> drained = new ArrayList<>(pending.size());
+        for (String resourceId : pending.keySet()) {
+            DeviceStatusUpdateDto update = pending.remove(resourceId);
+            if (update != null) {
+                drained.add(update);
+            }
+        }
+
+        for (int from = 0; from < drained.size(); from += flushBatchSize) {
+            List<DeviceStatusUpdateDto> chunk = drained.subList(from, Math.min(from + flushBatchSize, drained.size()));
+            try {
+                DeviceBatchStatusResponseDto response = batchService.applyBuffered(chunk);
+                for (DeviceBatchItemResultDto result : response.results()) {
+                    // STALE: o status otimista do registro foi sobrescrito por uma atualização mais nova
+                    if (result.outcome() == DeviceBatchItemOutcome.NOT_FOUND
+                            || result.outcome() == DeviceBatchItemOutcome.INVALID
+                            || result.outcome() == DeviceBatchItemOutcome.STALE) {
+                        registry.remove(result.resourceId());
+                    }
+                }
+            } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+                // Falha passageira: as atualizações voltam ao buffer e o próximo flush tenta de novo.
+                // Uma atualização mais nova que chegou durante o flush prevalece sobre a devolvida.
+                chunk.forEach(update -> pending.merge(update.resourceId(), update,
+                        (queued, failed) -> newest(failed, queued)));
+                logger.warn("Falha temporária ao gravar lote write-behind com {} atualizações; nova tentativa no próximo flush",
+                        chunk.size(), e);
+            } catch (Exception e) {
+                // Descarta os recursos afetados do registro para que o próximo acesso recarregue do banco
+                chunk.forEach(update -> registry.remove(update.resourceId()));
+                logger.error("Erro ao gravar lote write-behind com {} atualizações", chunk.size(), e);
+            }
+        }
+
+        logger.debug("Write-behind flush concluído: {} atualizações", drained.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!pending.isEmpty()) {
+            logger.info("Gravando {} atualizações pendentes antes do desligamento", pending.size());
+            flush();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        pending.remove(event.resourceId());
+    }
+
+    private static DeviceStatusUpdateDto newest(DeviceStatusUpdateDto current, DeviceStatusUpdateDto incoming) {
+        DeviceStatusUpdateDto winner = incoming.timestamp().isBefore(current.timestamp()) ? current : incoming;
+        boolean firstConnection = Boolean.TRUE.equals(current.firstConnection())
+                || Boolean.TRUE.equals(incoming.firstConnection());
+        if (firstConnection == Boolean.TRUE.equals(winner.firstConnection())) {
+            return winner;
+        }
+        // Preserva a ativação de primeira conexão ao coalescer
+        return new DeviceStatusUpdateDto(
+                winner.resourceId(),
+                winner.status(),
+                winner.timestamp(),
+                true,
+                winner.reservedAt(),
+                winner.predictedEndTime()
+        );
+    }
+}
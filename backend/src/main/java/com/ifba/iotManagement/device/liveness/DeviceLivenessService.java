@@ -0,0 +1,113 @@
+package com.ifba.iotManagement.device.liveness;
+
+import com.ifba.iotManagement.audit.AuditAction;
+import com.ifba.iotManagement.audit.AuditLogEntity;
+import com.ifba.iotManagement.audit.AuditResult;
+import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.DeviceAuditDetails;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.iotResource.engine.ResourceStateEngine;
+import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveEntity;
+import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class DeviceLivenessService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLivenessService.class);
+
+    private final IotResourceRepository resourceRepository;
+    private final IotResourceReserveRepository reserveRepository;
+    private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceRegistryLoader deviceRegistry;
+    private final ResourceStateEngine stateEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${devices.liveness.finish-reservations:false}")
+    private boolean finishReservations;
+
+    public DeviceLivenessService(IotResourceRepository resourceRepository,
+                                 IotResourceReserveRepository reserveRepository,
+                                 AuditService auditService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 DeviceRegistryLoader deviceRegistry,
+                                 ResourceStateEngine stateEngine,
+                                 TransactionTemplate transactionTemplate) {
+        this.resourceRepository = resourceRepository;
+        this.reserveRepository = reserveRepository;
+        this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.deviceRegistry = deviceRegistry;
+        this.stateEngine = stateEngine;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Marca como INACTIVE os recursos cujos dispositivos pararam de enviar heartbeats.
+     * Com {@code devices.liveness.finish-reservations=true} as reservas ativas do recurso também são finalizadas
+     * (senão a expiração da reserva libera o recurso de um dispositivo que não responde); por padrão ficam intactas.
+     * <p>
+     * Roda com a vez dos recursos no {@link ResourceStateEngine}, em transação própria.
+     *
+     * @return quantidade de recursos marcados
+     */
+    public int markInactive(Collection<String> resourceIds, long silentSeconds) {
+        Set<Long> resourcePks = new HashSet<>();
+        resourceIds.forEach(resourceId -> deviceRegistry.lookup(resourceId).ifPresent(entry -> resourcePks.add(entry.id())));
+        return stateEngine.executeAll(resourcePks,
+                () -> transactionTemplate.execute(status -> applyInactive(resourceIds, silentSeconds)));
+    }
+
+    private int applyInactive(Collection<String> resourceIds, long silentSeconds) {
+        List<AuditLogEntity> auditLogs = new ArrayList<>();
+
+        for (IotResourceEntity resource : resourceRepository.findAllByResourceIdInAndDeletedIsFalse(resourceIds)) {
+            IotResourceStatus previousStatus = resource.getStatus();
+            if (previousStatus == IotResourceStatus.INACTIVE) {
+                continue;
+            }
+
+            resource.updateStatus(IotResourceStatus.INACTIVE);
+            resourceRepository.save(resource);
+
+            if (finishReservations && previousStatus == IotResourceStatus.RESERVED) {
+                for (IotResourceReserveEntity reserve :
+                        reserveRepository.findByIotResourceIdAndActiveIsTrueAndDeletedIsFalse(resource.getId())) {
+                    reserve.finishReserve();
+                    reserveRepository.save(reserve);
+                }
+            }
+
+            eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, previousStatus));
+            auditLogs.add(auditService.systemEntry(
+                    AuditAction.DEVICE_LIVENESS_TIMEOUT,
+                    resource.getPublicId(),
+                    resource.getName(),
+                    AuditResult.SUCCESS,
+                    DeviceAuditDetails.livenessTimeout(silentSeconds, previousStatus)
+            ));
+        }
+
+        auditService.logAll(auditLogs);
+        if (!auditLogs.isEmpty()) {
+            logger.info("{} silent devices marked as INACTIVE", auditLogs.size());
+        }
+        return auditLogs.size();
+    }
+}
@@ -0,0 +1,162 @@
+package com.ifba.iotManagement.device.liveness;
+
+import com.ifba.iotManagement.device.registry.DeviceRegistry;
+import com.ifba.iotManagement.iotResource.IotResourceCreatedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rastreia o último heartbeat de cada dispositivo e marca como INACTIVE os que ficam
+ * {@code devices.liveness.missed-heartbeats} intervalos sem se comunicar.
+ * <p>
+ * Um heartbeat apenas atualiza o instante de último contato; cada dispositivo tem no máximo um prazo
+ * agendado no {@link HashedTimingWheel}. Quando o prazo vence, o dispositivo é reagendado para
+ * {@code lastSeen + timeout} se falou nesse meio tempo, ou expirado caso contrário. Não há varredura da tabela.
+ */
+@Component
+public class DeviceLivenessTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLivenessTracker.class);
+
+    private final DeviceRegistry registry;
+    private final DeviceLivenessService livenessService;
+
+    private final Map<String, Liveness> tracked = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<Liveness> wheel;
+    private final long timeoutMillis;
+
+    @Value("${devices.liveness.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devices.liveness.expire-batch-size:500}")
+    private int expireBatchSize;
+
+    public DeviceLivenessTracker(DeviceRegistry registry,
+                                 DeviceLivenessService livenessService,
+                                 @Value("${devices.liveness.heartbeat-interval-seconds:30}") long heartbeatIntervalSeconds,
+                                 @Value("${devices.liveness.missed-heartbeats:3}") int missedHeartbeats,
+                                 @Value("${devices.liveness.tick-ms:1000}") long tickMillis,
+                                 @Value("${devices.liveness.wheel-size:512}") int wheelSize) {
+        this.registry = registry;
+        this.livenessService = livenessService;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(heartbeatIntervalSeconds * missedHeartbeats);
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, now());
+    }
+
+    /**
+     * Registra contato do dispositivo. Chamado em todo caminho de atualização vindo do dispositivo.
+     */
+    public void touch(String resourceId) {
+        if (!enabled) {
+            return;
+        }
+        long now = now();
+        Liveness liveness = tracked.get(resourceId);
+        if (liveness != null) {
+            liveness.lastSeenMillis = now;
+            return;
+        }
+        Liveness created = new Liveness(resourceId, now);
+        if (tracked.putIfAbsent(resourceId, created) == null) {
+            wheel.schedule(created, now + timeoutMillis);
+        } else {
+            tracked.get(resourceId).lastSeenMillis = now;
+        }
+    }
+
+    public int trackedCount() {
+        return tracked.size();
+    }
+
+    /**
+     * Após reiniciar, dispositivos ativos que nunca mais falarem também precisam expirar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void trackActiveDevices() {
+        if (!enabled) {
+            return;
+        }
+        registry.forEach(entry -> {
+            if (entry.status() != IotResourceStatus.INACTIVE) {
+                touch(entry.resourceId());
+            }
+        });
+        logger.info("Liveness tracking started for {} active devices (timeout {} s)",
+                tracked.size(), timeoutMillis / 1000);
+    }
+
+    @Scheduled(fixedDelayString = "${devices.liveness.tick-ms:1000}")
+    public synchronized void expireSilentDevices() {
+        if (!enabled) {
+            return;
+        }
+        long now = now();
+        List<String> expired = new ArrayList<>();
+        wheel.advance(now, liveness -> {
+            if (tracked.get(liveness.resourceId) != liveness) {
+                return; // removido
+            }
+            long deadline = liveness.lastSeenMillis + timeoutMillis;
+            if (deadline > now) {
+                wheel.schedule(liveness, deadline);
+                return;
+            }
+            tracked.remove(liveness.resourceId, liveness);
+            if (liveness.lastSeenMillis + timeoutMillis > now) {
+                // Heartbeat chegou durante a remoção
+                touch(liveness.resourceId);
+                return;
+            }
+            expired.add(liveness.resourceId);
+        });
+
+        for (int from = 0; from < expired.size(); from += expireBatchSize) {
+            List<String> chunk = expired.subList(from, Math.min(from + expireBatchSize, expired.size()));
+            try {
+                livenessService.markInactive(chunk, timeoutMillis / 1000);
+            } catch (Exception e) {
+                logger.error("Error marking {} silent devices as inactive", chunk.size(), e);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceCreated(IotResourceCreatedEvent event) {
+        if (event.status() != IotResourceStatus.INACTIVE) {
+            touch(event.resourceId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        tracked.remove(event.resourceId());
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class Liveness {
+        private final String resourceId;
+        private volatile long lastSeenMillis;
+
+        private Liveness(String resourceId, long lastSeenMillis) {
+            this.resourceId = resourceId;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ifba.iotManagement.device.liveness;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: os prazos são distribuídos em buckets de {@code tickMillis} e cada avanço de tick
+ * visita apenas o bucket corrente, então agendar e expirar custam O(1) por item, independente do total.
+ * <p>
+ * {@link #schedule} pode ser chamado de qualquer thread (os itens entram por uma fila de entrada);
+ * {@link #advance} deve ser chamado por uma única thread por vez.
+ */
+final class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int capacity = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Queue[capacity];
+        for (int i = 0; i < capacity; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = capacity - 1;
+    }
+
+    void schedule(T item, long deadlineMillis) {
+        incoming.add(new Timeout<>(item, tickOf(deadlineMillis)));
+    }
+
+    /**
+     * Avança a roda até {@code nowMillis}, entregando a {@code onDeadline} os itens cujo prazo venceu.
+     * O consumidor pode reagendar o item (reagendamento preguiçoso).
+     */
+    void advance(long nowMillis, Consumer<T> onDeadline) {
+        long targetTick = tickOf(nowMillis);
+        while (currentTick < targetTick) {
+            transferIncoming();
+            currentTick++;
+            Queue<Timeout<T>> bucket = buckets[(int) (currentTick & mask)];
+            int pending = bucket.size();
+            for (int i = 0; i < pending; i++) {
+                Timeout<T> timeout = bucket.poll();
+                if (timeout.deadlineTick > currentTick) {
+                    // Prazo em uma volta futura da roda
+                    bucket.add(timeout);
+                } else {
+                    size--;
+                    onDeadline.accept(timeout.item);
+                }
+            }
+        }
+        transferIncoming();
+    }
+
+    int size() {
+        return size + incoming.size();
+    }
+
+    private void transferIncoming() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            long tick = Math.max(timeout.deadlineTick, currentTick + 1);
+            buckets[(int) (tick & mask)].add(tick == timeout.deadlineTick ? timeout : new Timeout<>(timeout.item, tick));
+            size++;
+        }
+    }
+
+    private long tickOf(long millis) {
+        return Math.max(0, (millis - startMillis) / tickMillis);
+    }
+
+    private record Timeout<T>(T item, long deadlineTick) {
+    }
+}
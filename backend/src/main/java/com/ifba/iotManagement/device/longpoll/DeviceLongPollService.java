@@ -0,0 +1,165 @@
+package com.ifba.iotManagement.device.longpoll;
+
+import com.ifba.iotManagement.device.DeviceService;
+import com.ifba.iotManagement.device.DeviceStatusMapper;
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
+import com.ifba.iotManagement.device.registry.DeviceRegistry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Long-poll para dispositivos: a requisição fica estacionada até um comando ou mudança de status
+ * ser produzido para o recurso, ou até o timeout (204). Substitui o polling em loop de
+ * {@code /commands/reserve}, {@code /commands/release} e {@code /status}, que custava uma consulta por ciclo.
+ */
+@Service
+public class DeviceLongPollService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLongPollService.class);
+
+    private final DeviceRegistryLoader registryLoader;
+    private final DeviceRegistry registry;
+    private final DeviceService deviceService;
+    private final DeviceCommandOutbox commandOutbox;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ResourceWaiters<DeviceCommandDto> commandWaiters;
+    private final ResourceWaiters<DeviceResourceStatusDto> statusWaiters;
+
+    @Value("${devices.long-poll.default-timeout-seconds:30}")
+    private int defaultTimeoutSeconds;
+
+    @Value("${devices.long-poll.max-timeout-seconds:60}")
+    private int maxTimeoutSeconds;
+
+    public DeviceLongPollService(DeviceRegistryLoader registryLoader,
+                                 DeviceRegistry registry,
+                                 DeviceService deviceService,
+                                 DeviceCommandOutbox commandOutbox,
+                                 @Qualifier("applicationTaskExecutor") Executor executor,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${devices.long-poll.max-waiters:10000}") int maxWaiters) {
+        this.registryLoader = registryLoader;
+        this.registry = registry;
+        this.deviceService = deviceService;
+        this.commandOutbox = commandOutbox;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.commandWaiters = new ResourceWaiters<>(maxWaiters);
+        this.statusWaiters = new ResourceWaiters<>(maxWaiters);
+    }
+
+    /**
+     * Responde imediatamente com o comando pendente mais antigo do outbox, se houver; caso contrário
+     * aguarda o próximo comando emitido para o recurso.
+     */
+    public DeferredResult<ResponseEntity<DeviceCommandDto>> awaitCommand(String resourceId, Integer timeoutSeconds) {
+        DeviceRegistryEntry entry = requireResource(resourceId);
+        List<DeviceCommandDto> pending = commandOutbox.fetchPending(resourceId, 1);
+        if (!pending.isEmpty()) {
+            DeferredResult<ResponseEntity<DeviceCommandDto>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.ok(pending.getFirst()));
+            return result;
+        }
+        DeferredResult<ResponseEntity<DeviceCommandDto>> result =
+                commandWaiters.park(resourceId, timeoutMillis(timeoutSeconds));
+        // O comando pode ter sido emitido entre a consulta acima e o registro do waiter
+        if (commandOutbox.hasPending(entry.id())) {
+            pending = commandOutbox.fetchPending(resourceId, 1);
+            if (!pending.isEmpty()) {
+                commandWaiters.complete(resourceId, pending.getFirst());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Responde imediatamente se o status atual já difere de {@code knownStatus} (ou se ele não foi
+     * informado); caso contrário aguarda a próxima mudança de status do recurso.
+     */
+    public DeferredResult<ResponseEntity<DeviceResourceStatusDto>> awaitStatusChange(String resourceId,
+                                                                                     String knownStatus,
+                                                                                     Integer timeoutSeconds) {
+        DeviceRegistryEntry entry = requireResource(resourceId);
+        IotResourceStatus known = knownStatus == null ? null : DeviceStatusMapper.toResourceStatus(knownStatus);
+
+        if (known == null || entry.status() != known) {
+            DeferredResult<ResponseEntity<DeviceResourceStatusDto>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.ok(deviceService.getResourceStatus(resourceId)));
+            return result;
+        }
+
+        DeferredResult<ResponseEntity<DeviceResourceStatusDto>> result =
+                statusWaiters.park(resourceId, timeoutMillis(timeoutSeconds));
+        // A mudança pode ter acontecido entre a leitura acima e o registro do waiter
+        IotResourceStatus current = registry.findStatus(resourceId);
+        if (current != null && current != known) {
+            completeStatusWaiters(resourceId);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        int delivered = commandWaiters.complete(event.resourceId(), event.command());
+        if (delivered > 0) {
+            logger.info("{} command delivered to {} waiting device(s) for resource {}",
+                    event.command().command(), delivered, event.resourceId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(IotResourceStatusChangedEvent event) {
+        if (statusWaiters.hasWaiters(event.resourceId())) {
+            completeStatusWaiters(event.resourceId());
+        }
+    }
+
+    // Carrega o status uma única vez para todos os waiters, fora da thread que fez o commit. O executor não tem
+    // a sessão aberta da requisição (open-in-view): a transação somente leitura mantém a sessão para carregar o
+    // usuário da reserva, que é LAZY
+    private void completeStatusWaiters(String resourceId) {
+        executor.execute(() -> {
+            try {
+                DeviceResourceStatusDto status =
+                        readOnlyTransaction.execute(tx -> deviceService.getResourceStatus(resourceId));
+                statusWaiters.complete(resourceId, status);
+            } catch (Exception e) {
+                // Os waiters permanecem e respondem 204 no timeout
+                logger.warn("Could not load status for waiting devices of resource {}", resourceId, e);
+            }
+        });
+    }
+
+    private DeviceRegistryEntry requireResource(String resourceId) {
+        return registryLoader.lookup(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Resource not found with resourceId: " + resourceId));
+    }
+
+    private long timeoutMillis(Integer timeoutSeconds) {
+        int seconds = timeoutSeconds == null ? defaultTimeoutSeconds : timeoutSeconds;
+        return Math.max(1, Math.min(seconds, maxTimeoutSeconds)) * 1000L;
+    }
+}
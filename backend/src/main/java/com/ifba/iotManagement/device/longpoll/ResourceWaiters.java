@@ -0,0 +1,79 @@
+package com.ifba.iotManagement.device.longpoll;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro concorrente de requisições estacionadas (long-poll) por recurso.
+ * Expiração responde 204; acima do limite global de requisições estacionadas responde 503 imediatamente.
+ */
+final class ResourceWaiters<T> {
+
+    private final Map<String, Queue<DeferredResult<ResponseEntity<T>>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger parked = new AtomicInteger();
+    private final int maxParked;
+
+    ResourceWaiters(int maxParked) {
+        this.maxParked = maxParked;
+    }
+
+    DeferredResult<ResponseEntity<T>> park(String resourceId, long timeoutMillis) {
+        DeferredResult<ResponseEntity<T>> result =
+                new DeferredResult<>(timeoutMillis, () -> ResponseEntity.noContent().build());
+
+        if (parked.incrementAndGet() > maxParked) {
+            parked.decrementAndGet();
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build());
+            return result;
+        }
+
+        waiters.compute(resourceId, (key, queue) -> {
+            Queue<DeferredResult<ResponseEntity<T>>> target = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            target.add(result);
+            return target;
+        });
+        result.onCompletion(() -> {
+            parked.decrementAndGet();
+            waiters.computeIfPresent(resourceId, (key, queue) -> {
+                queue.remove(result);
+                return queue.isEmpty() ? null : queue;
+            });
+        });
+        return result;
+    }
+
+    /**
+     * @return quantidade de requisições completadas
+     */
+    int complete(String resourceId, T value) {
+        Queue<DeferredResult<ResponseEntity<T>>> queue = waiters.remove(resourceId);
+        if (queue == null) {
+            return 0;
+        }
+        int completed = 0;
+        for (DeferredResult<ResponseEntity<T>> result : queue) {
+            if (result.setResult(ResponseEntity.ok(value))) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    boolean hasWaiters(String resourceId) {
+        return waiters.containsKey(resourceId);
+    }
+
+    int parkedCount() {
+        return parked.get();
+    }
+}
@@ -0,0 +1,197 @@
+package com.ifba.iotManagement.device.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import io.moquette.BrokerConstants;
+import io.moquette.broker.Server;
+import io.moquette.broker.config.MemoryConfig;
+import io.moquette.interception.AbstractInterceptHandler;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.moquette.interception.messages.InterceptSubscribeMessage;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Broker MQTT embutido (Moquette) para dispositivos restritos, desligado por padrão
+ * ({@code devices.mqtt.enabled}).
+ * <p>
+ * Publicações em {@code devices/{resourceId}/status}, {@code devices/{resourceId}/auto-release} e
+ * {@code devices/{resourceId}/commands/ack} são entregues ao {@link DeviceMqttIngest}. Os comandos
+ * RESERVE/RELEASE são publicados em {@code devices/{resourceId}/commands} (QoS 1) assim que emitidos, e os
+ * pendentes no {@link DeviceCommandOutbox} são reenviados quando o dispositivo assina o tópico.
+ */
+@Component
+public class DeviceMqttBroker implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMqttBroker.class);
+
+    private static final String PUBLISHER_CLIENT_ID = "iot-management";
+
+    private static final List<DeviceMqttTopic> INBOUND_TOPICS = List.of(
+            DeviceMqttTopic.STATUS, DeviceMqttTopic.AUTO_RELEASE, DeviceMqttTopic.COMMAND_ACK);
+
+    private final DeviceMqttIngest ingest;
+    private final DeviceCommandOutbox commandOutbox;
+    private final ObjectMapper objectMapper;
+
+    private volatile Server server;
+
+    @Value("${devices.mqtt.enabled:false}")
+    private boolean enabled;
+
+    @Value("${devices.mqtt.host:0.0.0.0}")
+    private String host;
+
+    @Value("${devices.mqtt.port:1883}")
+    private int port;
+
+    @Value("${devices.mqtt.max-message-bytes:8192}")
+    private int maxMessageBytes;
+
+    @Value("${devices.mqtt.session-queue-size:8192}")
+    private int sessionQueueSize;
+
+    public DeviceMqttBroker(DeviceMqttIngest ingest,
+                            DeviceCommandOutbox commandOutbox,
+                            ObjectMapper objectMapper) {
+        this.ingest = ingest;
+        this.commandOutbox = commandOutbox;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(BrokerConstants.HOST_PROPERTY_NAME, host);
+        properties.setProperty(BrokerConstants.PORT_PROPERTY_NAME, String.valueOf(port));
+        properties.setProperty(BrokerConstants.WEB_SOCKET_PORT_PROPERTY_NAME, BrokerConstants.DISABLED_PORT_BIND);
+        properties.setProperty(BrokerConstants.NETTY_MAX_BYTES_PROPERTY_NAME, String.valueOf(maxMessageBytes));
+        // Fila de cada event loop de sessões do broker; cheia, o Moquette descarta publicações
+        properties.setProperty(BrokerConstants.SESSION_QUEUE_SIZE, String.valueOf(sessionQueueSize));
+        properties.setProperty(BrokerConstants.ALLOW_ANONYMOUS_PROPERTY_NAME, "true");
+        // Sessões em memória: o estado durável dos comandos fica no outbox
+        properties.setProperty(BrokerConstants.PERSISTENCE_ENABLED_PROPERTY_NAME, "false");
+        properties.setProperty(BrokerConstants.ENABLE_TELEMETRY_NAME, "false");
+
+        ingest.start();
+        Server broker = new Server();
+        try {
+            broker.startServer(new MemoryConfig(properties), List.of(new InboundHandler()));
+        } catch (IOException e) {
+            ingest.stop();
+            throw new UncheckedIOException("Could not start embedded MQTT broker on port " + port, e);
+        }
+        server = broker;
+        logger.info("Embedded MQTT broker listening on {}:{}", host, broker.getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Server broker = server;
+        if (broker != null) {
+            server = null;
+            broker.stopServer();
+            ingest.stop();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        publishCommand(event.command());
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Porta efetivamente usada pelo broker (útil com {@code devices.mqtt.port=0}).
+     */
+    public int port() {
+        Server broker = server;
+        return broker == null ? -1 : broker.getPort();
+    }
+
+    private void publishCommand(DeviceCommandDto command) {
+        Server broker = server;
+        if (broker == null) {
+            return;
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(command);
+            broker.internalPublish(MqttMessageBuilders.publish()
+                    .topicName(DeviceMqttTopic.COMMANDS.topicFor(command.resourceId()))
+                    .qos(MqttQoS.AT_LEAST_ONCE)
+                    .retained(false)
+                    .payload(Unpooled.wrappedBuffer(payload))
+                    .build(), PUBLISHER_CLIENT_ID);
+        } catch (Exception e) {
+            // O comando continua no outbox e é reenviado na próxima assinatura ou busca
+            logger.warn("Could not publish {} command to MQTT for resource {}: {}",
+                    command.command(), command.resourceId(), e.getMessage());
+        }
+    }
+
+    private class InboundHandler extends AbstractInterceptHandler {
+
+        @Override
+        public String getID() {
+            return "device-mqtt-inbound";
+        }
+
+        @Override
+        public void onPublish(InterceptPublishMessage message) {
+            // O broker entrega a cada interceptador uma cópia retida do payload, que o interceptador deve liberar
+            try {
+                String topic = message.getTopicName();
+                for (DeviceMqttTopic candidate : INBOUND_TOPICS) {
+                    String resourceId = candidate.resourceIdOf(topic);
+                    if (resourceId != null) {
+                        ingest.submit(new DeviceMqttMessage(candidate, resourceId, ByteBufUtil.getBytes(message.getPayload())));
+                        return;
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(message.getPayload());
+            }
+        }
+
+        @Override
+        public void onSubscribe(InterceptSubscribeMessage message) {
+            String resourceId = DeviceMqttTopic.COMMANDS.resourceIdOf(message.getTopicFilter());
+            if (resourceId == null) {
+                return;
+            }
+            try {
+                commandOutbox.fetchPending(resourceId, null).forEach(DeviceMqttBroker.this::publishCommand);
+            } catch (Exception e) {
+                logger.debug("Could not replay pending commands for resource {}: {}", resourceId, e.getMessage());
+            }
+        }
+
+        @Override
+        public void onSessionLoopError(Throwable error) {
+            logger.warn("Embedded MQTT broker session loop error", error);
+        }
+    }
+}
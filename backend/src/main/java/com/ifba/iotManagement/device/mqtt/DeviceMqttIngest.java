@@ -0,0 +1,264 @@
+package com.ifba.iotManagement.device.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifba.iotManagement.device.DeviceService;
+import com.ifba.iotManagement.device.batch.DeviceStatusBatchService;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dedup.DeviceRequestDeduplicator;
+import com.ifba.iotManagement.device.dedup.DeviceRequestKind;
+import com.ifba.iotManagement.device.dto.DeviceAutoReleaseDto;
+import com.ifba.iotManagement.device.dto.DeviceCommandAckDto;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.device.ratelimit.DeviceRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Processa as mensagens recebidas pelo {@link DeviceMqttBroker}.
+ * <p>
+ * O broker apenas copia o payload para uma fila limitada; cada worker tem sua própria fila e drena em lotes.
+ * As mensagens são distribuídas pelo hash do resourceId, então um dispositivo é sempre tratado pelo mesmo
+ * worker: a ordem de chegada se mantém e lotes concorrentes nunca atualizam as mesmas linhas (sem deadlock).
+ * Os status de cada lote vão juntos para {@link DeviceStatusBatchService#updateResourceStatuses} (uma consulta
+ * IN e batch JDBC, com limite de taxa e ordem por dispositivo), enquanto auto-liberações e confirmações de
+ * comando seguem individualmente pelo {@link DeviceService} e pelo {@link DeviceCommandOutbox}.
+ * Com a fila cheia, a thread do broker espera até {@code submit-timeout-ms} e então descarta a mensagem.
+ */
+@Component
+public class DeviceMqttIngest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMqttIngest.class);
+
+    private final DeviceStatusBatchService batchService;
+    private final DeviceService deviceService;
+    private final DeviceCommandOutbox commandOutbox;
+    private final DeviceRequestDeduplicator deviceRequestDeduplicator;
+    private final DeviceRateLimiter deviceRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private final List<BlockingQueue<DeviceMqttMessage>> queues;
+    private final Counter receivedCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @Value("${devices.mqtt.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${devices.mqtt.ingest.submit-timeout-ms:100}")
+    private long submitTimeoutMs;
+
+    public DeviceMqttIngest(DeviceStatusBatchService batchService,
+                            DeviceService deviceService,
+                            DeviceCommandOutbox commandOutbox,
+                            DeviceRequestDeduplicator deviceRequestDeduplicator,
+                            DeviceRateLimiter deviceRateLimiter,
+                            ObjectMapper objectMapper,
+                            Validator validator,
+                            MeterRegistry meterRegistry,
+                            @Value("${devices.mqtt.ingest.workers:4}") int workerCount,
+                            @Value("${devices.mqtt.ingest.max-pending:20000}") int maxPending) {
+        this.batchService = batchService;
+        this.deviceService = deviceService;
+        this.commandOutbox = commandOutbox;
+        this.deviceRequestDeduplicator = deviceRequestDeduplicator;
+        this.deviceRateLimiter = deviceRateLimiter;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        int perWorker = Math.max(1, maxPending / workerCount);
+        this.queues = IntStream.range(0, workerCount)
+                .<BlockingQueue<DeviceMqttMessage>>mapToObj(i -> new ArrayBlockingQueue<>(perWorker))
+                .toList();
+        this.receivedCounter = Counter.builder("devices.mqtt.received")
+                .description("MQTT messages accepted into the ingest queue")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("devices.mqtt.dropped")
+                .description("MQTT messages dropped because the ingest queue stayed full")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("devices.mqtt.rejected")
+                .description("MQTT messages rejected as malformed, invalid or throttled")
+                .register(meterRegistry);
+        Gauge.builder("devices.mqtt.pending", this, DeviceMqttIngest::pending)
+                .description("MQTT messages waiting for an ingest worker")
+                .register(meterRegistry);
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(queues.size(),
+                Thread.ofPlatform().name("device-mqtt-ingest-", 0).daemon().factory());
+        for (BlockingQueue<DeviceMqttMessage> queue : queues) {
+            workers.execute(() -> runWorker(queue));
+        }
+        logger.info("MQTT ingest started with {} workers (batch size {})", queues.size(), batchSize);
+    }
+
+    /**
+     * Chamado pela thread do broker. Retorna {@code false} se a mensagem foi descartada.
+     */
+    boolean submit(DeviceMqttMessage message) {
+        BlockingQueue<DeviceMqttMessage> queue = queues.get(Math.floorMod(message.resourceId().hashCode(), queues.size()));
+        try {
+            if (queue.offer(message, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                receivedCounter.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        // Os workers terminam de drenar a fila antes de sair
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("MQTT ingest stopped with {} messages still pending", pending());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int pending() {
+        int pending = 0;
+        for (BlockingQueue<DeviceMqttMessage> queue : queues) {
+            pending += queue.size();
+        }
+        return pending;
+    }
+
+    private void runWorker(BlockingQueue<DeviceMqttMessage> queue) {
+        List<DeviceMqttMessage> drained = new ArrayList<>(batchSize);
+        List<DeviceStatusUpdateDto> statuses = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                DeviceMqttMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                queue.drainTo(drained, batchSize - 1);
+
+                for (DeviceMqttMessage message : drained) {
+                    dispatch(message, statuses);
+                }
+                if (!statuses.isEmpty()) {
+                    applyStatuses(statuses);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                drained.clear();
+                statuses.clear();
+            }
+        }
+    }
+
+    private void dispatch(DeviceMqttMessage message, List<DeviceStatusUpdateDto> statuses) {
+        try {
+            switch (message.topic()) {
+                case STATUS -> statuses.add(readStatus(message));
+                case AUTO_RELEASE -> handleAutoRelease(message);
+                case COMMAND_ACK -> handleAck(message);
+                case COMMANDS -> {
+                    // Tópico de saída; publicações de clientes nele são ignoradas
+                }
+            }
+        } catch (Exception e) {
+            rejectedCounter.increment();
+            logger.debug("Rejected MQTT {} message for resource {}: {}",
+                    message.topic(), message.resourceId(), e.getMessage());
+        }
+    }
+
+    private void applyStatuses(List<DeviceStatusUpdateDto> statuses) {
+        try {
+            batchService.updateResourceStatuses(statuses);
+        } catch (Exception e) {
+            logger.error("Error applying MQTT status batch with {} updates", statuses.size(), e);
+        }
+    }
+
+    private DeviceStatusUpdateDto readStatus(DeviceMqttMessage message) throws Exception {
+        DeviceStatusUpdateDto update = objectMapper.readValue(message.payload(), DeviceStatusUpdateDto.class);
+        // O resourceId do tópico prevalece sobre o do payload
+        return new DeviceStatusUpdateDto(
+                message.resourceId(),
+                update.status(),
+                update.timestamp(),
+                update.firstConnection(),
+                update.reservedAt(),
+                update.predictedEndTime()
+        );
+    }
+
+    private void handleAutoRelease(DeviceMqttMessage message) throws Exception {
+        DeviceAutoReleaseDto autoRelease = validate(objectMapper.readValue(message.payload(), DeviceAutoReleaseDto.class));
+        if (!deviceRateLimiter.tryAcquireDevice(message.resourceId())) {
+            throw new IllegalStateException("Too many requests for resource " + message.resourceId());
+        }
+        String dedupKey = deviceRequestDeduplicator.key(
+                DeviceRequestKind.AUTO_RELEASE, message.resourceId(), autoRelease.timestamp(), null);
+        if (!deviceRequestDeduplicator.tryAcquire(DeviceRequestKind.AUTO_RELEASE, dedupKey)) {
+            return;
+        }
+        try {
+            deviceService.processAutoRelease(message.resourceId(), autoRelease);
+        } catch (RuntimeException e) {
+            deviceRequestDeduplicator.release(dedupKey);
+            throw e;
+        }
+    }
+
+    private void handleAck(DeviceMqttMessage message) throws Exception {
+        DeviceCommandAckDto ack = validate(objectMapper.readValue(message.payload(), DeviceCommandAckDto.class));
+        commandOutbox.acknowledge(message.resourceId(), ack.sequence());
+    }
+
+    private <T> T validate(T payload) {
+        Set<ConstraintViolation<T>> violations = validator.validate(payload);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return payload;
+    }
+}
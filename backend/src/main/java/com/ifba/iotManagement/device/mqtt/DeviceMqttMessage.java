@@ -0,0 +1,7 @@
+package com.ifba.iotManagement.device.mqtt;
+
+/**
+ * Mensagem recebida pelo broker, copiada do buffer do Netty para ser processada pelos workers.
+ */
+record DeviceMqttMessage(DeviceMqttTopic topic, String resourceId, byte[] payload) {
+}
@@ -0,0 +1,42 @@
+package com.ifba.iotManagement.device.mqtt;
+
+/**
+ * Tópicos MQTT dos dispositivos. Todos seguem {@code devices/{resourceId}/<sufixo>}.
+ */
+public enum DeviceMqttTopic {
+    /** Dispositivo → backend: mesmo payload de {@code POST /devices/status} (resourceId vem do tópico). */
+    STATUS("status"),
+    /** Dispositivo → backend: mesmo payload de {@code POST /devices/{resourceId}/auto-release}. */
+    AUTO_RELEASE("auto-release"),
+    /** Dispositivo → backend: {@code {"sequence": n}}, confirma os comandos do outbox até n. */
+    COMMAND_ACK("commands/ack"),
+    /** Backend → dispositivo: comandos RESERVE/RELEASE. */
+    COMMANDS("commands");
+
+    static final String PREFIX = "devices/";
+
+    private final String suffix;
+
+    DeviceMqttTopic(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String topicFor(String resourceId) {
+        return PREFIX + resourceId + "/" + suffix;
+    }
+
+    /**
+     * @return o resourceId do tópico, ou {@code null} se o tópico não pertence a este tipo
+     */
+    public String resourceIdOf(String topic) {
+        if (topic == null || !topic.startsWith(PREFIX) || !topic.endsWith("/" + suffix)) {
+            return null;
+        }
+        int end = topic.length() - suffix.length() - 1;
+        if (end <= PREFIX.length()) {
+            return null;
+        }
+        String resourceId = topic.substring(PREFIX.length(), end);
+        return resourceId.indexOf('/') >= 0 ? null : resourceId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ifba.iotManagement.device.ordering;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publicado na transação que aceitou atualizações de status (caminho unitário e lotes). A ordem em memória
+ * ({@link DeviceUpdateOrdering}) e a telemetria só avançam após o commit: com rollback, o reenvio do dispositivo
+ * com o mesmo timestamp continua válido.
+ */
+public record DeviceStatusAcceptedEvent(
+        List<AcceptedStatus> accepted
+) {
+    public static DeviceStatusAcceptedEvent of(long resourcePk, IotResourceStatus status, Instant deviceTimestamp,
+                                               boolean firstConnection, boolean recordTelemetry) {
+        return new DeviceStatusAcceptedEvent(List.of(
+                new AcceptedStatus(resourcePk, status, deviceTimestamp, firstConnection, recordTelemetry)));
+    }
+
+    /**
+     * @param recordTelemetry falso para atualizações suprimidas pelo detector de oscilação, que só avançam a ordem
+     */
+    public record AcceptedStatus(
+            long resourcePk,
+            IotResourceStatus status,
+            Instant deviceTimestamp,
+            boolean firstConnection,
+            boolean recordTelemetry
+    ) {
+    }
+}
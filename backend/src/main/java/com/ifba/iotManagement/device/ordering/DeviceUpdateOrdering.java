@@ -0,0 +1,97 @@
+package com.ifba.iotManagement.device.ordering;
+
+import com.ifba.iotManagement.device.registry.DeviceTimestampTable;
+import com.ifba.iotManagement.iotResource.IotResourceStatusBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Descarta atualizações de status atrasadas ou fora de ordem pelo timestamp do dispositivo.
+ * <p>
+ * O último timestamp aceito de cada recurso fica em memória ({@link DeviceTimestampTable}), o que descarta
+ * reenvios e pacotes atrasados sem acessar o banco. Mudanças de estado ainda passam por um UPDATE condicional
+ * em {@code iot_resources.last_device_timestamp}, que protege a ordem quando várias instâncias recebem
+ * atualizações do mesmo dispositivo. Heartbeats sem mudança avançam apenas a memória. Dentro de uma transação a
+ * memória só avança após o commit ({@link DeviceStatusAcceptedEvent}).
+ * <p>
+ * Uma atualização com {@code firstConnection = true} reinicia a sequência (dispositivo reiniciado, relógio
+ * possivelmente diferente), e timestamps muito no futuro são limitados a {@code agora + max-future-skew}
+ * para que um relógio adiantado não bloqueie o dispositivo indefinidamente.
+ */
+@Component
+public class DeviceUpdateOrdering {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceUpdateOrdering.class);
+
+    private final DeviceTimestampTable timestamps;
+    private final IotResourceStatusBatchWriter statusBatchWriter;
+    private final Counter staleCounter;
+    private final Duration maxFutureSkew;
+
+    public DeviceUpdateOrdering(DeviceTimestampTable timestamps,
+                                IotResourceStatusBatchWriter statusBatchWriter,
+                                MeterRegistry meterRegistry,
+                                @Value("${devices.ordering.max-future-skew-seconds:300}") long maxFutureSkewSeconds) {
+        this.timestamps = timestamps;
+        this.statusBatchWriter = statusBatchWriter;
+        this.maxFutureSkew = Duration.ofSeconds(maxFutureSkewSeconds);
+        this.staleCounter = Counter.builder("devices.updates.stale")
+                .description("Device status updates dropped because a newer one was already accepted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Timestamp usado nas comparações: truncado em microssegundos (precisão da coluna) e limitado no futuro.
+     */
+    public Instant effectiveTimestamp(Instant deviceTimestamp) {
+        Instant limit = Instant.now().plus(maxFutureSkew);
+        Instant effective = deviceTimestamp.isAfter(limit) ? limit : deviceTimestamp;
+        return effective.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Verificação apenas em memória.
+     */
+    public boolean isStale(long resourcePk, Instant timestamp, boolean firstConnection) {
+        return !firstConnection && DeviceTimestampTable.toMicros(timestamp) <= timestamps.get(resourcePk);
+    }
+
+    public void accept(long resourcePk, Instant timestamp, boolean firstConnection) {
+        if (firstConnection) {
+            timestamps.set(resourcePk, DeviceTimestampTable.toMicros(timestamp));
+        } else {
+            timestamps.advance(resourcePk, DeviceTimestampTable.toMicros(timestamp));
+        }
+    }
+
+    /**
+     * Compare-and-set do timestamp no banco, na transação de quem chama. A memória não muda aqui: ela avança
+     * após o commit, com o {@link DeviceStatusAcceptedEvent} publicado na mesma transação.
+     *
+     * @return false se outra atualização mais nova já foi gravada
+     */
+    public boolean compareAndSet(long resourcePk, Instant timestamp, boolean firstConnection) {
+        return statusBatchWriter.advanceDeviceTimestamp(resourcePk, timestamp, firstConnection);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusAccepted(DeviceStatusAcceptedEvent event) {
+        for (DeviceStatusAcceptedEvent.AcceptedStatus status : event.accepted()) {
+            accept(status.resourcePk(), status.deviceTimestamp(), status.firstConnection());
+        }
+    }
+
+    public void reject(String resourceId, Instant timestamp) {
+        staleCounter.increment();
+        logger.debug("Stale device update dropped for resource {} (timestamp {})", resourceId, timestamp);
+    }
+}
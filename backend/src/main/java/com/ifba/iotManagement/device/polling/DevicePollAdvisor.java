@@ -0,0 +1,54 @@
+package com.ifba.iotManagement.device.polling;
+
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.registry.DeviceReserveSchedule;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sugere ao dispositivo quando consultar de novo ({@code nextPollAfter} / {@code Retry-After}, em segundos).
+ * <p>
+ * Recursos com comando pendente ou que mudaram de estado há pouco são consultados no intervalo mínimo.
+ * Nos demais, o intervalo vai até {@code boundary-lead-seconds} antes do próximo início ou fim previsto de
+ * reserva, limitado a {@code max-seconds}: um recurso livre sem agenda ou inativo passa a ser consultado
+ * raramente, enquanto perto de um limite de reserva a resposta volta ao intervalo mínimo.
+ */
+@Component
+public class DevicePollAdvisor {
+
+    private final DeviceReserveSchedule reserveSchedule;
+    private final DeviceCommandOutbox commandOutbox;
+
+    @Value("${devices.polling.min-seconds:5}")
+    private long minSeconds;
+
+    @Value("${devices.polling.max-seconds:300}")
+    private long maxSeconds;
+
+    @Value("${devices.polling.activity-window-seconds:120}")
+    private long activityWindowSeconds;
+
+    @Value("${devices.polling.boundary-lead-seconds:30}")
+    private long boundaryLeadSeconds;
+
+    public DevicePollAdvisor(DeviceReserveSchedule reserveSchedule, DeviceCommandOutbox commandOutbox) {
+        this.reserveSchedule = reserveSchedule;
+        this.commandOutbox = commandOutbox;
+    }
+
+    public long nextPollAfterSeconds(long resourcePk, IotResourceStatus status) {
+        long now = System.currentTimeMillis() / 1000;
+        if (commandOutbox.hasPending(resourcePk) || now - reserveSchedule.lastChange(resourcePk) < activityWindowSeconds) {
+            return minSeconds;
+        }
+        if (status == IotResourceStatus.INACTIVE) {
+            return maxSeconds;
+        }
+        long boundary = reserveSchedule.nextBoundary(resourcePk, now);
+        if (boundary == DeviceReserveSchedule.NO_BOUNDARY) {
+            return maxSeconds;
+        }
+        return Math.max(minSeconds, Math.min(maxSeconds, boundary - now - boundaryLeadSeconds));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ifba.iotManagement.device.push;
+
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.shared.exceptions.InvalidDevicePayloadException;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * URLs de callback registradas pelos dispositivos para o {@link DevicePushDispatcher}, gravadas em
+ * {@code iot_resources.callback_url} e mantidas em memória (só recursos com callback ocupam o mapa).
+ * <p>
+ * As rotas de dispositivos não são autenticadas, então só são aceitas URLs http/https sem credenciais
+ * cujo host está em {@code devices.push.allowed-hosts}: sem a lista, nenhum registro é aceito e o backend
+ * não pode ser usado para fazer requisições a hosts arbitrários.
+ */
+@Component
+public class DeviceCallbackRegistry implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceCallbackRegistry.class);
+
+    private static final String LOAD_SQL =
+            "SELECT id, callback_url FROM iot_resources WHERE deleted = false AND callback_url IS NOT NULL";
+    private static final String UPDATE_SQL = "UPDATE iot_resources SET callback_url = ? WHERE id = ?";
+
+    private final DeviceRegistryLoader registryLoader;
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<String> allowedHosts;
+
+    private final Map<Long, URI> callbacks = new ConcurrentHashMap<>();
+
+    public DeviceCallbackRegistry(DeviceRegistryLoader registryLoader,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${devices.push.allowed-hosts:}") String allowedHosts) {
+        this.registryLoader = registryLoader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.allowedHosts = Arrays.stream(allowedHosts.split(","))
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            try {
+                callbacks.put(rs.getLong("id"), validate(rs.getString("callback_url")));
+            } catch (InvalidDevicePayloadException e) {
+                // Host removido da lista depois do registro: o dispositivo volta a depender do polling
+                logger.warn("Ignoring callback URL of resource {}: {}", rs.getLong("id"), e.getFieldErrors().get("url"));
+            }
+        });
+        logger.info("Callbacks de dispositivos carregados: {} recursos", callbacks.size());
+    }
+
+    public void register(String resourceId, String url) {
+        URI callback = validate(url);
+        DeviceRegistryEntry entry = lookup(resourceId);
+        jdbcTemplate.update(UPDATE_SQL, callback.toString(), entry.id());
+        callbacks.put(entry.id(), callback);
+        logger.info("Callback URL registered for resource {}: {}", resourceId, callback);
+    }
+
+    public void unregister(String resourceId) {
+        DeviceRegistryEntry entry = lookup(resourceId);
+        jdbcTemplate.update(UPDATE_SQL, null, entry.id());
+        callbacks.remove(entry.id());
+    }
+
+    /**
+     * @return a URL registrada ou null
+     */
+    public URI find(long resourcePk) {
+        return callbacks.get(resourcePk);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        callbacks.remove(event.id());
+    }
+
+    private DeviceRegistryEntry lookup(String resourceId) {
+        return registryLoader.lookup(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with resourceId: " + resourceId));
+    }
+
+    private URI validate(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw invalid("must be a valid URL");
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw invalid("must use http or https");
+        }
+        if (uri.getRawUserInfo() != null || uri.getRawFragment() != null) {
+            throw invalid("must not contain credentials or a fragment");
+        }
+        if (uri.getHost() == null || !allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+            throw invalid("host is not in devices.push.allowed-hosts");
+        }
+        return uri;
+    }
+
+    private static InvalidDevicePayloadException invalid(String reason) {
+        return new InvalidDevicePayloadException("Invalid callback URL", Map.of("url", reason));
+    }
+}
@@ -0,0 +1,246 @@
+package com.ifba.iotManagement.device.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envia os comandos RESERVE/RELEASE por push para a URL registrada no {@link DeviceCallbackRegistry}, logo
+ * após o commit que os gravou no outbox. Desligado por padrão ({@code devices.push.enabled}).
+ * <p>
+ * O envio usa o {@link HttpClient} do JDK com {@code sendAsync}: nenhuma thread de requisição espera a resposta,
+ * e o pool de conexões HTTP/1.1 keep-alive do cliente é reaproveitado entre pushes. Cada host tem no máximo
+ * {@code max-per-host} requisições (e portanto conexões) simultâneas; os pushes excedentes aguardam em uma fila
+ * do host e são enviados quando uma requisição termina, sem consumir tentativas. O total de pushes em andamento,
+ * incluindo os enfileirados e os que aguardam nova tentativa, é limitado a {@code max-in-flight}; acima disso o
+ * push é descartado. Falhas de rede, 408, 429 e 5xx são repetidas até {@code max-attempts} vezes com backoff
+ * exponencial e jitter total.
+ * <p>
+ * O push apenas acelera a entrega: o comando continua pendente no outbox até o dispositivo confirmar a sequência,
+ * então um push perdido é recuperado na próxima consulta.
+ */
+@Component
+public class DevicePushDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DevicePushDispatcher.class);
+
+    private final DeviceCallbackRegistry callbackRegistry;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService retryScheduler;
+    private final Semaphore inFlight;
+    private final Map<String, HostLane> hostLanes = new ConcurrentHashMap<>();
+
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Counter retriedCounter;
+
+    @Value("${devices.push.enabled:false}")
+    private boolean enabled;
+
+    @Value("${devices.push.max-per-host:4}")
+    private int maxPerHost;
+
+    @Value("${devices.push.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${devices.push.backoff-ms:200}")
+    private long backoffMs;
+
+    @Value("${devices.push.request-timeout-ms:2000}")
+    private long requestTimeoutMs;
+
+    public DevicePushDispatcher(DeviceCallbackRegistry callbackRegistry,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${devices.push.max-in-flight:256}") int maxInFlight,
+                                @Value("${devices.push.connect-timeout-ms:1000}") long connectTimeoutMs) {
+        this.callbackRegistry = callbackRegistry;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("device-push-retry").daemon().factory());
+        this.inFlight = new Semaphore(maxInFlight);
+        this.deliveredCounter = outcomeCounter(meterRegistry, "delivered");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+        this.droppedCounter = outcomeCounter(meterRegistry, "dropped");
+        this.retriedCounter = Counter.builder("devices.push.retries")
+                .description("Device command push attempts retried")
+                .register(meterRegistry);
+        Gauge.builder("devices.push.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Device command pushes in progress, queued for their host or waiting for a retry")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        URI callback = callbackRegistry.find(event.resourcePk());
+        if (callback == null) {
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            droppedCounter.increment();
+            logger.debug("Push fan-out limit reached; {} command for resource {} left for polling",
+                    event.command().command(), event.resourceId());
+            return;
+        }
+        try {
+            attempt(new Push(callback, event.command(), objectMapper.writeValueAsBytes(event.command())), 1);
+        } catch (JsonProcessingException e) {
+            inFlight.release();
+            failedCounter.increment();
+            logger.error("Could not serialize command for resource {}", event.resourceId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        retryScheduler.shutdownNow();
+        httpClient.shutdownNow();
+    }
+
+    private void attempt(Push push, int attempt) {
+        HostLane lane = hostLanes.computeIfAbsent(push.hostKey(), key -> new HostLane());
+        if (lane.tryStart(new PendingAttempt(push, attempt), maxPerHost)) {
+            send(lane, push, attempt);
+        }
+    }
+
+    private void send(HostLane lane, Push push, int attempt) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(push.callback())
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(push.body()))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        finish(lane);
+                        if (error == null && response.statusCode() / 100 == 2) {
+                            inFlight.release();
+                            deliveredCounter.increment();
+                        } else if (error == null && !isRetryable(response.statusCode())) {
+                            giveUp(push, "HTTP " + response.statusCode());
+                        } else {
+                            retryOrGiveUp(push, attempt, error != null ? error.toString() : "HTTP " + response.statusCode());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Falha síncrona (ex.: cliente encerrado): exceções na tarefa do retryScheduler seriam engolidas
+            // e as vagas do host e de push em andamento ficariam presas
+            finish(lane);
+            giveUp(push, e.toString());
+        }
+    }
+
+    // Libera a vaga do host ou a repassa ao próximo push da fila
+    private void finish(HostLane lane) {
+        PendingAttempt next = lane.finish();
+        if (next != null) {
+            send(lane, next.push(), next.attempt());
+        }
+    }
+
+    private void retryOrGiveUp(Push push, int attempt, String reason) {
+        if (attempt >= maxAttempts) {
+            giveUp(push, reason);
+            return;
+        }
+        // Backoff exponencial com jitter total: tentativas de vários dispositivos não se alinham
+        long delay = ThreadLocalRandom.current().nextLong((backoffMs << (attempt - 1)) + 1);
+        retriedCounter.increment();
+        try {
+            retryScheduler.schedule(() -> attempt(push, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Scheduler encerrado no desligamento
+            giveUp(push, reason);
+        }
+    }
+
+    private void giveUp(Push push, String reason) {
+        inFlight.release();
+        failedCounter.increment();
+        logger.debug("Push of {} command to {} failed: {}", push.command().command(), push.callback(), reason);
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("devices.push.sent")
+                .description("Device command pushes by final outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Requisições em andamento para um host e pushes aguardando vaga, em ordem de chegada.
+     */
+    private static final class HostLane {
+
+        private final Deque<PendingAttempt> waiting = new ArrayDeque<>();
+        private int active;
+
+        synchronized boolean tryStart(PendingAttempt pending, int maxPerHost) {
+            if (active < maxPerHost) {
+                active++;
+                return true;
+            }
+            waiting.addLast(pending);
+            return false;
+        }
+
+        synchronized PendingAttempt finish() {
+            PendingAttempt next = waiting.pollFirst();
+            if (next == null) {
+                active--;
+            }
+            return next;
+        }
+    }
+
+    private record PendingAttempt(Push push, int attempt) {
+    }
+
+    private record Push(URI callback, DeviceCommandDto command, byte[] body) {
+
+        String hostKey() {
+            return callback.getHost() + ":" + callback.getPort();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class DeviceRateLimitConfig implements WebMvcConfigurer {
+
+    private final DeviceRateLimiter rateLimiter;
+
+    public DeviceRateLimitConfig(DeviceRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeviceRateLimitInterceptor(rateLimiter))
+                .addPathPatterns("/api/v1/devices/**");
+    }
+}
@@ -0,0 +1,41 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+import com.ifba.iotManagement.device.dto.ThrottledDeviceDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/device-rate-limits")
+@Tag(name = "Device rate limits", description = "Monitoramento do limite de taxa das rotas de dispositivos")
+public class DeviceRateLimitController {
+
+    private final DeviceRateLimiter rateLimiter;
+
+    public DeviceRateLimitController(DeviceRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @GetMapping("/throttled")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Dispositivos mais limitados",
+            description = "Retorna os dispositivos com mais requisições recusadas com 429 entre os buckets ativos (admin apenas)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado - apenas administradores")
+    })
+    public ResponseEntity<List<ThrottledDeviceDto>> getThrottledDevices(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(rateLimiter.topThrottledDevices(Math.max(1, Math.min(limit, 1000))));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Aplica o limite por IP a todas as rotas de dispositivos e o limite por dispositivo às rotas com
+ * {@code {resourceId}} no caminho. Roda antes da leitura do corpo; as rotas com resourceId no corpo
+ * verificam o limite por dispositivo no controller. A {@link com.ifba.iotManagement.shared.exceptions.TooManyRequestsException}
+ * é convertida em 429 pelo {@code RestExceptionHandler}.
+ */
+class DeviceRateLimitInterceptor implements HandlerInterceptor {
+
+    private final DeviceRateLimiter rateLimiter;
+
+    DeviceRateLimitInterceptor(DeviceRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        rateLimiter.checkClient(request.getRemoteAddr());
+        @SuppressWarnings("unchecked")
+        Map<String, String> uriVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (uriVariables != null && uriVariables.containsKey("resourceId")) {
+            rateLimiter.checkDevice(uriVariables.get("resourceId"));
+        }
+        return true;
+    }
+}
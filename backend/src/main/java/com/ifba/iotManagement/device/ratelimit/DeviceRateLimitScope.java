@@ -0,0 +1,8 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+public enum DeviceRateLimitScope {
+    /** Endereço IP de origem da requisição. */
+    CLIENT,
+    /** resourceId do dispositivo (caminho, corpo ou sessão WebSocket). */
+    DEVICE
+}
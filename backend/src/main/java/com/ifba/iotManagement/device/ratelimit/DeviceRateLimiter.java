@@ -0,0 +1,155 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+import com.ifba.iotManagement.device.dto.ThrottledDeviceDto;
+import com.ifba.iotManagement.shared.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de taxa das rotas sem autenticação {@code /api/v1/devices/**}, por IP de origem e por resourceId.
+ * <p>
+ * Cada chave tem um {@link RateBucket} (token bucket lock-free) com taxa e rajada configuráveis por escopo.
+ * Buckets ociosos são descartados periodicamente e o número de chaves acompanhadas é limitado: acima do
+ * limite uma chave nova não é limitada (o limite por IP continua valendo), o que impede que resourceIds
+ * inventados inflem a memória.
+ */
+@Component
+public class DeviceRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRateLimiter.class);
+
+    private final boolean enabled;
+    private final BucketTable clients;
+    private final BucketTable devices;
+    private final long idleNanos;
+
+    public DeviceRateLimiter(MeterRegistry meterRegistry,
+                             @Value("${devices.rate-limit.enabled:true}") boolean enabled,
+                             @Value("${devices.rate-limit.client.requests-per-second:500}") double clientRate,
+                             @Value("${devices.rate-limit.client.burst:1000}") int clientBurst,
+                             @Value("${devices.rate-limit.device.requests-per-second:5}") double deviceRate,
+                             @Value("${devices.rate-limit.device.burst:20}") int deviceBurst,
+                             @Value("${devices.rate-limit.max-tracked-keys:200000}") int maxTrackedKeys,
+                             @Value("${devices.rate-limit.idle-evict-seconds:300}") long idleEvictSeconds) {
+        this.enabled = enabled;
+        this.clients = new BucketTable(DeviceRateLimitScope.CLIENT, clientRate, clientBurst, maxTrackedKeys, meterRegistry);
+        this.devices = new BucketTable(DeviceRateLimitScope.DEVICE, deviceRate, deviceBurst, maxTrackedKeys, meterRegistry);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleEvictSeconds);
+    }
+
+    /**
+     * @throws TooManyRequestsException se o IP excedeu o limite
+     */
+    public void checkClient(String address) {
+        check(clients, address, "Too many requests from " + address);
+    }
+
+    /**
+     * @throws TooManyRequestsException se o dispositivo excedeu o limite
+     */
+    public void checkDevice(String resourceId) {
+        check(devices, resourceId, "Too many requests for resource " + resourceId);
+    }
+
+    /**
+     * Variante sem exceção para itens de lote.
+     */
+    public boolean tryAcquireDevice(String resourceId) {
+        return !enabled || resourceId == null || devices.tryAcquire(resourceId, System.nanoTime()) == 0;
+    }
+
+    /**
+     * Dispositivos com mais requisições recusadas entre os buckets ainda ativos.
+     */
+    public List<ThrottledDeviceDto> topThrottledDevices(int limit) {
+        List<ThrottledDeviceDto> throttled = new ArrayList<>();
+        devices.buckets.forEach((resourceId, bucket) -> {
+            long count = bucket.throttled();
+            if (count > 0) {
+                throttled.add(new ThrottledDeviceDto(resourceId, count));
+            }
+        });
+        throttled.sort(Comparator.comparingLong(ThrottledDeviceDto::throttledRequests).reversed());
+        return throttled.size() > limit ? throttled.subList(0, limit) : throttled;
+    }
+
+    @Scheduled(fixedDelayString = "${devices.rate-limit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = clients.evictIdle(now, idleNanos) + devices.evictIdle(now, idleNanos);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private void check(BucketTable table, String key, String message) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long waitNanos = table.tryAcquire(key, System.nanoTime());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            throw new TooManyRequestsException(message, retryAfterSeconds);
+        }
+    }
+
+    private static final class BucketTable {
+
+        private final ConcurrentHashMap<String, RateBucket> buckets = new ConcurrentHashMap<>();
+        private final long emissionIntervalNanos;
+        private final long toleranceNanos;
+        private final int maxKeys;
+        private final Counter throttledCounter;
+
+        BucketTable(DeviceRateLimitScope scope, double requestsPerSecond, int burst, int maxKeys, MeterRegistry meterRegistry) {
+            this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+            this.toleranceNanos = emissionIntervalNanos * Math.max(burst, 1);
+            this.maxKeys = maxKeys;
+            this.throttledCounter = Counter.builder("devices.rate-limit.throttled")
+                    .description("Device requests rejected with 429")
+                    .tag("scope", scope.name())
+                    .register(meterRegistry);
+            Gauge.builder("devices.rate-limit.buckets", buckets, ConcurrentHashMap::size)
+                    .description("Rate limit buckets currently tracked")
+                    .tag("scope", scope.name())
+                    .register(meterRegistry);
+        }
+
+        long tryAcquire(String key, long now) {
+            RateBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.mappingCount() >= maxKeys) {
+                    return 0;
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new RateBucket(now));
+            }
+            long waitNanos = bucket.tryAcquire(now, emissionIntervalNanos, toleranceNanos);
+            if (waitNanos > 0) {
+                throttledCounter.increment();
+            }
+            return waitNanos;
+        }
+
+        int evictIdle(long now, long idleNanos) {
+            int evicted = 0;
+            for (var entry : buckets.entrySet()) {
+                if (entry.getValue().isIdle(now, idleNanos) && buckets.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ifba.iotManagement.device.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Token bucket lock-free na forma GCRA: em vez de contar tokens guarda apenas o "instante teórico de chegada"
+ * (TAT) da próxima requisição. Cada requisição aceita empurra o TAT em um intervalo de emissão; a requisição
+ * é recusada quando o TAT ficaria mais de {@code burst} intervalos à frente do relógio. Um único CAS por
+ * requisição, sem timer de reabastecimento.
+ */
+final class RateBucket {
+
+    private static final AtomicLongFieldUpdater<RateBucket> TAT =
+            AtomicLongFieldUpdater.newUpdater(RateBucket.class, "theoreticalArrival");
+    private static final AtomicLongFieldUpdater<RateBucket> THROTTLED =
+            AtomicLongFieldUpdater.newUpdater(RateBucket.class, "throttled");
+
+    private volatile long theoreticalArrival;
+    private volatile long throttled;
+
+    RateBucket(long now) {
+        this.theoreticalArrival = now;
+    }
+
+    /**
+     * @return 0 se a requisição foi aceita; senão, nanossegundos até a próxima requisição ser aceita
+     */
+    long tryAcquire(long now, long emissionIntervalNanos, long toleranceNanos) {
+        while (true) {
+            long tat = theoreticalArrival;
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                THROTTLED.incrementAndGet(this);
+                return excess;
+            }
+            if (TAT.compareAndSet(this, tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Um bucket cheio há mais de {@code idleNanos} equivale a um bucket novo e pode ser descartado.
+     */
+    boolean isIdle(long now, long idleNanos) {
+        return now - theoreticalArrival > idleNanos;
+    }
+
+    long throttled() {
+        return throttled;
+    }
+}
@@ -0,0 +1,383 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Registro residente dos dispositivos: resourceId -> (id interno, status, lockedForAdmin, timeout).
+ * <p>
+ * Implementado como tabela hash de endereçamento aberto (linear probing) sobre arrays primitivos
+ * paralelos. As chaves ficam codificadas em UTF-8 em uma única arena de bytes, então cada dispositivo
+ * custa algumas dezenas de bytes em vez de uma entidade JPA inteira (ver {@link #estimatedHeapBytes()}).
+ * Leituras usam o read lock de um {@link StampedLock}; escritas (criação, remoção, mudança de status) são raras.
+ */
+@Component
+public class DeviceRegistry {
+
+    private static final float MAX_LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private static final int STATUS_MASK = 0b0000_0111;
+    private static final int LOCKED_FOR_ADMIN_BIT = 0b0000_1000;
+    private static final IotResourceStatus[] STATUSES = IotResourceStatus.values();
+
+    private final StampedLock lock = new StampedLock();
+
+    // Slots da tabela (hash 0 = slot vazio)
+    private int[] hashes;
+    private int[] keyOffsets;
+    private short[] keyLengths;
+    private int[] ids;
+    private byte[] flags;
+    private int[] timeouts;
+
+    // Arena com os bytes UTF-8 das chaves
+    private byte[] keyArena;
+    private int arenaSize;
+    private int deadArenaBytes;
+
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public DeviceRegistry() {
+        this(MIN_CAPACITY);
+    }
+
+    public DeviceRegistry(int expectedSize) {
+        allocate(capacityFor(expectedSize), Math.max(expectedSize, 64) * 16);
+    }
+
+    public DeviceRegistryEntry find(String resourceId) {
+        int hash = hash(resourceId);
+        long stamp = lock.readLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            if (slot < 0) {
+                return null;
+            }
+            return new DeviceRegistryEntry(
+                    ids[slot],
+                    resourceId,
+                    STATUSES[flags[slot] & STATUS_MASK],
+                    (flags[slot] & LOCKED_FOR_ADMIN_BIT) != 0,
+                    timeouts[slot]
+            );
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return o id interno do recurso ou -1 se não estiver registrado
+     */
+    public long findId(String resourceId) {
+        int hash = hash(resourceId);
+        long stamp = lock.readLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            return slot < 0 ? -1L : ids[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public IotResourceStatus findStatus(String resourceId) {
+        int hash = hash(resourceId);
+        long stamp = lock.readLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            return slot < 0 ? null : STATUSES[flags[slot] & STATUS_MASK];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(String resourceId) {
+        return findId(resourceId) >= 0;
+    }
+
+    public void put(long id, String resourceId, IotResourceStatus status, boolean lockedForAdmin, long timeoutUsageInMinutes) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Resource id out of range: " + id);
+        }
+        byte[] key = resourceId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Resource ID too long: " + resourceId);
+        }
+        int hash = hash(resourceId);
+        long stamp = lock.writeLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            if (slot < 0) {
+                if (size + 1 > resizeThreshold) {
+                    rehash(hashes.length << 1);
+                }
+                slot = hash & mask;
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = hash;
+                keyOffsets[slot] = appendKey(key);
+                keyLengths[slot] = (short) key.length;
+                size++;
+            }
+            ids[slot] = (int) id;
+            flags[slot] = flags(status, lockedForAdmin);
+            timeouts[slot] = (int) Math.min(timeoutUsageInMinutes, Integer.MAX_VALUE);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return true se o recurso estava registrado
+     */
+    public boolean updateStatus(String resourceId, IotResourceStatus status) {
+        int hash = hash(resourceId);
+        long stamp = lock.writeLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            if (slot < 0) {
+                return false;
+            }
+            flags[slot] = (byte) ((flags[slot] & ~STATUS_MASK) | status.ordinal());
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(String resourceId) {
+        int hash = hash(resourceId);
+        long stamp = lock.writeLock();
+        try {
+            int slot = indexOf(resourceId, hash);
+            if (slot < 0) {
+                return false;
+            }
+            deadArenaBytes += keyLengths[slot];
+            deleteSlot(slot);
+            size--;
+            if (deadArenaBytes > (arenaSize >> 1) && deadArenaBytes > 4096) {
+                rehash(hashes.length);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Percorre todas as entradas sob o read lock; o consumidor não deve escrever no registro.
+     */
+    public void forEach(Consumer<DeviceRegistryEntry> action) {
+        long stamp = lock.readLock();
+        try {
+            for (int slot = 0; slot < hashes.length; slot++) {
+                if (hashes[slot] == 0) {
+                    continue;
+                }
+                action.accept(new DeviceRegistryEntry(
+                        ids[slot],
+                        new String(keyArena, keyOffsets[slot], keyLengths[slot], StandardCharsets.UTF_8),
+                        STATUSES[flags[slot] & STATUS_MASK],
+                        (flags[slot] & LOCKED_FOR_ADMIN_BIT) != 0,
+                        timeouts[slot]
+                ));
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            allocate(MIN_CAPACITY, MIN_CAPACITY * 16);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Tamanho aproximado em heap das estruturas do registro (arrays + arena), sem contar o próprio objeto.
+     */
+    public long estimatedHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            long slots = hashes.length;
+            return arrayBytes(slots * Integer.BYTES)     // hashes
+                    + arrayBytes(slots * Integer.BYTES)  // keyOffsets
+                    + arrayBytes(slots * Short.BYTES)    // keyLengths
+                    + arrayBytes(slots * Integer.BYTES)  // ids
+                    + arrayBytes(slots)                  // flags
+                    + arrayBytes(slots * Integer.BYTES)  // timeouts
+                    + arrayBytes(keyArena.length);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int indexOf(String resourceId, int hash) {
+        int slot = hash & mask;
+        while (true) {
+            int slotHash = hashes[slot];
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash && keyEquals(slot, resourceId)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(int slot, String resourceId) {
+        int offset = keyOffsets[slot];
+        int length = keyLengths[slot];
+        int chars = resourceId.length();
+        if (length < chars) {
+            return false;
+        }
+        if (length == chars) {
+            // Mesmo tamanho em bytes e em chars só é possível com chave ASCII: compara sem alocar
+            for (int i = 0; i < chars; i++) {
+                char c = resourceId.charAt(i);
+                if (c >= 0x80 || keyArena[offset + i] != (byte) c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        byte[] encoded = resourceId.getBytes(StandardCharsets.UTF_8);
+        return Arrays.equals(keyArena, offset, offset + length, encoded, 0, encoded.length);
+    }
+
+    private int appendKey(byte[] key) {
+        if (arenaSize + key.length > keyArena.length) {
+            int newLength = Math.max(arenaSize + key.length, keyArena.length + (keyArena.length >> 1));
+            keyArena = Arrays.copyOf(keyArena, newLength);
+        }
+        int offset = arenaSize;
+        System.arraycopy(key, 0, keyArena, offset, key.length);
+        arenaSize += key.length;
+        return offset;
+    }
+
+    // Remoção com backward shift: mantém as cadeias de linear probing sem tombstones
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int nextHash = hashes[next];
+            if (nextHash == 0) {
+                break;
+            }
+            int ideal = nextHash & mask;
+            boolean canMove = hole <= next
+                    ? ideal <= hole || ideal > next
+                    : ideal <= hole && ideal > next;
+            if (canMove) {
+                moveSlot(next, hole);
+                hole = next;
+            }
+        }
+        hashes[hole] = 0;
+    }
+
+    private void moveSlot(int from, int to) {
+        hashes[to] = hashes[from];
+        keyOffsets[to] = keyOffsets[from];
+        keyLengths[to] = keyLengths[from];
+        ids[to] = ids[from];
+        flags[to] = flags[from];
+        timeouts[to] = timeouts[from];
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldHashes = hashes;
+        int[] oldKeyOffsets = keyOffsets;
+        short[] oldKeyLengths = keyLengths;
+        int[] oldIds = ids;
+        byte[] oldFlags = flags;
+        int[] oldTimeouts = timeouts;
+        byte[] oldArena = keyArena;
+
+        allocate(newCapacity, Math.max(arenaSize - deadArenaBytes, 64) + (arenaSize >> 2));
+        int liveEntries = 0;
+        for (int oldSlot = 0; oldSlot < oldHashes.length; oldSlot++) {
+            int hash = oldHashes[oldSlot];
+            if (hash == 0) {
+                continue;
+            }
+            int slot = hash & mask;
+            while (hashes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            int length = oldKeyLengths[oldSlot];
+            hashes[slot] = hash;
+            keyOffsets[slot] = arenaSize;
+            keyLengths[slot] = (short) length;
+            System.arraycopy(oldArena, oldKeyOffsets[oldSlot], keyArena, arenaSize, length);
+            arenaSize += length;
+            ids[slot] = oldIds[oldSlot];
+            flags[slot] = oldFlags[oldSlot];
+            timeouts[slot] = oldTimeouts[oldSlot];
+            liveEntries++;
+        }
+        size = liveEntries;
+    }
+
+    private void allocate(int capacity, int arenaCapacity) {
+        hashes = new int[capacity];
+        keyOffsets = new int[capacity];
+        keyLengths = new short[capacity];
+        ids = new int[capacity];
+        flags = new byte[capacity];
+        timeouts = new int[capacity];
+        keyArena = new byte[arenaCapacity];
+        arenaSize = 0;
+        deadArenaBytes = 0;
+        mask = capacity - 1;
+        size = 0;
+        resizeThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / MAX_LOAD_FACTOR);
+        int capacity = Integer.highestOneBit(Math.max(needed, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    private static byte flags(IotResourceStatus status, boolean lockedForAdmin) {
+        return (byte) (status.ordinal() | (lockedForAdmin ? LOCKED_FOR_ADMIN_BIT : 0));
+    }
+
+    private static int hash(String resourceId) {
+        // String.hashCode() fica em cache na própria String; o mix espalha os bits para o linear probing
+        int h = resourceId.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    private static long arrayBytes(long payloadBytes) {
+        return ARRAY_HEADER_BYTES + ((payloadBytes + 7) & ~7L);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+
+public record DeviceRegistryEntry(
+        long id,
+        String resourceId,
+        IotResourceStatus status,
+        boolean lockedForAdmin,
+        long timeoutUsageInMinutes
+) {
+}
@@ -0,0 +1,127 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.iotResource.IotResourceCreatedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Mantém o {@link DeviceRegistry} coerente com o banco: carrega todos os recursos antes do servidor
+ * começar a aceitar requisições, aplica criações/remoções/mudanças de status publicadas pelos serviços
+ * e, em caso de miss (ex.: recurso criado por outra instância), consulta o banco e registra o resultado.
+ */
+@Component
+public class DeviceRegistryLoader implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRegistryLoader.class);
+
+    private static final String LOAD_SQL = """
+        SELECT id, resource_id, status, locked_for_admin, timeout_usage_in_minutes, last_device_timestamp
+          FROM iot_resources
+         WHERE deleted = false
+        """;
+
+    private final DeviceRegistry registry;
+    private final DeviceTimestampTable deviceTimestamps;
+    private final IotResourceRepository resourceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DeviceRegistryLoader(DeviceRegistry registry,
+                                DeviceTimestampTable deviceTimestamps,
+                                IotResourceRepository resourceRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate) {
+        this.registry = registry;
+        this.deviceTimestamps = deviceTimestamps;
+        this.resourceRepository = resourceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        // Transação somente leitura para o driver do Postgres usar cursor com fetch size
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                    statement.setFetchSize(5_000);
+                    return statement;
+                },
+                rs -> {
+                    long id = rs.getLong("id");
+                    registry.put(
+                            id,
+                            rs.getString("resource_id"),
+                            IotResourceStatus.valueOf(rs.getString("status")),
+                            rs.getBoolean("locked_for_admin"),
+                            rs.getLong("timeout_usage_in_minutes")
+                    );
+                    Timestamp lastDeviceTimestamp = rs.getTimestamp("last_device_timestamp");
+                    if (lastDeviceTimestamp != null) {
+                        deviceTimestamps.advance(id, DeviceTimestampTable.toMicros(lastDeviceTimestamp.toInstant()));
+                    }
+                }
+        ));
+        logger.info("Registro de dispositivos carregado: {} recursos em {} ms (~{} KB em heap)",
+                registry.size(),
+                (System.nanoTime() - start) / 1_000_000,
+                registry.estimatedHeapBytes() / 1024);
+    }
+
+    /**
+     * Busca o recurso no registro; em caso de miss consulta o banco e registra o resultado.
+     */
+    public Optional<DeviceRegistryEntry> lookup(String resourceId) {
+        DeviceRegistryEntry entry = registry.find(resourceId);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        return resourceRepository.findByResourceIdAndDeletedIsFalse(resourceId).map(this::register);
+    }
+
+    public DeviceRegistryEntry register(IotResourceEntity resource) {
+        registry.put(
+                resource.getId(),
+                resource.getResourceId(),
+                resource.getStatus(),
+                Boolean.TRUE.equals(resource.getLockedForAdmin()),
+                resource.getTimeoutUsageInMinutes()
+        );
+        Instant lastDeviceTimestamp = resource.getLastDeviceTimestamp();
+        if (lastDeviceTimestamp != null) {
+            deviceTimestamps.advance(resource.getId(), DeviceTimestampTable.toMicros(lastDeviceTimestamp));
+        }
+        return registry.find(resource.getResourceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceCreated(IotResourceCreatedEvent event) {
+        registry.put(event.id(), event.resourceId(), event.status(), event.lockedForAdmin(), event.timeoutUsageInMinutes());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(IotResourceStatusChangedEvent event) {
+        registry.updateStatus(event.resourceId(), event.newStatus());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        registry.remove(event.resourceId());
+    }
+}
@@ -0,0 +1,112 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveRepository;
+import com.ifba.iotManagement.iotResource.reserve.ReserveScheduleChangedEvent;
+import com.ifba.iotManagement.iotResource.reserve.ReserveWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Agenda de cada recurso vista pelo dispositivo: o próximo limite de reserva (início ou fim previsto) e o
+ * instante da última mudança de estado, em segundos de época.
+ * <p>
+ * O limite é carregado do banco sob demanda e mantido em memória até passar (ou por no máximo
+ * {@code devices.polling.schedule-refresh-seconds}); eventos de reserva, status e comando invalidam a entrada.
+ * Uma geração por recurso impede que uma carga concorrente com a invalidação grave o limite antigo.
+ * Cada recurso ocupa 32 bytes nas tabelas paginadas.
+ */
+@Component
+public class DeviceReserveSchedule {
+
+    /** Nenhuma reserva ativa ou futura. */
+    public static final long NO_BOUNDARY = Long.MAX_VALUE;
+
+    private final IotResourceReserveRepository reserveRepository;
+
+    private final PagedLongArray boundaries = new PagedLongArray(NO_BOUNDARY);
+    private final PagedLongArray refreshAt = new PagedLongArray(0);
+    private final PagedLongArray generations = new PagedLongArray(0);
+    private final PagedLongArray lastChange = new PagedLongArray(0);
+
+    @Value("${devices.polling.schedule-refresh-seconds:300}")
+    private long refreshSeconds;
+
+    // Reserva vencida aguardando o ReserveTimeoutScheduler: reconsulta neste intervalo
+    @Value("${devices.polling.min-seconds:5}")
+    private long overdueRecheckSeconds;
+
+    public DeviceReserveSchedule(IotResourceReserveRepository reserveRepository) {
+        this.reserveRepository = reserveRepository;
+    }
+
+    /**
+     * Próximo início ou fim previsto de reserva do recurso, em segundos de época. Um valor menor ou igual a
+     * {@code nowSeconds} indica reserva vencida ainda não finalizada; {@link #NO_BOUNDARY} indica agenda vazia.
+     */
+    public long nextBoundary(long resourcePk, long nowSeconds) {
+        if (refreshAt.get(resourcePk) > nowSeconds) {
+            return boundaries.get(resourcePk);
+        }
+        long generation = generations.get(resourcePk);
+        long boundary = load(resourcePk, nowSeconds);
+        if (generations.get(resourcePk) == generation) {
+            boundaries.set(resourcePk, boundary);
+            refreshAt.set(resourcePk, boundary <= nowSeconds
+                    ? nowSeconds + overdueRecheckSeconds
+                    : Math.min(boundary, nowSeconds + refreshSeconds));
+        }
+        return boundary;
+    }
+
+    /**
+     * Segundos de época da última mudança de status ou comando emitido; 0 se nenhuma desde a inicialização.
+     */
+    public long lastChange(long resourcePk) {
+        return lastChange.get(resourcePk);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ReserveScheduleChangedEvent event) {
+        invalidate(event.resourcePk());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(IotResourceStatusChangedEvent event) {
+        lastChange.set(event.id(), System.currentTimeMillis() / 1000);
+        invalidate(event.id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        lastChange.set(event.resourcePk(), System.currentTimeMillis() / 1000);
+        invalidate(event.resourcePk());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        invalidate(event.id());
+    }
+
+    private void invalidate(long resourcePk) {
+        generations.incrementAndGet(resourcePk);
+        refreshAt.set(resourcePk, 0);
+    }
+
+    private long load(long resourcePk, long nowSeconds) {
+        long boundary = NO_BOUNDARY;
+        for (ReserveWindow window : reserveRepository.findActiveWindows(resourcePk)) {
+            long start = window.startTime().getEpochSecond();
+            if (start > nowSeconds) {
+                boundary = Math.min(boundary, start);
+            } else if (window.predictedEndTime() != null) {
+                // Já iniciada: o próximo limite é o fim previsto, possivelmente já vencido
+                boundary = Math.min(boundary, window.predictedEndTime().getEpochSecond());
+            }
+        }
+        return boundary;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.device.command.DeviceCommandIssuedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceCreatedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceDeletedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Versão monotônica do estado de cada recurso visto pelo dispositivo (status e reserva atual), usada como ETag
+ * em {@code GET /devices/{resourceId}/status}: um {@code If-None-Match} igual à versão atual é respondido com
+ * 304 só com a memória.
+ * <p>
+ * A versão avança nos eventos publicados após o commit, então quem lê a versão antes de carregar o estado
+ * nunca associa uma versão nova a um estado antigo. O ETag inclui a época do processo porque as versões
+ * recomeçam do zero a cada inicialização. Como o {@link DeviceRegistry}, assume que as mudanças passam por
+ * esta instância.
+ */
+@Component
+public class DeviceStateVersions {
+
+    private final PagedLongArray versions = new PagedLongArray(0);
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public String etag(long resourcePk) {
+        return "\"" + epoch + '.' + version(resourcePk) + "\"";
+    }
+
+    public long version(long resourcePk) {
+        return versions.get(resourcePk);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(IotResourceStatusChangedEvent event) {
+        versions.incrementAndGet(event.id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandIssued(DeviceCommandIssuedEvent event) {
+        versions.incrementAndGet(event.resourcePk());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceCreated(IotResourceCreatedEvent event) {
+        versions.incrementAndGet(event.id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceDeleted(IotResourceDeletedEvent event) {
+        versions.incrementAndGet(event.id());
+    }
+}
@@ -0,0 +1,42 @@
+package com.ifba.iotManagement.device.registry;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Último timestamp de dispositivo aceito por recurso (em microssegundos desde a epoch), indexado pelo id interno.
+ * Fica fora do {@link DeviceRegistry} para não pesar no custo por slot da tabela hash.
+ */
+@Component
+public class DeviceTimestampTable {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private final PagedLongArray timestamps = new PagedLongArray(NONE);
+
+    public long get(long id) {
+        return timestamps.get(id);
+    }
+
+    /**
+     * Avança o timestamp se {@code micros} for mais novo que o atual.
+     *
+     * @return true se avançou
+     */
+    public boolean advance(long id, long micros) {
+        return timestamps.advance(id, micros);
+    }
+
+    public void set(long id, long micros) {
+        timestamps.set(id, micros);
+    }
+
+    public void clear() {
+        timestamps.clear();
+    }
+
+    public static long toMicros(Instant timestamp) {
+        return Math.addExact(Math.multiplyExact(timestamp.getEpochSecond(), 1_000_000L), timestamp.getNano() / 1_000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ifba.iotManagement.device.registry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Array de longs indexado pelo id interno do recurso. Os ids são seriais e densos, então a tabela é paginada
+ * por id em vez de usar hash: páginas de {@value #PAGE_SIZE} posições são alocadas sob demanda e as
+ * atualizações são CAS lock-free.
+ */
+final class PagedLongArray {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final long initialValue;
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[16];
+
+    PagedLongArray(long initialValue) {
+        this.initialValue = initialValue;
+    }
+
+    long get(long id) {
+        AtomicLongArray page = page(id, false);
+        return page == null ? initialValue : page.get((int) (id & PAGE_MASK));
+    }
+
+    /**
+     * Substitui o valor se {@code value} for maior que o atual.
+     *
+     * @return true se substituiu
+     */
+    boolean advance(long id, long value) {
+        AtomicLongArray page = page(id, true);
+        int index = (int) (id & PAGE_MASK);
+        long current;
+        do {
+            current = page.get(index);
+            if (current >= value) {
+                return false;
+            }
+        } while (!page.compareAndSet(index, current, value));
+        return true;
+    }
+
+    long incrementAndGet(long id) {
+        return page(id, true).incrementAndGet((int) (id & PAGE_MASK));
+    }
+
+    void set(long id, long value) {
+        page(id, true).set((int) (id & PAGE_MASK), value);
+    }
+
+    synchronized void clear() {
+        pages = new AtomicLongArray[16];
+    }
+
+    private AtomicLongArray page(long id, boolean create) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Resource id out of range: " + id);
+        }
+        int pageIndex = (int) (id >>> PAGE_BITS);
+        AtomicLongArray[] current = pages;
+        AtomicLongArray page = pageIndex < current.length ? current[pageIndex] : null;
+        if (page != null || !create) {
+            return page;
+        }
+        synchronized (this) {
+            current = pages;
+            if (pageIndex >= current.length) {
+                current = Arrays.copyOf(current, Math.max(pageIndex + 1, current.length << 1));
+            }
+            page = current[pageIndex];
+            if (page == null) {
+                page = new AtomicLongArray(PAGE_SIZE);
+                if (initialValue != 0) {
+                    for (int i = 0; i < PAGE_SIZE; i++) {
+                        page.lazySet(i, initialValue);
+                    }
+                }
+                current[pageIndex] = page;
+            }
+            pages = current;
+            return page;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ifba.iotManagement.device.singleflight;
+
+import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight das leituras de status ({@code GET /devices/{resourceId}/status} e long-polls): leituras
+ * concorrentes do mesmo recurso esperam a carga que já está em andamento em vez de repetir as consultas.
+ * <p>
+ * A chave inclui a versão do estado ({@link com.ifba.iotManagement.device.registry.DeviceStateVersions}) lida
+ * antes da carga. Como a versão só avança após o commit, a carga em andamento para a versão {@code v} devolve um
+ * estado pelo menos tão novo quanto {@code v}; quem chega depois de uma mudança vê outra versão e faz carga
+ * própria. Nada fica guardado após a carga terminar: isto não é um cache. Erros da carga (ex.: recurso não
+ * encontrado) chegam a todos que a esperavam.
+ */
+@Component
+public class DeviceStatusReadCoalescer {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<DeviceResourceStatusDto>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loadedCounter;
+    private final Counter coalescedCounter;
+    private final boolean enabled;
+
+    public DeviceStatusReadCoalescer(MeterRegistry meterRegistry,
+                                     @Value("${devices.status-reads.coalesce:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.loadedCounter = Counter.builder("devices.status.reads")
+                .description("Device status reads, by whether they loaded the state or joined a load in flight")
+                .tag("outcome", "loaded")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("devices.status.reads")
+                .description("Device status reads, by whether they loaded the state or joined a load in flight")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("devices.status.reads.in-flight", inFlight, ConcurrentHashMap::size)
+                .description("Device status loads in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devolve o resultado da carga em andamento para ({@code resourceId}, {@code version}) ou executa
+     * {@code loader} na thread chamadora, compartilhando o resultado com quem chegar enquanto ela roda.
+     */
+    public DeviceResourceStatusDto load(String resourceId, long version, Supplier<DeviceResourceStatusDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(resourceId, version);
+        CompletableFuture<DeviceResourceStatusDto> mine = new CompletableFuture<>();
+        CompletableFuture<DeviceResourceStatusDto> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalescedCounter.increment();
+            return await(running);
+        }
+        loadedCounter.increment();
+        try {
+            DeviceResourceStatusDto status = loader.get();
+            mine.complete(status);
+            return status;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static DeviceResourceStatusDto await(CompletableFuture<DeviceResourceStatusDto> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Repassa a exceção original para o RestExceptionHandler mapear o status (ex.: 404)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String resourceId, long version) {
+    }
+}
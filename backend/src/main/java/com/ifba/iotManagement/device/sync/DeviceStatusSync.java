@@ -0,0 +1,107 @@
+package com.ifba.iotManagement.device.sync;
+
+import com.ifba.iotManagement.device.batch.DeviceBatchItemOutcome;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dto.DeviceBatchItemResultDto;
+import com.ifba.iotManagement.device.dto.DeviceBatchStatusResponseDto;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.device.dto.DeviceSyncDto;
+import com.ifba.iotManagement.device.polling.DevicePollAdvisor;
+import com.ifba.iotManagement.device.registry.DeviceRegistryEntry;
+import com.ifba.iotManagement.device.registry.DeviceRegistryLoader;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Monta o corpo das respostas de {@code POST /devices/status} e {@code /status:batch}: status do recurso no
+ * servidor, comandos ainda não confirmados e {@code nextPollAfter}. Com isso o dispositivo envia o próprio
+ * status e recebe RESERVE/RELEASE na mesma troca, sem o {@code GET /commands} e o {@code GET /status} de cada ciclo.
+ * <p>
+ * Tudo vem da memória (registro de dispositivos e cabeças do outbox); o banco só é consultado quando o recurso
+ * tem comandos pendentes. O status é o do registro: no caminho síncrono e nos lotes ele é atualizado após o commit;
+ * no modo write-behind (202) o {@code DeviceStatusCoalescer} já o atualizou com a mudança enviada, que ainda aguarda
+ * o flush (se a gravação falhar de vez, o recurso sai do registro e volta do banco). Com
+ * {@code devices.status-sync.enabled=false} as respostas voltam a vir sem corpo.
+ */
+@Component
+public class DeviceStatusSync {
+
+    // Itens cujo recurso não existe, não foi lido ou tem outro item mais novo no mesmo lote ficam sem sincronização
+    private static final Set<DeviceBatchItemOutcome> WITHOUT_SYNC = EnumSet.of(
+            DeviceBatchItemOutcome.NOT_FOUND, DeviceBatchItemOutcome.INVALID, DeviceBatchItemOutcome.SUPERSEDED);
+
+    private final DeviceRegistryLoader registryLoader;
+    private final DeviceCommandOutbox commandOutbox;
+    private final DevicePollAdvisor pollAdvisor;
+    private final Counter piggybackedCounter;
+    private final boolean enabled;
+
+    public DeviceStatusSync(DeviceRegistryLoader registryLoader,
+                            DeviceCommandOutbox commandOutbox,
+                            DevicePollAdvisor pollAdvisor,
+                            MeterRegistry meterRegistry,
+                            @Value("${devices.status-sync.enabled:true}") boolean enabled) {
+        this.registryLoader = registryLoader;
+        this.commandOutbox = commandOutbox;
+        this.pollAdvisor = pollAdvisor;
+        this.enabled = enabled;
+        this.piggybackedCounter = Counter.builder("devices.status-sync.commands")
+                .description("Pending commands delivered in status update responses")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Estado atual do recurso para a resposta de {@code POST /status}.
+     *
+     * @throws ResourceNotFoundException se o recurso não existe
+     */
+    public DeviceSyncDto snapshot(String resourceId) {
+        return find(resourceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with resourceId: " + resourceId));
+    }
+
+    /**
+     * Acrescenta status atual, comandos pendentes e {@code nextPollAfter} aos itens aplicáveis do lote.
+     * Recursos removidos enquanto o lote era processado ficam como estão.
+     */
+    public DeviceBatchStatusResponseDto attach(DeviceBatchStatusResponseDto response) {
+        if (!enabled) {
+            return response;
+        }
+        List<DeviceBatchItemResultDto> results = response.results().stream()
+                .map(item -> WITHOUT_SYNC.contains(item.outcome())
+                        ? item
+                        : find(item.resourceId()).map(item::withSync).orElse(item))
+                .toList();
+        return new DeviceBatchStatusResponseDto(response.received(), response.applied(), results);
+    }
+
+    private Optional<DeviceSyncDto> find(String resourceId) {
+        return registryLoader.lookup(resourceId).map(this::current);
+    }
+
+    private DeviceSyncDto current(DeviceRegistryEntry entry) {
+        List<DeviceCommandDto> commands = commandOutbox.hasPending(entry.id())
+                ? commandOutbox.fetchPending(entry.resourceId(), null)
+                : List.of();
+        piggybackedCounter.increment(commands.size());
+        return new DeviceSyncDto(
+                entry.resourceId(),
+                entry.status().name(),
+                commands,
+                pollAdvisor.nextPollAfterSeconds(entry.id(), entry.status())
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package com.ifba.iotManagement.device.telemetry;
+
+import com.ifba.iotManagement.device.dto.DeviceTelemetrySeriesDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/iot-resources")
+@Tag(name = "Device telemetry", description = "Histórico de status reportado pelos dispositivos")
+public class DeviceTelemetryController {
+
+    private final DeviceTelemetryQueryService telemetryQueryService;
+
+    public DeviceTelemetryController(DeviceTelemetryQueryService telemetryQueryService) {
+        this.telemetryQueryService = telemetryQueryService;
+    }
+
+    @GetMapping("/{id}/telemetry")
+    @Operation(
+            summary = "Histórico de status do recurso",
+            description = "Retorna a série de status reportada pelo dispositivo, agregada por minuto, hora ou dia. "
+                    + "Padrão: últimas 24 horas por hora"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Série retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Intervalo inválido ou com pontos demais para a resolução"),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado")
+    })
+    public ResponseEntity<DeviceTelemetrySeriesDto> getTelemetry(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "HOUR") TelemetryResolution resolution) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(24));
+        return ResponseEntity.ok(telemetryQueryService.getSeries(id, start, end, resolution));
+    }
+}
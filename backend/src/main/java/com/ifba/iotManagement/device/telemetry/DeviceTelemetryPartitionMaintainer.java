@@ -0,0 +1,98 @@
+package com.ifba.iotManagement.device.telemetry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Cria as partições mensais de {@code device_telemetry} com antecedência e descarta as que passaram da retenção.
+ * Roda antes do servidor aceitar requisições e depois diariamente. Descartar uma partição é um
+ * {@code DROP TABLE}, sem o custo (e o bloat) de um {@code DELETE} em massa.
+ */
+@Component
+public class DeviceTelemetryPartitionMaintainer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTelemetryPartitionMaintainer.class);
+
+    private static final String PARTITION_PREFIX = "device_telemetry_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String LIST_PARTITIONS_SQL = """
+        SELECT child.relname
+          FROM pg_inherits
+          JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+          JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+         WHERE parent.relname = 'device_telemetry'
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${devices.telemetry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devices.telemetry.partitions-ahead-months:2}")
+    private int monthsAhead;
+
+    @Value("${devices.telemetry.retention-months:12}")
+    private int retentionMonths;
+
+    public DeviceTelemetryPartitionMaintainer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${devices.telemetry.maintenance-cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        dropExpiredPartitions(current.minusMonths(retentionMonths));
+    }
+
+    private void createPartition(YearMonth month) {
+        String sql = "CREATE TABLE IF NOT EXISTS " + PARTITION_PREFIX + month.format(SUFFIX)
+                + " PARTITION OF device_telemetry FOR VALUES FROM ('" + month.atDay(1)
+                + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (Exception e) {
+            // Ex.: a partição default já tem linhas desse mês; elas continuam consultáveis pela default
+            logger.warn("Could not create telemetry partition for {}: {}", month, e.getMessage());
+        }
+    }
+
+    private void dropExpiredPartitions(YearMonth oldestKept) {
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+            } catch (Exception e) {
+                continue;
+            }
+            if (month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                logger.info("Dropped expired telemetry partition {}", partition);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.ifba.iotManagement.device.telemetry;
+
+import com.ifba.iotManagement.device.dto.DeviceTelemetryPointDto;
+import com.ifba.iotManagement.device.dto.DeviceTelemetrySeriesDto;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.shared.exceptions.InvalidQueryException;
+import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Séries de status por recurso, reduzidas a intervalos de minuto, hora ou dia.
+ * <p>
+ * A agregação acontece no banco ({@code date_trunc} + {@code GROUP BY}), que devolve no máximo uma linha por
+ * (intervalo, status); as linhas são consumidas uma a uma, em ordem, e os intervalos sem amostras são
+ * preenchidos carregando o último status conhecido. As amostras brutas nunca são carregadas na aplicação.
+ */
+@Service
+public class DeviceTelemetryQueryService {
+
+    private static final String SERIES_SQL = """
+        SELECT date_trunc('%s', device_timestamp) AS bucket,
+               status,
+               count(*) AS samples,
+               max(device_timestamp) AS last_seen
+          FROM device_telemetry
+         WHERE resource_id = ? AND device_timestamp >= ? AND device_timestamp < ?
+         GROUP BY bucket, status
+         ORDER BY bucket
+        """;
+
+    private static final String STATUS_BEFORE_SQL = """
+        SELECT status
+          FROM device_telemetry
+         WHERE resource_id = ? AND device_timestamp < ?
+         ORDER BY device_timestamp DESC
+         LIMIT 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IotResourceRepository resourceRepository;
+
+    @Value("${devices.telemetry.max-points:2000}")
+    private int maxPoints;
+
+    public DeviceTelemetryQueryService(JdbcTemplate jdbcTemplate, IotResourceRepository resourceRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceRepository = resourceRepository;
+    }
+
+    public DeviceTelemetrySeriesDto getSeries(UUID publicId, Instant from, Instant to, TelemetryResolution resolution) {
+        if (!from.isBefore(to)) {
+            throw new InvalidQueryException("'from' must be before 'to'");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = resolution.truncate(LocalDateTime.ofInstant(from, zone));
+        LocalDateTime end = LocalDateTime.ofInstant(to, zone);
+        long buckets = resolution.bucketsBetween(start, end);
+        if (buckets > maxPoints) {
+            throw new InvalidQueryException("Range contains " + buckets + " " + resolution.name().toLowerCase()
+                    + " buckets, maximum allowed is " + maxPoints + "; use a coarser resolution");
+        }
+
+        IotResourceEntity resource = resourceRepository.findByPublicIdAndDeletedIsFalse(publicId)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource not found with id: " + publicId));
+
+        Timestamp startTimestamp = Timestamp.valueOf(start);
+        List<String> statusBefore = jdbcTemplate.queryForList(
+                STATUS_BEFORE_SQL, String.class, resource.getId(), startTimestamp);
+        SeriesBuilder series = new SeriesBuilder(resolution, start, end, zone,
+                statusBefore.isEmpty() ? null : IotResourceStatus.valueOf(statusBefore.get(0)));
+
+        jdbcTemplate.query(SERIES_SQL.formatted(resolution.dateTruncField()), rs -> {
+            series.add(
+                    rs.getTimestamp("bucket").toLocalDateTime(),
+                    IotResourceStatus.valueOf(rs.getString("status")),
+                    rs.getLong("samples"),
+                    rs.getTimestamp("last_seen").toLocalDateTime()
+            );
+        }, resource.getId(), startTimestamp, Timestamp.valueOf(end));
+
+        return new DeviceTelemetrySeriesDto(resource.getResourceId(), resolution, from, to, series.finish());
+    }
+
+    /**
+     * Monta a série a partir das linhas agregadas, que chegam ordenadas por intervalo.
+     */
+    private static final class SeriesBuilder {
+
+        private final TelemetryResolution resolution;
+        private final LocalDateTime end;
+        private final ZoneId zone;
+        private final List<DeviceTelemetryPointDto> points = new ArrayList<>();
+
+        private LocalDateTime nextBucket;
+        private IotResourceStatus carriedStatus;
+
+        private LocalDateTime currentBucket;
+        private final Map<IotResourceStatus, Long> currentSamples = new EnumMap<>(IotResourceStatus.class);
+        private LocalDateTime currentLastSeen;
+        private IotResourceStatus currentLastStatus;
+
+        SeriesBuilder(TelemetryResolution resolution, LocalDateTime start, LocalDateTime end, ZoneId zone,
+                      IotResourceStatus initialStatus) {
+            this.resolution = resolution;
+            this.end = end;
+            this.zone = zone;
+            this.nextBucket = start;
+            this.carriedStatus = initialStatus;
+        }
+
+        void add(LocalDateTime bucket, IotResourceStatus status, long samples, LocalDateTime lastSeen) {
+            if (!bucket.equals(currentBucket)) {
+                closeCurrent();
+                fillUntil(bucket);
+                currentBucket = bucket;
+            }
+            currentSamples.merge(status, samples, Long::sum);
+            if (currentLastSeen == null || lastSeen.isAfter(currentLastSeen)) {
+                currentLastSeen = lastSeen;
+                currentLastStatus = status;
+            }
+        }
+
+        List<DeviceTelemetryPointDto> finish() {
+            closeCurrent();
+            fillUntil(end);
+            return points;
+        }
+
+        private void closeCurrent() {
+            if (currentBucket == null) {
+                return;
+            }
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            long total = 0;
+            for (Map.Entry<IotResourceStatus, Long> entry : currentSamples.entrySet()) {
+                byStatus.put(entry.getKey().name(), entry.getValue());
+                total += entry.getValue();
+            }
+            carriedStatus = currentLastStatus;
+            points.add(new DeviceTelemetryPointDto(
+                    currentBucket.atZone(zone).toInstant(), carriedStatus.name(), total, byStatus));
+            nextBucket = resolution.next(currentBucket);
+
+            currentBucket = null;
+            currentSamples.clear();
+            currentLastSeen = null;
+            currentLastStatus = null;
+        }
+
+        private void fillUntil(LocalDateTime bucketExclusive) {
+            while (nextBucket.isBefore(bucketExclusive)) {
+                points.add(new DeviceTelemetryPointDto(
+                        nextBucket.atZone(zone).toInstant(),
+                        carriedStatus != null ? carriedStatus.name() : null,
+                        0,
+                        Collections.emptyMap()
+                ));
+                nextBucket = resolution.next(nextBucket);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ifba.iotManagement.device.telemetry;
+
+import com.ifba.iotManagement.device.ordering.DeviceStatusAcceptedEvent;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Grava a telemetria de status dos dispositivos em {@code device_telemetry}.
+ * <p>
+ * Quem reporta apenas enfileira a amostra (fila limitada, sem bloqueio); um flush periódico grava as amostras
+ * com batch JDBC. Com a fila cheia as amostras novas são descartadas e contadas em
+ * {@code devices.telemetry.dropped}: telemetria é observação, não pode segurar o caminho de status.
+ */
+@Component
+public class DeviceTelemetryRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTelemetryRecorder.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO device_telemetry (resource_id, status, device_timestamp, recorded_at)
+        VALUES (?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Sample> queue;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    @Value("${devices.telemetry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devices.telemetry.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    public DeviceTelemetryRecorder(JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${devices.telemetry.max-pending:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(maxPending);
+        this.droppedCounter = Counter.builder("devices.telemetry.dropped")
+                .description("Telemetry samples dropped because the write queue was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("devices.telemetry.written")
+                .description("Telemetry samples written to device_telemetry")
+                .register(meterRegistry);
+        Gauge.builder("devices.telemetry.pending", queue, BlockingQueue::size)
+                .description("Telemetry samples waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void record(long resourcePk, IotResourceStatus status, Instant deviceTimestamp) {
+        if (!enabled) {
+            return;
+        }
+        if (!queue.offer(new Sample(resourcePk, status, deviceTimestamp, Instant.now()))) {
+            droppedCounter.increment();
+        }
+    }
+
+    // Após o commit de quem aceitou as atualizações: rollback não deixa amostras de status não gravados
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusAccepted(DeviceStatusAcceptedEvent event) {
+        for (DeviceStatusAcceptedEvent.AcceptedStatus status : event.accepted()) {
+            if (status.recordTelemetry()) {
+                record(status.resourcePk(), status.status(), status.deviceTimestamp());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devices.telemetry.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Sample> batch = new ArrayList<>(Math.min(queue.size(), flushBatchSize));
+        while (queue.drainTo(batch, flushBatchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, sample) -> {
+                    ps.setLong(1, sample.resourcePk());
+                    ps.setString(2, sample.status().name());
+                    ps.setTimestamp(3, Timestamp.from(sample.deviceTimestamp()));
+                    ps.setTimestamp(4, Timestamp.from(sample.recordedAt()));
+                });
+                writtenCounter.increment(batch.size());
+            } catch (Exception e) {
+                droppedCounter.increment(batch.size());
+                logger.error("Erro ao gravar {} amostras de telemetria", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!queue.isEmpty()) {
+            logger.info("Gravando {} amostras de telemetria antes do desligamento", queue.size());
+            flush();
+        }
+    }
+
+    private record Sample(long resourcePk, IotResourceStatus status, Instant deviceTimestamp, Instant recordedAt) {
+    }
+}
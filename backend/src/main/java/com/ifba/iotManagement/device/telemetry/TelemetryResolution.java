@@ -0,0 +1,37 @@
+package com.ifba.iotManagement.device.telemetry;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum TelemetryResolution {
+    MINUTE("minute", ChronoUnit.MINUTES),
+    HOUR("hour", ChronoUnit.HOURS),
+    DAY("day", ChronoUnit.DAYS);
+
+    private final String dateTruncField;
+    private final ChronoUnit unit;
+
+    TelemetryResolution(String dateTruncField, ChronoUnit unit) {
+        this.dateTruncField = dateTruncField;
+        this.unit = unit;
+    }
+
+    /**
+     * Campo usado no {@code date_trunc} do banco (constante, interpolada no SQL).
+     */
+    public String dateTruncField() {
+        return dateTruncField;
+    }
+
+    public LocalDateTime truncate(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(truncate(from), to) + 1;
+    }
+}
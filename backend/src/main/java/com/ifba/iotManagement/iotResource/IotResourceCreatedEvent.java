@@ -0,0 +1,23 @@
+package com.ifba.iotManagement.iotResource;
+
+import java.util.UUID;
+
+public record IotResourceCreatedEvent(
+        Long id,
+        UUID publicId,
+        String resourceId,
+        IotResourceStatus status,
+        boolean lockedForAdmin,
+        long timeoutUsageInMinutes
+) {
+    public static IotResourceCreatedEvent of(IotResourceEntity resource) {
+        return new IotResourceCreatedEvent(
+                resource.getId(),
+                resource.getPublicId(),
+                resource.getResourceId(),
+                resource.getStatus(),
+                Boolean.TRUE.equals(resource.getLockedForAdmin()),
+                resource.getTimeoutUsageInMinutes()
+        );
+    }
+}
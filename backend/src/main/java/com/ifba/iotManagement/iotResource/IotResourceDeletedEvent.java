@@ -0,0 +1,13 @@
+package com.ifba.iotManagement.iotResource;
+
+import java.util.UUID;
+
+public record IotResourceDeletedEvent(
+        Long id,
+        UUID publicId,
+        String resourceId
+) {
+    public static IotResourceDeletedEvent of(IotResourceEntity resource) {
+        return new IotResourceDeletedEvent(resource.getId(), resource.getPublicId(), resource.getResourceId());
+    }
+}
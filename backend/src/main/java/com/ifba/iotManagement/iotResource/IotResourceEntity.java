@@ -2,14 +2,13 @@ package com.ifba.iotManagement.iotResource;
 
 import com.ifba.iotManagement.shared.AbstractEntity;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.time.Instant;
 
 @Entity
 @Table(name = "iot_resources")
 @Getter
-@AllArgsConstructor
 public class IotResourceEntity extends AbstractEntity {
     private String resourceId;
     private String name;
@@ -21,9 +20,31 @@ public class IotResourceEntity extends AbstractEntity {
     private Long timeoutUsageInMinutes;
     private Boolean lockedForAdmin;
 
+    // Gravado apenas pelo compare-and-set do IotResourceStatusBatchWriter
+    @Column(insertable = false, updatable = false)
+    private Instant lastDeviceTimestamp;
+
+    // Gravado apenas pelo DeviceCallbackRegistry
+    @Column(insertable = false, updatable = false)
+    private String callbackUrl;
+
     public IotResourceEntity() {
         super();
     }
+
+    public IotResourceEntity(String resourceId,
+                             String name,
+                             String type,
+                             IotResourceStatus status,
+                             Long timeoutUsageInMinutes,
+                             Boolean lockedForAdmin) {
+        this.resourceId = resourceId;
+        this.name = name;
+        this.type = type;
+        this.status = status;
+        this.timeoutUsageInMinutes = timeoutUsageInMinutes;
+        this.lockedForAdmin = lockedForAdmin;
+    }
     
     public void updateStatus(IotResourceStatus newStatus) {
         this.status = newStatus;
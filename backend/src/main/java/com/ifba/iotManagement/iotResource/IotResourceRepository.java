@@ -1,8 +1,11 @@
 package com.ifba.iotManagement.iotResource;
 
 import com.ifba.iotManagement.shared.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,8 +13,11 @@ import java.util.UUID;
 @Repository
 public interface IotResourceRepository extends BaseRepository<IotResourceEntity> {
     Optional<IotResourceEntity> findByResourceIdAndDeletedIsFalse (String resourceId);
+    List<IotResourceEntity> findAllByResourceIdInAndDeletedIsFalse(Collection<String> resourceIds);
     List<IotResourceEntity> findAllByDeletedIsFalseAndLockedForAdminIsFalse();
     Optional<IotResourceEntity> findByPublicIdAndDeletedIsFalse(UUID publicId);
+    @Query("SELECT r.id FROM IotResourceEntity r WHERE r.publicId = :publicId AND r.deleted = false")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
     List<IotResourceEntity> findAllByDeletedIsFalse();
     long countByDeletedIsFalse();
     long countByDeletedIsFalseAndLockedForAdminIsFalse();
@@ -3,15 +3,18 @@ package com.ifba.iotManagement.iotResource;
 import com.ifba.iotManagement.audit.AuditAction;
 import com.ifba.iotManagement.audit.AuditResult;
 import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.registry.DeviceRegistry;
 import com.ifba.iotManagement.iotResource.dto.CreateIotResourceRequest;
 import com.ifba.iotManagement.iotResource.dto.IotResourceDto;
 import com.ifba.iotManagement.iotResource.dto.UpdateResourceStatusRequest;
+import com.ifba.iotManagement.iotResource.engine.ResourceStateEngine;
 import com.ifba.iotManagement.shared.exceptions.ResourceAlreadyExistsException;
 import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,19 +23,35 @@ import java.util.UUID;
 public class IotResourceService {
     private final IotResourceRepository iotResourceRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceRegistry deviceRegistry;
+    private final ResourceStateEngine stateEngine;
+    private final TransactionTemplate transactionTemplate;
     
-    public IotResourceService(IotResourceRepository iotResourceRepository, AuditService auditService) {
+    public IotResourceService(IotResourceRepository iotResourceRepository,
+                              AuditService auditService,
+                              ApplicationEventPublisher eventPublisher,
+                              DeviceRegistry deviceRegistry,
+                              ResourceStateEngine stateEngine,
+                              TransactionTemplate transactionTemplate) {
         this.iotResourceRepository = iotResourceRepository;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.deviceRegistry = deviceRegistry;
+        this.stateEngine = stateEngine;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public void save(CreateIotResourceRequest request) {
         try {
-            iotResourceRepository.findByResourceIdAndDeletedIsFalse(request.resourceId()).ifPresent(iotResource -> {
+            // Registro em memória evita a consulta; o banco ainda é checado para recursos criados em outra instância
+            if (deviceRegistry.contains(request.resourceId())
+                    || iotResourceRepository.findByResourceIdAndDeletedIsFalse(request.resourceId()).isPresent()) {
                 throw new ResourceAlreadyExistsException("Iot com resourceId " + request.resourceId() + " já existe");
-            });
+            }
             
             IotResourceEntity saved = iotResourceRepository.save(CreateIotResourceRequest.toEntity(request));
+            eventPublisher.publishEvent(IotResourceCreatedEvent.of(saved));
             
             auditService.logSystemAction(
                     AuditAction.RESOURCE_CREATED,
@@ -83,8 +102,11 @@ public class IotResourceService {
         return IotResourceDto.fromEntity(resource);
     }
 
-    @Transactional
     public void updateStatus(UUID id, UpdateResourceStatusRequest request) {
+        onResource(id, () -> applyUpdateStatus(id, request));
+    }
+    
+    private void applyUpdateStatus(UUID id, UpdateResourceStatusRequest request) {
         try {
             IotResourceEntity resource = iotResourceRepository.findByPublicIdAndDeletedIsFalse(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Resource not found with id: " + id));
@@ -99,6 +121,9 @@ public class IotResourceService {
             
             resource.updateStatus(newStatus);
             iotResourceRepository.save(resource);
+            if (oldStatus != newStatus) {
+                eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, oldStatus));
+            }
             
             auditService.logSystemAction(
                     AuditAction.RESOURCE_STATUS_UPDATED,
@@ -119,14 +144,18 @@ public class IotResourceService {
         }
     }
 
-    @Transactional
     public void deleteResource(UUID id) {
+        onResource(id, () -> applyDeleteResource(id));
+    }
+    
+    private void applyDeleteResource(UUID id) {
         try {
             IotResourceEntity resource = iotResourceRepository.findByPublicIdAndDeletedIsFalse(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Resource not found with id: " + id));
             
             resource.markAsDeleted();
             iotResourceRepository.save(resource);
+            eventPublisher.publishEvent(IotResourceDeletedEvent.of(resource));
             
             auditService.logSystemAction(
                     AuditAction.RESOURCE_DELETED,
@@ -146,4 +175,15 @@ public class IotResourceService {
             throw e;
         }
     }
+    
+    /**
+     * Executa a alteração na vez do recurso no {@link ResourceStateEngine}, em transação própria.
+     * Sem recurso (id não encontrado) segue direto para o caminho de erro.
+     */
+    private void onResource(UUID id, Runnable work) {
+        Runnable transactional = () -> transactionTemplate.executeWithoutResult(status -> work.run());
+        iotResourceRepository.findIdByPublicId(id).ifPresentOrElse(
+                pk -> stateEngine.execute(pk, transactional),
+                transactional);
+    }
 }
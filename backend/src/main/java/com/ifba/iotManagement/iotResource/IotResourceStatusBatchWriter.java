@@ -0,0 +1,80 @@
+package com.ifba.iotManagement.iotResource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Atualiza o status de vários recursos em um único batch JDBC, sem carregar/sujar entidades gerenciadas.
+ */
+@Component
+public class IotResourceStatusBatchWriter {
+
+    // Compare-and-set pelo timestamp do dispositivo: atualizações mais antigas que a última aceita não afetam linhas
+    private static final String UPDATE_STATUS_IF_NEWER_SQL = """
+        UPDATE iot_resources
+           SET status = ?, updated_at = ?, last_device_timestamp = ?
+         WHERE id = ? AND deleted = false
+           AND (? OR last_device_timestamp IS NULL OR last_device_timestamp < ?)
+        """;
+
+    private static final String ADVANCE_DEVICE_TIMESTAMP_SQL = """
+        UPDATE iot_resources
+           SET last_device_timestamp = ?
+         WHERE id = ? AND deleted = false
+           AND (? OR last_device_timestamp IS NULL OR last_device_timestamp < ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IotResourceStatusBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return para cada escrita, se foi aplicada (false quando o banco já tinha um timestamp de dispositivo mais novo)
+     */
+    public boolean[] updateStatusesIfNewer(List<OrderedStatusWrite> writes) {
+        boolean[] applied = new boolean[writes.size()];
+        if (writes.isEmpty()) {
+            return applied;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_IF_NEWER_SQL, writes, writes.size(), (ps, write) -> {
+            Timestamp deviceTimestamp = Timestamp.from(write.deviceTimestamp());
+            ps.setString(1, write.status().name());
+            ps.setTimestamp(2, now);
+            ps.setTimestamp(3, deviceTimestamp);
+            ps.setLong(4, write.id());
+            ps.setBoolean(5, write.resetSequence());
+            ps.setTimestamp(6, deviceTimestamp);
+        });
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                applied[index++] = count > 0 || count == Statement.SUCCESS_NO_INFO;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Compare-and-set apenas do timestamp do dispositivo, para o caminho que atualiza a entidade via JPA.
+     *
+     * @return false se o banco já tinha um timestamp mais novo (atualização atrasada)
+     */
+    public boolean advanceDeviceTimestamp(Long id, Instant deviceTimestamp, boolean resetSequence) {
+        Timestamp timestamp = Timestamp.from(deviceTimestamp);
+        return jdbcTemplate.update(ADVANCE_DEVICE_TIMESTAMP_SQL, timestamp, id, resetSequence, timestamp) > 0;
+    }
+
+    /**
+     * @param resetSequence aceita o timestamp mesmo se for mais antigo (dispositivo reiniciado)
+     */
+    public record OrderedStatusWrite(Long id, IotResourceStatus status, Instant deviceTimestamp, boolean resetSequence) {
+    }
+}
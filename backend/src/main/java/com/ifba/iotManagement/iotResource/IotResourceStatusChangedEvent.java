@@ -0,0 +1,25 @@
+package com.ifba.iotManagement.iotResource;
+
+import java.util.UUID;
+
+/**
+ * Publicado sempre que o status persistido de um recurso muda, independente da origem
+ * (dispositivo, usuário, administrador ou rotina do sistema).
+ */
+public record IotResourceStatusChangedEvent(
+        Long id,
+        UUID publicId,
+        String resourceId,
+        IotResourceStatus previousStatus,
+        IotResourceStatus newStatus
+) {
+    public static IotResourceStatusChangedEvent of(IotResourceEntity resource, IotResourceStatus previousStatus) {
+        return new IotResourceStatusChangedEvent(
+                resource.getId(),
+                resource.getPublicId(),
+                resource.getResourceId(),
+                previousStatus,
+                resource.getStatus()
+        );
+    }
+}
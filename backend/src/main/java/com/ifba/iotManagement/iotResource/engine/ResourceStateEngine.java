@@ -0,0 +1,113 @@
+package com.ifba.iotManagement.iotResource.engine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serializa as transições de estado de cada recurso (status do dispositivo, lotes de status, auto-liberação,
+ * inatividade, reserva, liberação, expiração e alterações administrativas) sem locks no banco.
+ * <p>
+ * Cada recurso com transições em andamento tem uma {@link ResourceTurn}; as transições do recurso rodam uma
+ * por vez, na ordem de chegada, e a vez é descartada quando ninguém mais aguarda (recursos ociosos não ocupam
+ * memória). Recursos diferentes rodam em paralelo.
+ * <p>
+ * Cada transição roda na thread de quem chamou, quando chega a sua vez. Não há repasse para outra thread: com
+ * open-in-view a requisição já segura uma conexão, e um executor separado precisaria de uma segunda, esgotando
+ * o pool sob carga. A vez deve ser tomada antes de abrir a transação ({@code execute(pk, () ->
+ * transactionTemplate.execute(...))}), para o commit acontecer ainda dentro dela. Operações sobre vários
+ * recursos usam {@link #executeAll}, que toma as vezes em ordem crescente de id. Chamadas aninhadas para
+ * recursos cuja vez a thread já tem rodam direto. Uma transição não deve aguardar a vez de outro recurso
+ * (risco de ciclo).
+ */
+@Component
+public class ResourceStateEngine {
+
+    // Recursos cuja vez a thread atual já tem
+    private static final ThreadLocal<Set<Long>> HELD = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<Long, ResourceTurn> turns = new ConcurrentHashMap<>();
+
+    @Value("${resources.state-engine.enabled:true}")
+    private boolean enabled;
+
+    public ResourceStateEngine(MeterRegistry meterRegistry) {
+        Gauge.builder("resources.state-engine.turns", turns, ConcurrentHashMap::size)
+                .description("Resources with state transitions running or waiting for their turn")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(long resourcePk, Supplier<T> transition) {
+        return executeAll(Set.of(resourcePk), transition);
+    }
+
+    public void execute(long resourcePk, Runnable transition) {
+        execute(resourcePk, () -> {
+            transition.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa {@code transition} com a vez de todos os recursos informados, tomadas em ordem crescente de id
+     * para que lotes concorrentes não se bloqueiem mutuamente.
+     */
+    public <T> T executeAll(Collection<Long> resourcePks, Supplier<T> transition) {
+        Set<Long> held = HELD.get();
+        long[] pending = resourcePks.stream()
+                .mapToLong(Long::longValue)
+                .filter(pk -> held == null || !held.contains(pk))
+                .sorted()
+                .distinct()
+                .toArray();
+        if (!enabled || pending.length == 0) {
+            return transition.get();
+        }
+
+        Set<Long> mine = held != null ? held : new HashSet<>();
+        if (held == null) {
+            HELD.set(mine);
+        }
+        ResourceTurn[] acquired = new ResourceTurn[pending.length];
+        try {
+            for (int i = 0; i < pending.length; i++) {
+                acquired[i] = acquire(pending[i]);
+                mine.add(pending[i]);
+            }
+            return transition.get();
+        } finally {
+            for (int i = pending.length - 1; i >= 0; i--) {
+                if (acquired[i] != null) {
+                    mine.remove(pending[i]);
+                    release(pending[i], acquired[i]);
+                }
+            }
+            if (held == null) {
+                HELD.remove();
+            }
+        }
+    }
+
+    private ResourceTurn acquire(long resourcePk) {
+        // compute segura o bin do mapa: a vez não pode ser descartada entre a criação e a contagem
+        ResourceTurn turn = turns.compute(resourcePk, (pk, existing) -> {
+            ResourceTurn target = existing != null ? existing : new ResourceTurn();
+            target.holders++;
+            return target;
+        });
+        turn.lock.lock();
+        return turn;
+    }
+
+    private void release(long resourcePk, ResourceTurn turn) {
+        turn.lock.unlock();
+        turns.computeIfPresent(resourcePk, (pk, existing) -> --existing.holders == 0 ? null : existing);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ifba.iotManagement.iotResource.engine;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vez de execução de um recurso. O lock justo entrega a vez na ordem de chegada; {@code holders} conta quem
+ * está executando ou aguardando e só é alterado dentro do {@code compute} do mapa de vezes.
+ */
+final class ResourceTurn {
+
+    final ReentrantLock lock = new ReentrantLock(true);
+    int holders;
+}
@@ -45,6 +45,9 @@ public interface IotResourceReserveRepository extends BaseRepository<IotResource
 
     Optional<IotResourceReserveEntity> findByPublicIdAndDeletedIsFalse(UUID publicId);
 
+    @Query("SELECT r.iotResource.id FROM IotResourceReserveEntity r WHERE r.publicId = :publicId AND r.deleted = false")
+    Optional<Long> findResourceIdByPublicId(@Param("publicId") UUID publicId);
+
     List<IotResourceReserveEntity> findByUserIdAndActiveIsTrueAndDeletedIsFalse(Long userId);
 
     Page<IotResourceReserveEntity> findByUserIdAndDeletedIsFalseOrderByCreatedAtDesc(Long userId, Pageable pageable);
@@ -53,6 +56,16 @@ public interface IotResourceReserveRepository extends BaseRepository<IotResource
 
     List<IotResourceReserveEntity> findByIotResourceIdAndActiveIsTrueAndDeletedIsFalse(Long resourceId);
 
+    @Query("""
+        SELECT new com.ifba.iotManagement.iotResource.reserve.ReserveWindow(r.startTime, r.predictedEndTime)
+        FROM IotResourceReserveEntity r
+        WHERE r.iotResource.id = :resourceId
+            AND r.active = true
+            AND r.deleted = false
+            AND r.endTime IS NULL
+        """)
+    List<ReserveWindow> findActiveWindows(@Param("resourceId") Long resourceId);
+
     @Query("""
         SELECT r FROM IotResourceReserveEntity r
         WHERE r.active = true
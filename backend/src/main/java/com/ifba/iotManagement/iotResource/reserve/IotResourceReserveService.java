@@ -3,22 +3,29 @@ package com.ifba.iotManagement.iotResource.reserve;
 import com.ifba.iotManagement.audit.AuditAction;
 import com.ifba.iotManagement.audit.AuditResult;
 import com.ifba.iotManagement.audit.AuditService;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
 import com.ifba.iotManagement.iotResource.IotResourceEntity;
 import com.ifba.iotManagement.iotResource.IotResourceRepository;
 import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.IotResourceStatusChangedEvent;
+import com.ifba.iotManagement.iotResource.engine.ResourceStateEngine;
 import com.ifba.iotManagement.iotResource.reserve.dto.CreateReserveRequestDto;
 import com.ifba.iotManagement.iotResource.reserve.dto.ReserveDto;
 import com.ifba.iotManagement.shared.exceptions.ResourceNotFoundException;
 import com.ifba.iotManagement.user.UserEntity;
 import com.ifba.iotManagement.user.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class IotResourceReserveService {
@@ -27,21 +34,37 @@ public class IotResourceReserveService {
     private final IotResourceRepository resourceRepository;
     private final UserRepository userRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceCommandOutbox commandOutbox;
+    private final ResourceStateEngine stateEngine;
+    private final TransactionTemplate transactionTemplate;
     
     public IotResourceReserveService(
             IotResourceReserveRepository reserveRepository,
             IotResourceRepository resourceRepository,
             UserRepository userRepository,
-            AuditService auditService
+            AuditService auditService,
+            ApplicationEventPublisher eventPublisher,
+            DeviceCommandOutbox commandOutbox,
+            ResourceStateEngine stateEngine,
+            TransactionTemplate transactionTemplate
     ) {
         this.reserveRepository = reserveRepository;
         this.resourceRepository = resourceRepository;
         this.userRepository = userRepository;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
+        this.commandOutbox = commandOutbox;
+        this.stateEngine = stateEngine;
+        this.transactionTemplate = transactionTemplate;
     }
     
-    @Transactional
     public ReserveDto createReserve(CreateReserveRequestDto request, UUID userId) {
+        return onResource(resourceRepository.findIdByPublicId(request.resourceId()),
+                () -> applyCreateReserve(request, userId));
+    }
+    
+    private ReserveDto applyCreateReserve(CreateReserveRequestDto request, UUID userId) {
         try {
             // Buscar usuário
             UserEntity user = userRepository.findByPublicIdAndDeletedIsFalse(userId)
@@ -79,11 +102,14 @@ public class IotResourceReserveService {
             
             // Salvar reserva
             IotResourceReserveEntity savedReserve = reserveRepository.save(reserve);
+            eventPublisher.publishEvent(new ReserveScheduleChangedEvent(resource.getId()));
             
             // Atualizar status do recurso se a reserva começar agora
             if (request.startTime().isBefore(Instant.now()) || request.startTime().equals(Instant.now())) {
                 resource.updateStatus(IotResourceStatus.RESERVED);
                 resourceRepository.save(resource);
+                eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, IotResourceStatus.FREE));
+                commandOutbox.enqueue(resource, DeviceCommandDto.reserve(resource.getResourceId()));
             }
             
             // Log de auditoria
@@ -113,8 +139,14 @@ public class IotResourceReserveService {
         }
     }
     
-    @Transactional
     public void releaseReserve(UUID reserveId, UUID userId) {
+        onResource(reserveRepository.findResourceIdByPublicId(reserveId), () -> {
+            applyReleaseReserve(reserveId, userId);
+            return null;
+        });
+    }
+    
+    private void applyReleaseReserve(UUID reserveId, UUID userId) {
         IotResourceReserveEntity reserve = reserveRepository.findByPublicIdAndDeletedIsFalse(reserveId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserve not found"));
         
@@ -132,8 +164,7 @@ public class IotResourceReserveService {
         reserveRepository.save(reserve);
         
         // Liberar recurso
-        reserve.getIotResource().updateStatus(IotResourceStatus.FREE);
-        resourceRepository.save(reserve.getIotResource());
+        releaseResource(reserve.getIotResource());
     }
     
     public List<ReserveDto> getActiveReservesByUser(UUID userId) {
@@ -172,18 +203,45 @@ public class IotResourceReserveService {
                 .toList();
     }
     
-    @Transactional
     public void handleExpiredReserves() {
         List<IotResourceReserveEntity> expiredReserves = reserveRepository.findExpiredActiveReserves(Instant.now());
         
-        for (IotResourceReserveEntity reserve : expiredReserves) {
-            // Finalizar reserva
-            reserve.finishReserve();
-            reserveRepository.save(reserve);
-            
-            // Liberar recurso
-            reserve.getIotResource().updateStatus(IotResourceStatus.FREE);
-            resourceRepository.save(reserve.getIotResource());
+        for (IotResourceReserveEntity expired : expiredReserves) {
+            // O id do recurso vem do proxy, sem inicializá-lo fora da transação
+            onResource(Optional.of(expired.getIotResource().getId()), () -> {
+                // Relido na vez do recurso: pode ter sido liberada enquanto aguardava
+                reserveRepository.findById(expired.getId())
+                        .filter(reserve -> reserve.getActive() && reserve.getEndTime() == null)
+                        .ifPresent(reserve -> {
+                            // Finalizar reserva
+                            reserve.finishReserve();
+                            reserveRepository.save(reserve);
+                            
+                            // Liberar recurso
+                            releaseResource(reserve.getIotResource());
+                        });
+                return null;
+            });
+        }
+    }
+    
+    /**
+     * Executa a operação na vez do recurso no {@link ResourceStateEngine}, em transação própria.
+     * Sem recurso (id não encontrado) segue direto para o caminho de erro.
+     */
+    private <T> T onResource(Optional<Long> resourcePk, Supplier<T> work) {
+        Supplier<T> transactional = () -> transactionTemplate.execute(status -> work.get());
+        return resourcePk.map(pk -> stateEngine.execute(pk, transactional)).orElseGet(transactional);
+    }
+    
+    private void releaseResource(IotResourceEntity resource) {
+        IotResourceStatus previousStatus = resource.getStatus();
+        resource.updateStatus(IotResourceStatus.FREE);
+        resourceRepository.save(resource);
+        eventPublisher.publishEvent(new ReserveScheduleChangedEvent(resource.getId()));
+        if (previousStatus != IotResourceStatus.FREE) {
+            eventPublisher.publishEvent(IotResourceStatusChangedEvent.of(resource, previousStatus));
+            commandOutbox.enqueue(resource, DeviceCommandDto.release(resource.getResourceId()));
         }
     }
 }
\ No newline at end of file
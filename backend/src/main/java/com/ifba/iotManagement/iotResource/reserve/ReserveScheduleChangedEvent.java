@@ -0,0 +1,10 @@
+package com.ifba.iotManagement.iotResource.reserve;
+
+/**
+ * Publicado quando uma reserva do recurso é criada ou finalizada, mesmo que o status do recurso não mude
+ * (ex.: reserva futura). Usado para invalidar a agenda em memória dos dispositivos.
+ *
+ * @param resourcePk id interno do recurso
+ */
+public record ReserveScheduleChangedEvent(Long resourcePk) {
+}
@@ -0,0 +1,9 @@
+package com.ifba.iotManagement.iotResource.reserve;
+
+import java.time.Instant;
+
+/**
+ * Início e fim previsto de uma reserva ativa, sem carregar a entidade.
+ */
+public record ReserveWindow(Instant startTime, Instant predictedEndTime) {
+}
@@ -0,0 +1,17 @@
+package com.ifba.iotManagement.shared.exceptions;
+
+import java.util.Map;
+
+public final class InvalidDevicePayloadException extends BusinessException {
+
+    private final Map<String, String> fieldErrors;
+
+    public InvalidDevicePayloadException(String message, Map<String, String> fieldErrors) {
+        super(message);
+        this.fieldErrors = fieldErrors;
+    }
+
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ifba.iotManagement.shared.exceptions;
+
+public final class InvalidQueryException extends BusinessException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
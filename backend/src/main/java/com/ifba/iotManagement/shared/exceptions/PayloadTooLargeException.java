@@ -0,0 +1,7 @@
+package com.ifba.iotManagement.shared.exceptions;
+
+public final class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
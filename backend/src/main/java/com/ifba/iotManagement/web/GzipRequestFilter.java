@@ -0,0 +1,152 @@
+package com.ifba.iotManagement.web;
+
+import com.ifba.iotManagement.shared.exceptions.PayloadTooLargeException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Descompacta corpos de requisição enviados com {@code Content-Encoding: gzip}
+ * (ex.: gateways enviando lotes de status), limitando o tamanho descompactado.
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    @Value("${web.gzip.max-inflated-bytes:10485760}")
+    private long maxInflatedBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null || !encoding.trim().equalsIgnoreCase("gzip");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new GzipRequestWrapper(request, maxInflatedBytes), response);
+    }
+
+    private static final class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+
+        GzipRequestWrapper(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new GzipServletInputStream(
+                        new GZIPInputStream(super.getInputStream()), maxInflatedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+    }
+
+    private static final class GzipServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private final long maxInflatedBytes;
+        private long inflatedBytes;
+        private boolean finished;
+
+        GzipServletInputStream(InputStream delegate, long maxInflatedBytes) {
+            this.delegate = delegate;
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b == -1) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read == -1) {
+                finished = true;
+            } else {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            inflatedBytes += read;
+            if (inflatedBytes > maxInflatedBytes) {
+                throw new PayloadTooLargeException(
+                        "Decompressed request body exceeds " + maxInflatedBytes + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Async IO is not supported for gzip request bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
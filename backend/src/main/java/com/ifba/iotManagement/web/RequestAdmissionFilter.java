@@ -0,0 +1,81 @@
+package com.ifba.iotManagement.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as requisições em processamento ao mesmo tempo ({@code web.admission.max-active-requests}; zero desliga).
+ * <p>
+ * Com o pool de threads do Tomcat o próprio pool faz esse papel: o excedente espera no socket sem ocupar memória.
+ * Com virtual threads (perfil {@code virtual-threads}) toda conexão vira uma requisição em andamento, cada uma
+ * com sua sessão JPA esperando o pool de conexões; o limite segura o excedente aqui, antes de qualquer alocação,
+ * e responde 503 com {@code Retry-After} se a espera passar de {@code queue-timeout-ms}. Long-polls liberam a
+ * vaga ao estacionar, então não contam enquanto esperam.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+    private final Counter rejectedCounter;
+
+    public RequestAdmissionFilter(MeterRegistry meterRegistry,
+                                  @Value("${web.admission.max-active-requests:0}") int maxActiveRequests,
+                                  @Value("${web.admission.queue-timeout-ms:5000}") long queueTimeoutMillis) {
+        this.permits = maxActiveRequests > 0 ? new Semaphore(maxActiveRequests, true) : null;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.rejectedCounter = Counter.builder("web.admission.rejected")
+                .description("Requests answered with 503 after waiting for an admission permit")
+                .register(meterRegistry);
+        if (permits != null) {
+            Gauge.builder("web.admission.active", permits, semaphore -> maxActiveRequests - semaphore.availablePermits())
+                    .description("Requests currently admitted")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return permits == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejectedCounter.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ifba.iotManagement.web;
 
 import com.ifba.iotManagement.shared.exceptions.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -28,6 +29,20 @@ public final class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(PayloadTooLargeException.class)
+    private ResponseEntity<RestErrorMessage> handlePayloadTooLargeException(PayloadTooLargeException e) {
+        var response = new RestErrorMessage(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    private ResponseEntity<RestErrorMessage> handleTooManyRequestsException(TooManyRequestsException e) {
+        var response = new RestErrorMessage(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     private ResponseEntity<RestErrorMessage> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, String> fieldErrors = new HashMap<>();
@@ -43,6 +58,18 @@ public final class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(InvalidDevicePayloadException.class)
+    private ResponseEntity<RestErrorMessage> handleInvalidDevicePayloadException(InvalidDevicePayloadException e) {
+        var response = new RestErrorMessage(HttpStatus.BAD_REQUEST, e.getMessage(), e.getFieldErrors());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    private ResponseEntity<RestErrorMessage> handleInvalidQueryException(InvalidQueryException e) {
+        var response = new RestErrorMessage(HttpStatus.BAD_REQUEST, e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(UnauthorizedException.class)
     private ResponseEntity<RestErrorMessage> handleUnauthorizedException(UnauthorizedException e) {
         var response = new RestErrorMessage(HttpStatus.UNAUTHORIZED, e.getMessage());
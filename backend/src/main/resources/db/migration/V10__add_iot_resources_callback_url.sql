@@ -0,0 +1,2 @@
+-- URL registrada pelo dispositivo para receber comandos por push (DevicePushDispatcher)
+ALTER TABLE iot_resources ADD COLUMN IF NOT EXISTS callback_url VARCHAR(2048);
@@ -0,0 +1,4 @@
+-- Consultas de dispositivos buscam sempre por resource_id entre os recursos não deletados
+CREATE INDEX IF NOT EXISTS idx_iot_resources_resource_id
+    ON iot_resources(resource_id)
+    WHERE deleted = false;
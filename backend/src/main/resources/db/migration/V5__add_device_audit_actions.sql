@@ -0,0 +1,3 @@
+-- DEVICE_AUTO_RELEASE já era usado pela aplicação mas não existia no tipo
+ALTER TYPE audit_action_enum ADD VALUE IF NOT EXISTS 'DEVICE_AUTO_RELEASE';
+ALTER TYPE audit_action_enum ADD VALUE IF NOT EXISTS 'DEVICE_LIVENESS_TIMEOUT';
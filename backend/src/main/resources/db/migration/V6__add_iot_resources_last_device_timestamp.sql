@@ -0,0 +1,3 @@
+-- Último timestamp reportado pelo dispositivo que alterou o estado do recurso; usado para descartar
+-- atualizações atrasadas/fora de ordem com UPDATE condicional
+ALTER TABLE iot_resources ADD COLUMN IF NOT EXISTS last_device_timestamp TIMESTAMP;
@@ -0,0 +1,30 @@
+-- Série temporal append-only dos status reportados pelos dispositivos, particionada por mês do timestamp do dispositivo.
+-- Sem chave primária nem FK para manter os inserts em lote baratos; a retenção é feita descartando partições inteiras.
+CREATE TABLE IF NOT EXISTS device_telemetry (
+    resource_id INT NOT NULL,
+    status iot_resources_enum NOT NULL,
+    device_timestamp TIMESTAMP NOT NULL,
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (device_timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_device_telemetry_resource_timestamp
+    ON device_telemetry (resource_id, device_timestamp);
+
+-- Recebe timestamps fora das partições mensais (ex.: relógio do dispositivo muito atrasado)
+CREATE TABLE IF NOT EXISTS device_telemetry_default PARTITION OF device_telemetry DEFAULT;
+
+-- Partições do mês corrente e do seguinte; as próximas são criadas pelo DeviceTelemetryPartitionMaintainer
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..1 LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::DATE;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF device_telemetry FOR VALUES FROM (%L) TO (%L)',
+            'device_telemetry_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE
+        );
+    END LOOP;
+END $$;
@@ -0,0 +1,22 @@
+-- Outbox de comandos para os dispositivos. O id (BIGSERIAL) é o número de sequência entregue ao dispositivo,
+-- que confirma o recebimento até uma sequência; linhas entregues são compactadas periodicamente.
+CREATE TABLE IF NOT EXISTS device_commands (
+    id BIGSERIAL PRIMARY KEY,
+    public_id UUID UNIQUE NOT NULL DEFAULT uuid_generate_v4(),
+    resource_id INT NOT NULL,
+    command VARCHAR(20) NOT NULL,
+    details VARCHAR(255),
+    delivered_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    deleted BOOLEAN DEFAULT FALSE,
+    CONSTRAINT fk_device_commands_iot_resources FOREIGN KEY(resource_id) REFERENCES iot_resources(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_device_commands_pending
+    ON device_commands (resource_id, id)
+    WHERE delivered_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_device_commands_delivered_at
+    ON device_commands (delivered_at)
+    WHERE delivered_at IS NOT NULL;
@@ -0,0 +1 @@
+ALTER TYPE audit_action_enum ADD VALUE IF NOT EXISTS 'DEVICE_STATUS_FLAPPING';
@@ -0,0 +1,51 @@
+package com.ifba.iotManagement.device;
+
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DeviceServiceTest {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private IotResourceRepository resourceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void retryWithSameTimestampIsAcceptedAfterRollback() {
+        resourceRepository.save(new IotResourceEntity("ordering_1", "ordering_1", "ROOM", IotResourceStatus.FREE, 60L, false));
+        DeviceStatusUpdateDto update = new DeviceStatusUpdateDto(
+                "ordering_1", "ocupado", Instant.parse("2026-01-01T00:00:01Z"), false, null, null);
+
+        // Rollback depois do compare-and-set do timestamp no banco
+        transactionTemplate.executeWithoutResult(status -> {
+            deviceService.updateResourceStatus(update);
+            status.setRollbackOnly();
+        });
+        assertThat(storedStatus("ordering_1")).isEqualTo(IotResourceStatus.FREE);
+
+        // Reenvio do dispositivo com o mesmo timestamp
+        deviceService.updateResourceStatus(update);
+        assertThat(storedStatus("ordering_1")).isEqualTo(IotResourceStatus.RESERVED);
+    }
+
+    private IotResourceStatus storedStatus(String resourceId) {
+        return resourceRepository.findByResourceIdAndDeletedIsFalse(resourceId).orElseThrow().getStatus();
+    }
+}
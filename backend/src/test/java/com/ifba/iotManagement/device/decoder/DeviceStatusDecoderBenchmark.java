@@ -0,0 +1,105 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ifba.iotManagement.device.DeviceAuditDetails;
+import com.ifba.iotManagement.device.DeviceStatusMapper;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o custo por requisição de {@code POST /devices/status} antes (databinding + bean validation +
+ * {@code toUpperCase} + {@code String.format}) e depois do {@link DeviceStatusUpdateDecoder}.
+ * <p>
+ * Execução (após {@code mvn test-compile}):
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.ifba.iotManagement.device.decoder.DeviceStatusDecoderBenchmark
+ * </pre>
+ * A coluna {@code gc.alloc.rate.norm} do {@link GCProfiler} mostra os bytes alocados por requisição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceStatusDecoderBenchmark {
+
+    private static final byte[] PAYLOAD = """
+            {"resourceId":"sala_101","status":"ocupado","timestamp":"2026-03-01T12:30:15.123Z",\
+            "firstConnection":false,"reservedAt":"2026-03-01T12:00:00Z","predictedEndTime":null}\
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private DeviceStatusUpdateDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        decoder = new DeviceStatusUpdateDecoder(objectMapper.getFactory());
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void databind(Blackhole blackhole) throws IOException {
+        DeviceStatusUpdateDto update = objectMapper.readValue(new ByteArrayInputStream(PAYLOAD), DeviceStatusUpdateDto.class);
+        blackhole.consume(validator.validate(update));
+        IotResourceStatus status = switch (update.status().toUpperCase()) {
+            case "LIVRE", "FREE", "AVAILABLE" -> IotResourceStatus.FREE;
+            case "OCUPADO", "OCCUPIED", "RESERVED", "BUSY" -> IotResourceStatus.RESERVED;
+            case "INDISPONIVEL", "UNAVAILABLE", "INACTIVE", "OFFLINE" -> IotResourceStatus.INACTIVE;
+            default -> throw new IllegalArgumentException("Unknown device status: " + update.status());
+        };
+        blackhole.consume(String.format("Device updated status from %s to %s at %s%s",
+                IotResourceStatus.FREE, status, update.timestamp(), ""));
+    }
+
+    @Benchmark
+    public void streamingDecoder(Blackhole blackhole) throws IOException {
+        DeviceStatusUpdateDto update = decoder.decode(new ByteArrayInputStream(PAYLOAD));
+        IotResourceStatus status = DeviceStatusMapper.toResourceStatus(update.status());
+        blackhole.consume(DeviceAuditDetails.statusChanged(IotResourceStatus.FREE, status, update.timestamp(), false));
+    }
+
+    /**
+     * Caminho de heartbeat sem mudança de status: nenhum texto de auditoria é montado.
+     */
+    @Benchmark
+    public IotResourceStatus streamingDecoderHeartbeat() throws IOException {
+        DeviceStatusUpdateDto update = decoder.decode(new ByteArrayInputStream(PAYLOAD));
+        return DeviceStatusMapper.toResourceStatus(update.status());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DeviceStatusDecoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
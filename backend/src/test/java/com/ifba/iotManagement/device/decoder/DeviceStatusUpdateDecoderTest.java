@@ -0,0 +1,177 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import com.ifba.iotManagement.shared.exceptions.InvalidDevicePayloadException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class DeviceStatusUpdateDecoderTest {
+
+    private static ValidatorFactory validatorFactory;
+
+    private final DeviceStatusUpdateDecoder decoder = new DeviceStatusUpdateDecoder(new JsonFactory());
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-03-04T05:06:07.1Z",
+            "2025-03-04T05:06:07.12Z",
+            "2025-03-04T05:06:07.123Z",
+            "2025-03-04T05:06:07.1234Z",
+            "2025-03-04T05:06:07.12345Z",
+            "2025-03-04T05:06:07.123456Z",
+            "2025-03-04T05:06:07.1234567Z",
+            "2025-03-04T05:06:07.12345678Z",
+            "2025-03-04T05:06:07.123456789Z",
+            "2025-03-04T05:06:07Z"
+    })
+    void readsFractionalSecondsUpToNanos(String timestamp) throws IOException {
+        assertThat(decodeTimestamp("\"" + timestamp + "\"")).isEqualTo(Instant.parse(timestamp));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-03-04T05:06:07.1234567891Z",
+            "2025-03-04T05:06:07.123456789123Z",
+            "2025-03-04T05:06:07.12a4Z"
+    })
+    void rejectsFractionsTheFallbackCannotRead(String timestamp) {
+        assertInvalidTimestamp("\"" + timestamp + "\"");
+    }
+
+    @Test
+    void readsBareDecimalPointLikeIsoInstant() throws IOException {
+        // Fora do caminho rápido; o DateTimeFormatter aceita o ponto sem dígitos, como Instant.parse
+        assertThat(decodeTimestamp("\"2025-03-04T05:06:07.Z\""))
+                .isEqualTo(Instant.parse("2025-03-04T05:06:07.Z"))
+                .isEqualTo(Instant.parse("2025-03-04T05:06:07Z"));
+    }
+
+    @Test
+    void acceptsLowerCaseSeparators() throws IOException {
+        assertThat(decodeTimestamp("\"2025-03-04t05:06:07.5z\""))
+                .isEqualTo(Instant.parse("2025-03-04T05:06:07.5Z"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-03-04T05:06:07+00:00",
+            "2025-03-04T05:06:07.250+00:00",
+            "2025-03-04T02:06:07-03:00"
+    })
+    void fallsBackToIsoParserForOffsets(String timestamp) throws IOException {
+        assertThat(decodeTimestamp("\"" + timestamp + "\""))
+                .isEqualTo(OffsetDateTime.parse(timestamp).toInstant());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-02-30T00:00:00Z",
+            "2025-13-01T00:00:00Z",
+            "2025-00-10T00:00:00Z",
+            "2025-03-04T24:00:01Z",
+            "2025-03-04T05:60:00Z",
+            "2025/03/04 05:06:07Z",
+            "yesterday"
+    })
+    void rejectsInvalidDatesAsBadRequest(String timestamp) {
+        assertInvalidTimestamp("\"" + timestamp + "\"");
+    }
+
+    @Test
+    void readsEpochSeconds() throws IOException {
+        assertThat(decodeTimestamp("1741064767")).isEqualTo(Instant.ofEpochSecond(1741064767));
+        assertThat(decodeTimestamp("1741064767.25")).isEqualTo(Instant.ofEpochSecond(1741064767, 250_000_000));
+    }
+
+    @Test
+    void rejectsEpochSecondsOutOfRange() {
+        assertInvalidTimestamp(String.valueOf(Long.MAX_VALUE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LIVRE", "livre", "Livre", "FREE", "free", "Free"})
+    void mapsFreeTokensInAnyCase(String status) throws IOException {
+        assertThat(decode(payload("\"" + status + "\"", "\"2025-03-04T05:06:07Z\"")).status()).isEqualTo("FREE");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"OCUPADO", "ocupado", "Ocupado", "RESERVED", "reserved", "Reserved"})
+    void mapsReservedTokensInAnyCase(String status) throws IOException {
+        assertThat(decode(payload("\"" + status + "\"", "\"2025-03-04T05:06:07Z\"")).status()).isEqualTo("RESERVED");
+    }
+
+    @Test
+    void keepsUnknownStatusForTheServiceToReport() throws IOException {
+        assertThat(decode(payload("\"quebrado\"", "\"2025-03-04T05:06:07Z\"")).status()).isEqualTo("quebrado");
+    }
+
+    @Test
+    void reportsMissingFieldsWithTheDtoMessages() {
+        assertThat(fieldErrors("{}")).isEqualTo(annotationMessages(new DeviceStatusUpdateDto(null, null, null, null, null, null)));
+    }
+
+    @Test
+    void reportsBlankFieldsWithTheDtoMessages() {
+        String json = "{\"resourceId\":\"  \",\"status\":\"\",\"timestamp\":\"\"}";
+        assertThat(fieldErrors(json)).isEqualTo(annotationMessages(new DeviceStatusUpdateDto(" ", "", null, null, null, null)));
+    }
+
+    private Instant decodeTimestamp(String timestampJson) throws IOException {
+        return decode(payload("\"livre\"", timestampJson)).timestamp();
+    }
+
+    private void assertInvalidTimestamp(String timestampJson) {
+        assertThatThrownBy(() -> decode(payload("\"livre\"", timestampJson)))
+                .isInstanceOfSatisfying(InvalidDevicePayloadException.class, e ->
+                        assertThat(e.getFieldErrors()).containsEntry("timestamp", "Invalid timestamp"));
+    }
+
+    private Map<String, String> fieldErrors(String json) {
+        InvalidDevicePayloadException e = catchThrowableOfType(InvalidDevicePayloadException.class, () -> decode(json));
+        assertThat(e).isNotNull();
+        return e.getFieldErrors();
+    }
+
+    private static Map<String, String> annotationMessages(DeviceStatusUpdateDto update) {
+        Validator validator = validatorFactory.getValidator();
+        return validator.validate(update).stream()
+                .collect(Collectors.toMap(v -> v.getPropertyPath().toString(), v -> v.getMessage()));
+    }
+
+    private DeviceStatusUpdateDto decode(String json) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String payload(String statusJson, String timestampJson) {
+        return "{\"resourceId\":\"lab_1\",\"status\":" + statusJson + ",\"timestamp\":" + timestampJson + "}";
+    }
+}
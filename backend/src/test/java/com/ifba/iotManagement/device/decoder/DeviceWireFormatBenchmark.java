@@ -0,0 +1,124 @@
+package com.ifba.iotManagement.device.decoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
+import com.ifba.iotManagement.device.dto.DeviceStatusUpdateDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara JSON, CBOR e Smile nos payloads de dispositivo: tamanho em bytes e custo de CPU no servidor para
+ * ler um {@link DeviceStatusUpdateDto} ({@code POST /devices/status}, pelo {@link DeviceStatusUpdateDecoder})
+ * e escrever um {@link DeviceResourceStatusDto} ({@code GET /devices/{resourceId}/status}).
+ * Os mappers binários são derivados do mapper JSON como no {@link DeviceDecoderConfig}.
+ * <p>
+ * Execução (após {@code mvn test-compile}):
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.ifba.iotManagement.device.decoder.DeviceWireFormatBenchmark
+ * </pre>
+ * Os tamanhos são impressos antes das medições; a coluna {@code gc.alloc.rate.norm} do {@link GCProfiler}
+ * mostra os bytes alocados por requisição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceWireFormatBenchmark {
+
+    private static final DeviceStatusUpdateDto UPDATE = new DeviceStatusUpdateDto(
+            "sala_101", "ocupado", Instant.parse("2026-03-01T12:30:15.123Z"), false,
+            Instant.parse("2026-03-01T12:00:00Z"), null);
+
+    private static final DeviceResourceStatusDto STATUS = new DeviceResourceStatusDto(
+            "sala_101", "RESERVED",
+            new DeviceResourceStatusDto.ReserveDetailsDto(
+                    "6f1c2a9e-3b4d-4c5e-8f70-1a2b3c4d5e6f",
+                    Instant.parse("2026-03-01T12:00:00Z"),
+                    Instant.parse("2026-03-01T13:00:00Z")),
+            120L);
+
+    public enum Format {
+        JSON, CBOR, SMILE;
+
+        ObjectMapper mapper(ObjectMapper json) {
+            return switch (this) {
+                case JSON -> json;
+                case CBOR -> json.copyWith(new CBORFactory());
+                case SMILE -> json.copyWith(new SmileFactory());
+            };
+        }
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public Format format;
+
+    private DeviceStatusUpdateDecoder decoder;
+    private ObjectWriter statusWriter;
+    private byte[] updatePayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = format.mapper(jsonMapper());
+        decoder = new DeviceStatusUpdateDecoder(mapper.getFactory());
+        statusWriter = mapper.writerFor(DeviceResourceStatusDto.class);
+        updatePayload = mapper.writeValueAsBytes(UPDATE);
+    }
+
+    @Benchmark
+    public DeviceStatusUpdateDto decodeStatusUpdate() throws IOException {
+        return decoder.decode(new ByteArrayInputStream(updatePayload));
+    }
+
+    @Benchmark
+    public byte[] encodeResourceStatus() throws IOException {
+        return statusWriter.writeValueAsBytes(STATUS);
+    }
+
+    // Mesma configuração do ObjectMapper do Spring Boot (datas em ISO-8601)
+    private static ObjectMapper jsonMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    private static void printSizes() {
+        ObjectMapper json = jsonMapper();
+        System.out.printf("%-6s %20s %24s%n", "format", "DeviceStatusUpdateDto", "DeviceResourceStatusDto");
+        for (Format format : Format.values()) {
+            ObjectMapper mapper = format.mapper(json);
+            try {
+                JsonFactory factory = mapper.getFactory();
+                System.out.printf("%-6s %18d B %22d B%n", factory.getFormatName(),
+                        mapper.writeValueAsBytes(UPDATE).length, mapper.writeValueAsBytes(STATUS).length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printSizes();
+        Options options = new OptionsBuilder()
+                .include(DeviceWireFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
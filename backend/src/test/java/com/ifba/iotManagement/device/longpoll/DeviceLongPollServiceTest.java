@@ -0,0 +1,68 @@
+package com.ifba.iotManagement.device.longpoll;
+
+import com.ifba.iotManagement.device.dto.DeviceResourceStatusDto;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.iotResource.reserve.IotResourceReserveService;
+import com.ifba.iotManagement.iotResource.reserve.dto.CreateReserveRequestDto;
+import com.ifba.iotManagement.user.UserEntity;
+import com.ifba.iotManagement.user.UserRepository;
+import com.ifba.iotManagement.user.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DeviceLongPollServiceTest {
+
+    @Autowired
+    private DeviceLongPollService longPollService;
+
+    @Autowired
+    private IotResourceReserveService reserveService;
+
+    @Autowired
+    private IotResourceRepository resourceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void statusWaiterReceivesReserveDetailsWhenResourceIsReserved() throws Exception {
+        IotResourceEntity resource = resourceRepository.save(
+                new IotResourceEntity("longpoll_1", "longpoll_1", "ROOM", IotResourceStatus.FREE, 60L, false));
+        UserEntity user = userRepository.save(new UserEntity("longpoll_user", "hash", UserRole.USER));
+
+        // Fora de uma requisição não há sessão aberta (open-in-view), como na thread do executor
+        DeferredResult<ResponseEntity<DeviceResourceStatusDto>> result =
+                longPollService.awaitStatusChange("longpoll_1", "livre", 10);
+        assertThat(result.hasResult()).isFalse();
+        CompletableFuture<Object> delivered = new CompletableFuture<>();
+        result.setResultHandler(delivered::complete);
+
+        Instant now = Instant.now();
+        reserveService.createReserve(
+                new CreateReserveRequestDto(resource.getPublicId(), now.minusSeconds(1), now.plusSeconds(3600)),
+                user.getPublicId());
+
+        ResponseEntity<DeviceResourceStatusDto> response =
+                (ResponseEntity<DeviceResourceStatusDto>) delivered.get(5, TimeUnit.SECONDS);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().status()).isEqualTo("RESERVED");
+        assertThat(response.getBody().reserveDetails()).isNotNull();
+        assertThat(response.getBody().reserveDetails().userId()).isEqualTo("longpoll_user");
+    }
+}
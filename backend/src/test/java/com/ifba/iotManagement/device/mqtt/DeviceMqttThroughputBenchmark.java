@@ -0,0 +1,247 @@
+package com.ifba.iotManagement.device.mqtt;
+
+import com.ifba.iotManagement.IotManagementApplication;
+import com.ifba.iotManagement.device.registry.DeviceRegistry;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compara a vazão de atualizações de status por HTTP ({@code POST /devices/status}, uma requisição por mensagem)
+ * e pelo broker MQTT embutido (QoS 1, workers em lote). Sobe a aplicação com o perfil de teste (H2),
+ * envia a mesma sequência de mudanças de status pelos dois caminhos e mede o tempo até o último status de
+ * cada dispositivo estar aplicado.
+ * <p>
+ * Execução (após {@code mvn test-compile}):
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.ifba.iotManagement.device.mqtt.DeviceMqttThroughputBenchmark [dispositivos] [mensagens-por-dispositivo]
+ * </pre>
+ * Os números absolutos dependem do H2 em memória; o que interessa é a razão entre os dois caminhos.
+ */
+public class DeviceMqttThroughputBenchmark {
+
+    private static final int HTTP_CONCURRENCY = 64;
+    private static final int MQTT_CONNECTIONS = 50;
+    private static final int MQTT_MAX_INFLIGHT = 64;
+
+    private final int devices;
+    private final int messagesPerDevice;
+    private final ConfigurableApplicationContext context;
+    private final DeviceRegistry registry;
+    private final int httpPort;
+    private final int mqttPort;
+
+    // Cada rodada usa timestamps posteriores aos da anterior para não cair na regra de atualizações antigas
+    private Instant clock = Instant.parse("2026-01-01T00:00:00Z");
+
+    private DeviceMqttThroughputBenchmark(int devices, int messagesPerDevice) {
+        this.devices = devices;
+        this.messagesPerDevice = messagesPerDevice;
+        this.context = new SpringApplicationBuilder(IotManagementApplication.class)
+                .profiles("test")
+                // Argumentos de linha de comando: têm precedência sobre o application.yml
+                .run(
+                        "--server.port=0",
+                        "--devices.mqtt.enabled=true",
+                        "--devices.mqtt.port=0",
+                        "--devices.rate-limit.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.ifba.iotManagement=WARN",
+                        "--logging.level.io.moquette=WARN"
+                );
+        this.registry = context.getBean(DeviceRegistry.class);
+        this.httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        this.mqttPort = context.getBean(DeviceMqttBroker.class).port();
+
+        context.getBean(IotResourceRepository.class).saveAll(IntStream.range(0, devices)
+                .mapToObj(i -> new IotResourceEntity(resourceId(i), "Bench " + i, "ROOM", IotResourceStatus.FREE, 60L, false))
+                .toList());
+    }
+
+    public static void main(String[] args) throws Exception {
+        // O restart do devtools relançaria o main com os argumentos do Spring
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int devices = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int messagesPerDevice = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        DeviceMqttThroughputBenchmark benchmark = new DeviceMqttThroughputBenchmark(devices, messagesPerDevice);
+        try {
+            // Aquecimento: carrega o registro e aquece JIT nos dois caminhos
+            benchmark.runHttp();
+            benchmark.runMqtt();
+            for (int round = 1; round <= 3; round++) {
+                benchmark.report("HTTP", round, benchmark.runHttp());
+                benchmark.report("MQTT", round, benchmark.runMqtt());
+            }
+        } finally {
+            benchmark.context.close();
+        }
+    }
+
+    private long runHttp() throws Exception {
+        Instant base = nextRound();
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        URI uri = URI.create("http://localhost:" + httpPort + "/api/v1/devices/status");
+        Semaphore inFlight = new Semaphore(HTTP_CONCURRENCY);
+
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int d = 0; d < devices; d++) {
+                int device = d;
+                senders.execute(() -> {
+                    // Mensagens de um mesmo dispositivo são enviadas em ordem, como faria o firmware
+                    for (int m = 0; m < messagesPerDevice; m++) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(statusJson(resourceId(device), m, base)))
+                                .build();
+                        try {
+                            inFlight.acquire();
+                            try {
+                                client.send(request, HttpResponse.BodyHandlers.discarding());
+                            } finally {
+                                inFlight.release();
+                            }
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+        }
+        awaitApplied();
+        return System.nanoTime() - start;
+    }
+
+    private long runMqtt() throws Exception {
+        Instant base = nextRound();
+        List<MqttAsyncClient> clients = new ArrayList<>(MQTT_CONNECTIONS);
+        List<Semaphore> windows = new ArrayList<>(MQTT_CONNECTIONS);
+        for (int c = 0; c < MQTT_CONNECTIONS; c++) {
+            MqttAsyncClient client = new MqttAsyncClient("tcp://localhost:" + mqttPort, "bench-" + c, new MemoryPersistence());
+            Semaphore window = new Semaphore(MQTT_MAX_INFLIGHT);
+            client.setCallback(new ReleaseOnDelivery(window));
+            MqttConnectOptions options = new MqttConnectOptions();
+            options.setMaxInflight(MQTT_MAX_INFLIGHT);
+            options.setCleanSession(true);
+            client.connect(options).waitForCompletion();
+            clients.add(client);
+            windows.add(window);
+        }
+
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < MQTT_CONNECTIONS; c++) {
+                int connection = c;
+                senders.execute(() -> {
+                    MqttAsyncClient client = clients.get(connection);
+                    Semaphore window = windows.get(connection);
+                    try {
+                        for (int m = 0; m < messagesPerDevice; m++) {
+                            for (int d = connection; d < devices; d += MQTT_CONNECTIONS) {
+                                String resourceId = resourceId(d);
+                                MqttMessage message = new MqttMessage(
+                                        statusJson(resourceId, m, base).getBytes(StandardCharsets.UTF_8));
+                                message.setQos(1);
+                                window.acquire();
+                                client.publish(DeviceMqttTopic.STATUS.topicFor(resourceId), message);
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+        }
+        awaitApplied();
+        long elapsed = System.nanoTime() - start;
+        for (MqttAsyncClient client : clients) {
+            client.disconnect().waitForCompletion();
+            client.close();
+        }
+        return elapsed;
+    }
+
+    private void awaitApplied() throws InterruptedException {
+        IotResourceStatus expected = expectedFinalStatus();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        int device = 0;
+        while (device < devices) {
+            if (registry.findStatus(resourceId(device)) == expected) {
+                device++;
+            } else if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + resourceId(device));
+            } else {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private void report(String transport, int round, long elapsedNanos) {
+        long messages = (long) devices * messagesPerDevice;
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%s round %d: %d messages in %.2f s -> %.0f msg/s%n",
+                transport, round, messages, seconds, messages / seconds);
+    }
+
+    private Instant nextRound() {
+        Instant base = clock;
+        clock = clock.plusSeconds(messagesPerDevice + 1L);
+        return base;
+    }
+
+    // Alterna ocupado/livre para cada mensagem ser uma mudança de status real
+    private IotResourceStatus expectedFinalStatus() {
+        return (messagesPerDevice - 1) % 2 == 0 ? IotResourceStatus.RESERVED : IotResourceStatus.FREE;
+    }
+
+    private static String statusJson(String resourceId, int message, Instant base) {
+        return """
+                {"resourceId":"%s","status":"%s","timestamp":"%s"}\
+                """.formatted(resourceId, message % 2 == 0 ? "ocupado" : "livre", base.plusSeconds(message));
+    }
+
+    private static String resourceId(int device) {
+        return "bench_" + device;
+    }
+
+    private record ReleaseOnDelivery(Semaphore window) implements MqttCallback {
+
+        @Override
+        public void connectionLost(Throwable cause) {
+        }
+
+        @Override
+        public void messageArrived(String topic, MqttMessage message) {
+        }
+
+        @Override
+        public void deliveryComplete(IMqttDeliveryToken token) {
+            window.release();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ifba.iotManagement.device.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifba.iotManagement.device.command.DeviceCommandOutbox;
+import com.ifba.iotManagement.device.dto.DeviceCommandDto;
+import com.ifba.iotManagement.iotResource.IotResourceEntity;
+import com.ifba.iotManagement.iotResource.IotResourceRepository;
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import com.ifba.iotManagement.shared.exceptions.InvalidDevicePayloadException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "devices.push.enabled=true",
+        "devices.push.allowed-hosts=localhost",
+        "devices.push.backoff-ms=20",
+        "devices.push.max-per-host=1"
+})
+@ActiveProfiles("test")
+class DevicePushDispatcherTest {
+
+    @Autowired
+    private DeviceCallbackRegistry callbackRegistry;
+
+    @Autowired
+    private DeviceCommandOutbox commandOutbox;
+
+    @Autowired
+    private IotResourceRepository resourceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Servidor stub no lugar do dispositivo: as primeiras failuresBeforeSuccess requisições recebem 503
+    // e cada resposta demora responseDelayMs
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+    private final AtomicLong responseDelayMs = new AtomicLong();
+    private HttpServer device;
+
+    @BeforeEach
+    void startDevice() throws Exception {
+        device = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        device.createContext("/commands", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(responseDelayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean fail = failuresBeforeSuccess.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+            if (!fail) {
+                received.add(new String(body));
+            }
+            exchange.sendResponseHeaders(fail ? 503 : 204, -1);
+            exchange.close();
+        });
+        device.start();
+    }
+
+    @AfterEach
+    void stopDevice() {
+        device.stop(0);
+    }
+
+    @Test
+    void pushesCommandToRegisteredCallbackAfterCommit() throws Exception {
+        IotResourceEntity resource = resource("push_1");
+        callbackRegistry.register("push_1", callbackUrl());
+
+        transactionTemplate.executeWithoutResult(status -> commandOutbox.enqueue(resource, DeviceCommandDto.reserve("push_1")));
+
+        JsonNode command = objectMapper.readTree(received.poll(5, TimeUnit.SECONDS));
+        assertThat(command.get("resourceId").asText()).isEqualTo("push_1");
+        assertThat(command.get("command").asText()).isEqualTo("RESERVE");
+        assertThat(command.get("sequence").asLong()).isPositive();
+    }
+
+    @Test
+    void retriesServerErrors() throws Exception {
+        IotResourceEntity resource = resource("push_2");
+        callbackRegistry.register("push_2", callbackUrl());
+        failuresBeforeSuccess.set(2);
+
+        transactionTemplate.executeWithoutResult(status -> commandOutbox.enqueue(resource, DeviceCommandDto.release("push_2")));
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).contains("RELEASE");
+        assertThat(failuresBeforeSuccess.get()).isZero();
+    }
+
+    @Test
+    void queuesPushesBeyondHostLimitWithoutSpendingAttempts() throws Exception {
+        IotResourceEntity first = resource("push_4");
+        IotResourceEntity second = resource("push_5");
+        IotResourceEntity third = resource("push_6");
+        callbackRegistry.register("push_4", callbackUrl());
+        callbackRegistry.register("push_5", callbackUrl());
+        callbackRegistry.register("push_6", callbackUrl());
+        // Bem acima do backoff: sem a fila, as três tentativas dos pushes excedentes esbarrariam no limite do host
+        responseDelayMs.set(200);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            commandOutbox.enqueue(first, DeviceCommandDto.reserve("push_4"));
+            commandOutbox.enqueue(second, DeviceCommandDto.reserve("push_5"));
+            commandOutbox.enqueue(third, DeviceCommandDto.reserve("push_6"));
+        });
+
+        for (String resourceId : new String[] {"push_4", "push_5", "push_6"}) {
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains(resourceId);
+        }
+    }
+
+    @Test
+    void rejectsCallbackHostsOutsideAllowList() {
+        resource("push_3");
+
+        assertThatThrownBy(() -> callbackRegistry.register("push_3", "http://169.254.169.254/latest/meta-data"))
+                .isInstanceOf(InvalidDevicePayloadException.class);
+        assertThatThrownBy(() -> callbackRegistry.register("push_3", "file:///etc/passwd"))
+                .isInstanceOf(InvalidDevicePayloadException.class);
+    }
+
+    private IotResourceEntity resource(String resourceId) {
+        return resourceRepository.save(new IotResourceEntity(resourceId, resourceId, "ROOM", IotResourceStatus.FREE, 60L, false));
+    }
+
+    private String callbackUrl() {
+        return "http://localhost:" + device.getAddress().getPort() + "/commands";
+    }
+}
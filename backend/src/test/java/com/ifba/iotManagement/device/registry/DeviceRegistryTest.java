@@ -0,0 +1,88 @@
+package com.ifba.iotManagement.device.registry;
+
+import com.ifba.iotManagement.iotResource.IotResourceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceRegistryTest {
+
+    private static final int FLEET_SIZE = 1_000_000;
+
+    @Test
+    void putFindUpdateAndRemove() {
+        DeviceRegistry registry = new DeviceRegistry();
+        registry.put(1, "sala_1", IotResourceStatus.FREE, false, 60);
+        registry.put(2, "laboratório_2", IotResourceStatus.INACTIVE, true, 30);
+
+        assertThat(registry.find("sala_1"))
+                .isEqualTo(new DeviceRegistryEntry(1, "sala_1", IotResourceStatus.FREE, false, 60));
+        assertThat(registry.find("laboratório_2"))
+                .isEqualTo(new DeviceRegistryEntry(2, "laboratório_2", IotResourceStatus.INACTIVE, true, 30));
+        assertThat(registry.find("sala_2")).isNull();
+        assertThat(registry.findId("sala_2")).isEqualTo(-1);
+
+        assertThat(registry.updateStatus("sala_1", IotResourceStatus.RESERVED)).isTrue();
+        assertThat(registry.findStatus("sala_1")).isEqualTo(IotResourceStatus.RESERVED);
+
+        assertThat(registry.remove("sala_1")).isTrue();
+        assertThat(registry.contains("sala_1")).isFalse();
+        assertThat(registry.contains("laboratório_2")).isTrue();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEntriesReachableAcrossResizeAndRemovals() {
+        DeviceRegistry registry = new DeviceRegistry();
+        int count = 50_000;
+        for (int i = 0; i < count; i++) {
+            registry.put(i, "device-" + i, IotResourceStatus.values()[i % 3], i % 7 == 0, i % 120 + 1);
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertThat(registry.remove("device-" + i)).isTrue();
+        }
+
+        assertThat(registry.size()).isEqualTo(count / 2);
+        for (int i = 0; i < count; i++) {
+            DeviceRegistryEntry entry = registry.find("device-" + i);
+            if (i % 2 == 0) {
+                assertThat(entry).isNull();
+            } else {
+                assertThat(entry).isEqualTo(new DeviceRegistryEntry(
+                        i, "device-" + i, IotResourceStatus.values()[i % 3], i % 7 == 0, i % 120 + 1));
+            }
+        }
+    }
+
+    @Test
+    void millionDeviceFleetFitsInTensOfMegabytes() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+
+        DeviceRegistry registry = new DeviceRegistry(FLEET_SIZE);
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            registry.put(i + 1, "sala_" + i, IotResourceStatus.FREE, false, 60);
+        }
+
+        long after = usedHeapAfterGc(memory);
+        long estimatedPerDevice = registry.estimatedHeapBytes() / FLEET_SIZE;
+        long measuredPerDevice = (after - before) / FLEET_SIZE;
+
+        assertThat(registry.size()).isEqualTo(FLEET_SIZE);
+        assertThat(registry.findId("sala_123456")).isEqualTo(123_457);
+        assertThat(estimatedPerDevice).isLessThan(64);
+        assertThat(registry.estimatedHeapBytes()).isLessThan(64L << 20);
+        // Medição pelo GC é ruidosa; serve apenas para detectar regressões grosseiras
+        assertThat(measuredPerDevice).isLessThan(128);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cliente HTTP compartilhado por todos os dispositivos simulados, com o limite global de requisições em voo.
+ * <p>
+ * A latência é medida a partir do instante em que a requisição deveria ter saído (agenda do dispositivo), não de
+ * quando saiu: espera pelo limite de requisições ou atraso do agendamento entram no percentil. Assim a medição
+ * não sofre de coordinated omission quando o servidor fica lento.
+ */
+final class DeviceHttp {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String devicesUrl;
+    private final Semaphore inFlight;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    DeviceHttp(LoadGeneratorConfig config) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String base = config.baseUrl().toString();
+        this.devicesUrl = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "/api/v1/devices";
+        this.inFlight = new Semaphore(config.maxInFlight());
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint.name(), endpoint.label()));
+        }
+    }
+
+    Map<Endpoint, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * @return a resposta, ou {@code null} em falha de rede ou timeout
+     */
+    HttpResponse<String> post(Endpoint endpoint, String path, String json, long intendedNanos) throws InterruptedException {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(devicesUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), intendedNanos);
+    }
+
+    HttpResponse<String> get(Endpoint endpoint, String path, long intendedNanos) throws InterruptedException {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(devicesUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build(), intendedNanos);
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest request, long intendedNanos) throws InterruptedException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        inFlight.acquire();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            endpointStats.record(System.nanoTime() - intendedNanos, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            endpointStats.recordFailure();
+            return null;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    HttpClient client() {
+        return client;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerador de carga de dispositivos: simula milhares de dispositivos, cada um em uma virtual thread, contra os
+ * endpoints do {@code DeviceController} e reporta vazão e percentis de latência (HdrHistogram) por endpoint.
+ * <p>
+ * Execução:
+ * <pre>
+ * mvn -q package
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) com.ifba.iotManagement.loadgen.DeviceLoadGenerator \
+ *     --devices=5000 --duration-s=120 --admin-user=admin --admin-password=...
+ * </pre>
+ * Com o limite de requisições do backend ligado, respostas 429 aparecem na coluna própria; para medir o
+ * caminho completo use {@code DEVICES_RATE_LIMIT_ENABLED=false} no backend.
+ * <p>
+ * Comparação entre o pool de threads do Tomcat e o perfil {@code virtual-threads} do backend com 10k+ conexões
+ * simultâneas ({@code ulimit -n} precisa comportar uma conexão por requisição em voo nos dois lados):
+ * <pre>
+ * java -jar backend.jar
+ * java ... DeviceLoadGenerator --devices=12000 --max-in-flight=12000 --heartbeat-ms=2000 --output=platform.tsv
+ * java -jar backend.jar --spring.profiles.active=virtual-threads
+ * java ... DeviceLoadGenerator --devices=12000 --max-in-flight=12000 --heartbeat-ms=2000 --baseline=platform.tsv
+ * </pre>
+ */
+public final class DeviceLoadGenerator {
+
+    private DeviceLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorConfig config;
+        try {
+            config = LoadGeneratorConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadGeneratorConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        DeviceHttp http = new DeviceHttp(config);
+        if (config.adminUser() != null) {
+            new ResourceProvisioner(http, config).provision();
+        }
+
+        System.out.printf("Starting %d devices against %s (ramp-up %ds, duration %ds)%n", config.devices(),
+                config.baseUrl(), config.rampUp().toSeconds(), config.duration().toSeconds());
+        LoadReport report = new LoadReport(System.out);
+        long start = System.nanoTime();
+        long rampUpNanos = config.rampUp().toNanos();
+        long end = start + rampUpNanos + config.duration().toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long intervalSeconds = config.reportInterval().toSeconds();
+        reporter.scheduleAtFixedRate(
+                () -> report.interval(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), intervalSeconds,
+                        http.stats().values()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        try (ExecutorService devices = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int device = 0; device < config.devices(); device++) {
+                // Conexões espalhadas uniformemente pelo ramp-up
+                long deviceStart = start + rampUpNanos * device / config.devices();
+                devices.execute(new SimulatedDevice(http, config, device, deviceStart, end));
+            }
+        }
+        reporter.shutdownNow();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+
+        report.summary((System.nanoTime() - start) / 1e9, http.stats().values());
+        List<EndpointStats> stats = http.stats().values().stream()
+                .filter(endpointStats -> endpointStats.total().getTotalCount() + endpointStats.failures() > 0)
+                .toList();
+        LoadSummary summary = LoadSummary.of(stats, Map.of());
+        if (config.output() != null) {
+            summary.write(config.output());
+        }
+        if (config.baseline() != null) {
+            summary.printDelta(LoadSummary.read(config.baseline()), System.out);
+        }
+        http.client().close();
+    }
+}
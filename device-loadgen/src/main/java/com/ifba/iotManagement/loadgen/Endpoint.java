@@ -0,0 +1,22 @@
+package com.ifba.iotManagement.loadgen;
+
+/**
+ * Endpoints do {@code DeviceController} exercitados pelo gerador, um histograma por endpoint.
+ */
+enum Endpoint {
+    ACTIVATION("POST /status (firstConnection)"),
+    HEARTBEAT("POST /status"),
+    COMMANDS("GET /{id}/commands"),
+    COMMAND_ACK("POST /{id}/commands/ack"),
+    AUTO_RELEASE("POST /{id}/auto-release");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ifba.iotManagement.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latência e respostas de um endpoint (ou rota, no replay).
+ * <p>
+ * O {@link Recorder} aceita gravações concorrentes sem lock; a cada relatório o intervalo é trocado e somado ao
+ * histograma total. Valores em microssegundos.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = 120_000_000L;
+
+    private final String name;
+    private final String label;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private Histogram interval;
+
+    /**
+     * @param name  nome curto, usado no relatório parcial
+     * @param label descrição da rota, usada no relatório final
+     */
+    EndpointStats(String name, String label) {
+        this.name = name;
+        this.label = label;
+    }
+
+    String name() {
+        return name;
+    }
+
+    String label() {
+        return label;
+    }
+
+    void record(long latencyNanos, int statusCode) {
+        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1_000)));
+        if (statusCode == 429) {
+            throttled.increment();
+        } else if (statusCode >= 500) {
+            serverErrors.increment();
+        } else if (statusCode >= 400) {
+            clientErrors.increment();
+        } else {
+            success.increment();
+        }
+    }
+
+    /**
+     * Falha de rede ou timeout: sem resposta, então fora do histograma.
+     */
+    void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Troca o intervalo corrente e o soma ao total. Chamado apenas pela thread de relatório.
+     */
+    synchronized Histogram rollInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    synchronized Histogram total() {
+        return total;
+    }
+
+    long success() {
+        return success.sum();
+    }
+
+    long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    long throttled() {
+        return throttled.sum();
+    }
+
+    long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.util.Map;
+
+/**
+ * Requisição capturada pelo {@code DeviceTrafficCaptureFilter} do backend.
+ *
+ * @param offsetMicros   chegada no servidor, em microssegundos desde o início da captura
+ * @param path           caminho após {@code /api/v1/devices}, com a query string
+ * @param headers        headers relevantes para o {@code DeviceController} (Content-Type, Accept, ...)
+ * @param status         status respondido na captura
+ * @param durationMicros tempo no servidor durante a captura
+ */
+record JournalRecord(long offsetMicros, String method, String path, Map<String, String> headers, int status,
+                     long durationMicros, boolean bodyTruncated, byte[] body) {
+
+    /**
+     * Rota com o resourceId trocado por {@code {id}}, ex.: {@code GET /{id}/commands}; agrupa as métricas.
+     */
+    String route() {
+        int query = path.indexOf('?');
+        String route = query < 0 ? path : path.substring(0, query);
+        int segmentEnd = route.indexOf('/', 1);
+        String first = segmentEnd < 0 ? route.substring(1) : route.substring(1, segmentEnd);
+        if (!first.equals("status") && !first.equals("status:batch") && !first.isEmpty()) {
+            route = "/{id}" + (segmentEnd < 0 ? "" : route.substring(segmentEnd));
+        }
+        return method + " " + route;
+    }
+}
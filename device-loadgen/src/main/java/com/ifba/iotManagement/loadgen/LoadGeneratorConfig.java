@@ -0,0 +1,101 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do gerador, lidos de argumentos {@code --nome=valor}.
+ *
+ * @param heartbeatInterval    intervalo entre heartbeats de cada dispositivo
+ * @param commandPollInterval  intervalo entre buscas de comandos pendentes de cada dispositivo; zero usa só os
+ *                             comandos devolvidos pelos heartbeats, confirmados no heartbeat seguinte
+ * @param autoReleaseInterval  intervalo entre auto-liberações de um dispositivo ocupado; zero desliga
+ * @param statusChangeRatio    fração dos heartbeats que trocam o status (livre/ocupado)
+ * @param maxInFlight          requisições simultâneas no total; acima disso o atraso entra na latência medida
+ * @param adminUser            com a senha, cria os recursos que ainda não existem antes da carga
+ * @param output               arquivo onde gravar o resumo por endpoint, para comparar com outra execução
+ * @param baseline             resumo de uma execução anterior; as diferenças são impressas ao final
+ */
+record LoadGeneratorConfig(
+        URI baseUrl,
+        int devices,
+        String resourcePrefix,
+        Duration duration,
+        Duration rampUp,
+        Duration heartbeatInterval,
+        Duration commandPollInterval,
+        Duration autoReleaseInterval,
+        double statusChangeRatio,
+        int maxInFlight,
+        Duration reportInterval,
+        String adminUser,
+        String adminPassword,
+        Path output,
+        Path baseline
+) {
+    static final String USAGE = """
+            Uso: DeviceLoadGenerator [--nome=valor ...]
+              --base-url=http://localhost:8080   raiz do backend
+              --devices=2000                     dispositivos simulados (um por virtual thread)
+              --prefix=load_                     resourceId = prefixo + índice
+              --duration-s=60                    duração da carga após o ramp-up
+              --ramp-up-s=10                     intervalo em que os dispositivos se conectam
+              --heartbeat-ms=5000                intervalo de heartbeat por dispositivo
+              --command-poll-ms=10000            intervalo de busca de comandos por dispositivo (0 = só heartbeat)
+              --auto-release-ms=120000           intervalo de auto-liberação (0 desliga)
+              --status-change-ratio=0.05         fração dos heartbeats que trocam o status
+              --max-in-flight=1000               requisições simultâneas no total
+              --report-interval-s=10             intervalo do relatório parcial
+              --admin-user=admin --admin-password=...  cria os recursos antes da carga
+              --output=servlet.tsv               grava o resumo por endpoint desta execução
+              --baseline=anterior.tsv            compara com o resumo de outra execução
+            """;
+
+    static LoadGeneratorConfig parse(String[] args) {
+        Map<String, String> values = arguments(args);
+        LoadGeneratorConfig config = new LoadGeneratorConfig(
+                URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+                Integer.parseInt(values.getOrDefault("devices", "2000")),
+                values.getOrDefault("prefix", "load_"),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration-s", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("ramp-up-s", "10"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("heartbeat-ms", "5000"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("command-poll-ms", "10000"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("auto-release-ms", "120000"))),
+                Double.parseDouble(values.getOrDefault("status-change-ratio", "0.05")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("report-interval-s", "10"))),
+                values.get("admin-user"),
+                values.get("admin-password"),
+                values.containsKey("output") ? Path.of(values.get("output")) : null,
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null
+        );
+        if (config.devices() < 1 || config.maxInFlight() < 1
+                || config.heartbeatInterval().isZero() || config.commandPollInterval().isNegative()) {
+            throw new IllegalArgumentException("devices, max-in-flight and heartbeat-ms must be positive and command-poll-ms not negative");
+        }
+        return config;
+    }
+
+    /**
+     * Lê argumentos {@code --nome=valor}; também usado pelo {@link ReplayConfig}.
+     */
+    static Map<String, String> arguments(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+
+    String resourceId(int device) {
+        return resourcePrefix + device;
+    }
+}
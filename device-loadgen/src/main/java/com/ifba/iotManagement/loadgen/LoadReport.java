@@ -0,0 +1,60 @@
+package com.ifba.iotManagement.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+/**
+ * Relatórios em texto: parcial a cada intervalo (vazão e p99 do intervalo) e final com os percentis de toda a
+ * carga por endpoint. Latências em milissegundos.
+ */
+final class LoadReport {
+
+    private final PrintStream out;
+
+    LoadReport(PrintStream out) {
+        this.out = out;
+    }
+
+    void interval(long elapsedSeconds, double intervalSeconds, Collection<EndpointStats> stats) {
+        StringBuilder line = new StringBuilder("[%4ds]".formatted(elapsedSeconds));
+        for (EndpointStats endpointStats : stats) {
+            Histogram interval = endpointStats.rollInterval();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            line.append("  %s %.0f req/s p99 %.1f ms".formatted(endpointStats.name(),
+                    interval.getTotalCount() / intervalSeconds, millis(interval.getValueAtPercentile(99))));
+        }
+        out.println(line);
+    }
+
+    void summary(double elapsedSeconds, Collection<EndpointStats> stats) {
+        out.println();
+        out.printf("%-32s %9s %9s %8s %8s %8s %8s %9s %6s %6s %6s %6s%n",
+                "endpoint", "requests", "req/s", "p50", "p90", "p99", "p99.9", "max", "4xx", "429", "5xx", "fail");
+        for (EndpointStats endpointStats : stats) {
+            // Garante que o último intervalo entre no total
+            endpointStats.rollInterval();
+            Histogram total = endpointStats.total();
+            out.printf("%-32s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %9.2f %6d %6d %6d %6d%n",
+                    endpointStats.label(),
+                    total.getTotalCount(),
+                    total.getTotalCount() / elapsedSeconds,
+                    millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(90)),
+                    millis(total.getValueAtPercentile(99)),
+                    millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()),
+                    endpointStats.clientErrors(),
+                    endpointStats.throttled(),
+                    endpointStats.serverErrors(),
+                    endpointStats.failures());
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ifba.iotManagement.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Resumo por rota de uma execução (carga sintética ou replay), gravado em TSV para comparar builds ou
+ * configurações: a mesma carga contra cada um dá latências e taxas de erro diretamente comparáveis.
+ * Latências em milissegundos.
+ */
+final class LoadSummary {
+
+    private static final String HEADER = "route\trequests\tp50_ms\tp90_ms\tp99_ms\tp99.9_ms\tmax_ms\terror_rate\tstatus_mismatches";
+
+    /**
+     * @param errorRate  fração de 4xx, 429, 5xx e falhas de rede sobre o total enviado
+     * @param mismatches no replay, respostas de classe diferente da capturada (sucesso, 4xx, 429 ou 5xx)
+     */
+    record Row(String route, long requests, double p50, double p90, double p99, double p999, double max,
+               double errorRate, long mismatches) {
+    }
+
+    private final Map<String, Row> rows;
+
+    private LoadSummary(Map<String, Row> rows) {
+        this.rows = rows;
+    }
+
+    static LoadSummary of(Collection<EndpointStats> stats, Map<String, Long> mismatches) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (EndpointStats endpointStats : stats) {
+            Histogram total = endpointStats.total();
+            long errors = endpointStats.clientErrors() + endpointStats.throttled() + endpointStats.serverErrors()
+                    + endpointStats.failures();
+            long sent = total.getTotalCount() + endpointStats.failures();
+            rows.put(endpointStats.label(), new Row(endpointStats.label(), total.getTotalCount(),
+                    millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)),
+                    millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()), sent == 0 ? 0 : (double) errors / sent,
+                    mismatches.getOrDefault(endpointStats.label(), 0L)));
+        }
+        return new LoadSummary(rows);
+    }
+
+    static LoadSummary read(Path file) throws IOException {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] fields = line.split("\t");
+            if (fields.length < 9) {
+                throw new IOException("Malformed load summary line: " + line);
+            }
+            rows.put(fields[0], new Row(fields[0], Long.parseLong(fields[1]), Double.parseDouble(fields[2]),
+                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+                    Double.parseDouble(fields[6]), Double.parseDouble(fields[7]), Long.parseLong(fields[8])));
+        }
+        return new LoadSummary(rows);
+    }
+
+    void write(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add(HEADER);
+        for (Row row : rows.values()) {
+            lines.add(String.join("\t", row.route(), Long.toString(row.requests()), Double.toString(row.p50()),
+                    Double.toString(row.p90()), Double.toString(row.p99()), Double.toString(row.p999()),
+                    Double.toString(row.max()), Double.toString(row.errorRate()), Long.toString(row.mismatches())));
+        }
+        Files.write(file, lines);
+    }
+
+    /**
+     * Imprime, por rota, a variação de p50, p99, p99.9 e taxa de erro desta execução em relação à base.
+     */
+    void printDelta(LoadSummary baseline, PrintStream out) {
+        out.println();
+        out.printf("%-32s %26s %26s %26s %16s%n", "route (baseline -> current)", "p50 ms", "p99 ms", "p99.9 ms", "errors %");
+        TreeSet<String> routes = new TreeSet<>(baseline.rows.keySet());
+        routes.addAll(rows.keySet());
+        for (String route : routes) {
+            Row before = baseline.rows.get(route);
+            Row after = rows.get(route);
+            if (before == null || after == null) {
+                out.printf("%-32s %s%n", route, before == null ? "only in current run" : "only in baseline");
+                continue;
+            }
+            out.printf("%-32s %26s %26s %26s %16s%n", route,
+                    change(before.p50(), after.p50()),
+                    change(before.p99(), after.p99()),
+                    change(before.p999(), after.p999()),
+                    "%.2f -> %.2f".formatted(before.errorRate() * 100, after.errorRate() * 100));
+        }
+    }
+
+    private static String change(double before, double after) {
+        String percent = before == 0 ? "" : " (%+.0f%%)".formatted((after - before) * 100 / before);
+        return "%.1f -> %.1f%s".formatted(before, after, percent);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
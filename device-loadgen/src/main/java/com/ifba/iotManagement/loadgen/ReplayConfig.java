@@ -0,0 +1,69 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Parâmetros do {@link TrafficReplayer}, lidos de argumentos {@code --nome=valor}.
+ *
+ * @param speed         multiplicador do ritmo capturado; zero envia o mais rápido possível (limitado por maxInFlight)
+ * @param reorderWindow maior duração de requisição esperada no journal (long-polls), para reordenar pela chegada
+ * @param output        arquivo onde gravar o resumo deste replay, para comparar com outro build
+ * @param baseline      resumo de um replay anterior; as diferenças são impressas ao final
+ */
+record ReplayConfig(
+        Path journal,
+        URI baseUrl,
+        double speed,
+        int maxInFlight,
+        Duration reorderWindow,
+        Duration reportInterval,
+        Path output,
+        Path baseline
+) {
+    static final String USAGE = """
+            Uso: TrafficReplayer --journal=captures/device-traffic-....iotj [--nome=valor ...]
+              --base-url=http://localhost:8080   raiz do backend
+              --speed=1                          1 = ritmo capturado, N = N vezes mais rápido, max = sem espera
+              --max-in-flight=10000              requisições simultâneas no total
+              --reorder-window-s=120             maior duração de requisição capturada (long-polls)
+              --report-interval-s=10             intervalo do relatório parcial
+              --output=replay.tsv                grava o resumo por rota deste replay
+              --baseline=anterior.tsv            compara com o resumo de outro build
+            """;
+
+    static ReplayConfig parse(String[] args) {
+        Map<String, String> values = LoadGeneratorConfig.arguments(args);
+        if (!values.containsKey("journal")) {
+            throw new IllegalArgumentException("--journal is required");
+        }
+        ReplayConfig config = new ReplayConfig(
+                Path.of(values.get("journal")),
+                URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+                parseSpeed(values.getOrDefault("speed", "1")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("reorder-window-s", "120"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("report-interval-s", "10"))),
+                values.containsKey("output") ? Path.of(values.get("output")) : null,
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null
+        );
+        if (config.speed() < 0 || config.maxInFlight() < 1) {
+            throw new IllegalArgumentException("speed must not be negative and max-in-flight must be positive");
+        }
+        return config;
+    }
+
+    // Aceita "max", "10" ou "10x"
+    private static double parseSpeed(String speed) {
+        if (speed.equalsIgnoreCase("max")) {
+            return 0;
+        }
+        return Double.parseDouble(speed.endsWith("x") ? speed.substring(0, speed.length() - 1) : speed);
+    }
+
+    boolean maxSpeed() {
+        return speed == 0;
+    }
+}
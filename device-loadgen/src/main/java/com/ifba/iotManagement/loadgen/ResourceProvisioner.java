@@ -0,0 +1,82 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cria os recursos dos dispositivos simulados com {@code POST /api/v1/iot-resources}, autenticado como admin.
+ * Recursos que já existem são recusados pelo backend e apenas contados; nascem INACTIVE para a ativação valer.
+ */
+final class ResourceProvisioner {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int CONCURRENCY = 32;
+
+    private final DeviceHttp http;
+    private final LoadGeneratorConfig config;
+    private final String baseUrl;
+
+    ResourceProvisioner(DeviceHttp http, LoadGeneratorConfig config) {
+        this.http = http;
+        this.config = config;
+        String base = config.baseUrl().toString();
+        this.baseUrl = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    void provision() throws IOException, InterruptedException {
+        String token = login();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int device = 0; device < config.devices(); device++) {
+                String resourceId = config.resourceId(device);
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<Void> response = http.client().send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/iot-resources"))
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .header("Authorization", "Bearer " + token)
+                                .POST(HttpRequest.BodyPublishers.ofString("""
+                                        {"resourceId":"%s","name":"Load %s","type":"ROOM","status":"INACTIVE"}\
+                                        """.formatted(resourceId, resourceId)))
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() / 100 == 2 ? created : rejected).incrementAndGet();
+                    } catch (IOException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        System.out.printf("Provisioned resources: %d created, %d rejected (already existing or invalid)%n",
+                created.get(), rejected.get());
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpResponse<String> response = http.client().send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"username":"%s","password":"%s"}""".formatted(config.adminUser(), config.adminPassword())))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Admin login failed with HTTP " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+}
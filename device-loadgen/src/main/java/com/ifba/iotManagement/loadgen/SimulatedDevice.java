@@ -0,0 +1,140 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Um dispositivo simulado, executado em sua própria virtual thread.
+ * <p>
+ * Segue o ciclo do firmware: ativação com {@code firstConnection}, heartbeats periódicos (parte deles trocando o
+ * status), busca e confirmação de comandos pendentes e auto-liberação quando fica ocupado por muito tempo. Cada
+ * ação tem agenda de taxa fixa a partir de uma fase aleatória, para os dispositivos não baterem juntos.
+ * <p>
+ * Com {@code --command-poll-ms=0} não há busca separada: os comandos vêm na resposta do heartbeat e são
+ * confirmados pelo {@code ackSequence} do heartbeat seguinte, uma troca por ciclo.
+ */
+final class SimulatedDevice implements Runnable {
+
+    private static final Pattern SEQUENCE = Pattern.compile("\"sequence\"\\s*:\\s*(\\d+)");
+
+    private static final String STATUS_JSON = """
+            {"resourceId":"%s","status":"%s","timestamp":"%s","firstConnection":%s}""";
+
+    private final DeviceHttp http;
+    private final LoadGeneratorConfig config;
+    private final String resourceId;
+    private final long startNanos;
+    private final long endNanos;
+
+    private boolean occupied;
+    private long pendingAck = -1;
+    private Instant lastTimestamp = Instant.EPOCH;
+
+    SimulatedDevice(DeviceHttp http, LoadGeneratorConfig config, int index, long startNanos, long endNanos) {
+        this.http = http;
+        this.config = config;
+        this.resourceId = config.resourceId(index);
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long heartbeatNanos = config.heartbeatInterval().toNanos();
+        long pollNanos = config.commandPollInterval().toNanos();
+        boolean piggyback = pollNanos == 0;
+        long autoReleaseNanos = config.autoReleaseInterval().toNanos();
+        try {
+            sleepUntil(startNanos);
+            heartbeat(Endpoint.ACTIVATION, true, startNanos);
+
+            long nextHeartbeat = startNanos + random.nextLong(heartbeatNanos);
+            long nextPoll = piggyback ? Long.MAX_VALUE : startNanos + random.nextLong(pollNanos);
+            long nextAutoRelease = autoReleaseNanos > 0 ? startNanos + random.nextLong(autoReleaseNanos) : Long.MAX_VALUE;
+            while (true) {
+                long due = Math.min(nextHeartbeat, Math.min(nextPoll, nextAutoRelease));
+                if (due >= endNanos) {
+                    return;
+                }
+                sleepUntil(due);
+                if (due == nextHeartbeat) {
+                    if (random.nextDouble() < config.statusChangeRatio()) {
+                        occupied = !occupied;
+                    }
+                    heartbeat(Endpoint.HEARTBEAT, false, due);
+                    nextHeartbeat += heartbeatNanos;
+                } else if (due == nextPoll) {
+                    pollCommands(due);
+                    nextPoll += pollNanos;
+                } else {
+                    if (occupied) {
+                        autoRelease(due);
+                    }
+                    nextAutoRelease += autoReleaseNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void heartbeat(Endpoint endpoint, boolean firstConnection, long due) throws InterruptedException {
+        String path = pendingAck > 0 ? "/status?ackSequence=" + pendingAck : "/status";
+        HttpResponse<String> response = http.post(endpoint, path, status(firstConnection), due);
+        if (response != null && response.statusCode() / 100 == 2) {
+            // Com busca separada quem confirma é o pollCommands
+            pendingAck = config.commandPollInterval().isZero() ? lastSequence(response.body()) : -1;
+        }
+    }
+
+    private void pollCommands(long due) throws InterruptedException {
+        HttpResponse<String> response = http.get(Endpoint.COMMANDS, "/" + resourceId + "/commands", due);
+        if (response == null || response.statusCode() != 200) {
+            return;
+        }
+        long lastSequence = lastSequence(response.body());
+        if (lastSequence > 0) {
+            // A confirmação sai logo após a busca: mede o ack a partir de agora, não da agenda da busca
+            http.post(Endpoint.COMMAND_ACK, "/" + resourceId + "/commands/ack",
+                    "{\"sequence\":" + lastSequence + "}", System.nanoTime());
+        }
+    }
+
+    private static long lastSequence(String body) {
+        long lastSequence = -1;
+        Matcher matcher = SEQUENCE.matcher(body);
+        while (matcher.find()) {
+            lastSequence = Math.max(lastSequence, Long.parseLong(matcher.group(1)));
+        }
+        return lastSequence;
+    }
+
+    private void autoRelease(long due) throws InterruptedException {
+        http.post(Endpoint.AUTO_RELEASE, "/" + resourceId + "/auto-release",
+                "{\"timestamp\":\"" + nextTimestamp() + "\",\"reason\":\"timeout_expired\"}", due);
+        occupied = false;
+    }
+
+    private String status(boolean firstConnection) {
+        return STATUS_JSON.formatted(resourceId, occupied ? "ocupado" : "livre", nextTimestamp(), firstConnection);
+    }
+
+    // Timestamps estritamente crescentes por dispositivo, senão o servidor descarta a atualização como antiga
+    private Instant nextTimestamp() {
+        Instant now = Instant.now();
+        lastTimestamp = now.isAfter(lastTimestamp) ? now : lastTimestamp.plusMillis(1);
+        return lastTimestamp;
+    }
+
+    private static void sleepUntil(long nanos) throws InterruptedException {
+        long remaining = nanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lê o journal gravado pelo {@code DeviceTrafficJournal} do backend (formato documentado lá) em ordem de chegada.
+ * <p>
+ * O backend grava cada requisição quando ela termina, então um long-poll aparece depois de requisições que
+ * chegaram após ele. Os registros passam por um heap e só saem quando o arquivo já avançou mais que
+ * {@code reorderWindowMicros} além deles; a janela deve cobrir a maior duração de requisição (long-polls).
+ * Um final de arquivo cortado (servidor derrubado durante a captura) encerra a leitura sem erro.
+ */
+final class TrafficJournalReader implements AutoCloseable {
+
+    private static final int MAGIC = 0x494F544A; // "IOTJ"
+    private static final int VERSION = 1;
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
+    private static final List<String> HEADERS = List.of("Content-Type", "Content-Encoding", "Accept", "If-None-Match",
+            "Idempotency-Key");
+    private static final int FLAG_BODY_TRUNCATED = 1;
+
+    private final DataInputStream in;
+    private final long reorderWindowMicros;
+    private final long captureStartEpochMillis;
+    private final PriorityQueue<JournalRecord> pending =
+            new PriorityQueue<>(Comparator.comparingLong(JournalRecord::offsetMicros));
+    private long latestOffsetMicros;
+    private boolean exhausted;
+
+    TrafficJournalReader(Path journal, long reorderWindowMicros) throws IOException {
+        this.in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(journal)), 64 * 1024));
+        this.reorderWindowMicros = reorderWindowMicros;
+        if (in.readInt() != MAGIC) {
+            in.close();
+            throw new IOException("Not a device traffic journal: " + journal);
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            in.close();
+            throw new IOException("Unsupported journal version " + version + ": " + journal);
+        }
+        this.captureStartEpochMillis = in.readLong();
+    }
+
+    long captureStartEpochMillis() {
+        return captureStartEpochMillis;
+    }
+
+    /**
+     * @return o próximo registro por ordem de chegada, ou {@code null} no fim do journal
+     */
+    JournalRecord next() throws IOException {
+        while (!exhausted && (pending.isEmpty() || pending.peek().offsetMicros() > latestOffsetMicros - reorderWindowMicros)) {
+            JournalRecord record = read();
+            if (record == null) {
+                exhausted = true;
+            } else {
+                pending.add(record);
+                latestOffsetMicros = Math.max(latestOffsetMicros, record.offsetMicros());
+            }
+        }
+        return pending.poll();
+    }
+
+    private JournalRecord read() throws IOException {
+        try {
+            long offsetMicros = readVarLong();
+            int method = in.readUnsignedByte();
+            String path = in.readUTF();
+            int headerCount = in.readUnsignedByte();
+            Map<String, String> headers = new LinkedHashMap<>(headerCount * 2);
+            for (int i = 0; i < headerCount; i++) {
+                int index = in.readUnsignedByte();
+                String value = in.readUTF();
+                if (index < HEADERS.size()) {
+                    headers.put(HEADERS.get(index), value);
+                }
+            }
+            int status = in.readUnsignedShort();
+            long durationMicros = readVarLong();
+            int flags = in.readUnsignedByte();
+            byte[] body = new byte[Math.toIntExact(readVarLong())];
+            in.readFully(body);
+            if (method >= METHODS.size()) {
+                throw new IOException("Unknown method code " + method + " in journal");
+            }
+            return new JournalRecord(offsetMicros, METHODS.get(method), path, headers, status, durationMicros,
+                    (flags & FLAG_BODY_TRUNCATED) != 0, body);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in journal");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
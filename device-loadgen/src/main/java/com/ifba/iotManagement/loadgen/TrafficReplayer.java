@@ -0,0 +1,184 @@
+package com.ifba.iotManagement.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduz um journal de tráfego capturado pelo backend ({@code devices.capture.enabled=true}) contra uma
+ * instância local, preservando os intervalos entre as requisições (rajadas inclusive) em 1x, Nx ou sem espera.
+ * <p>
+ * Cada requisição sai em uma virtual thread no instante {@code chegada / speed} e a latência é medida a partir
+ * desse instante, como no {@link DeviceLoadGenerator}. Em {@code --speed=max} o envio é limitado só por
+ * {@code --max-in-flight} e a latência conta a partir da saída. Métricas por rota ({@code POST /status},
+ * {@code GET /{id}/commands}, ...), mais as respostas de classe diferente da capturada.
+ * <p>
+ * Os resourceIds são os da captura, então a instância precisa ter os mesmos recursos (ex.: dump do banco de
+ * produção). O limite por IP do backend valeria para todo o replay, que sai de um só cliente: use
+ * {@code DEVICES_RATE_LIMIT_ENABLED=false}. Para comparar builds:
+ * <pre>
+ * java -cp ... com.ifba.iotManagement.loadgen.TrafficReplayer --journal=device-traffic-....iotj --output=main.tsv
+ * java -cp ... com.ifba.iotManagement.loadgen.TrafficReplayer --journal=device-traffic-....iotj --baseline=main.tsv
+ * </pre>
+ */
+public final class TrafficReplayer {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(90);
+
+    private final ReplayConfig config;
+    private final HttpClient client;
+    private final String devicesUrl;
+    private final Semaphore inFlight;
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> mismatches = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+
+    private TrafficReplayer(ReplayConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String base = config.baseUrl().toString();
+        this.devicesUrl = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "/api/v1/devices";
+        this.inFlight = new Semaphore(config.maxInFlight());
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReplayConfig config;
+        try {
+            config = ReplayConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(ReplayConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        new TrafficReplayer(config).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        LoadReport report = new LoadReport(System.out);
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long intervalSeconds = config.reportInterval().toSeconds();
+        reporter.scheduleAtFixedRate(
+                () -> report.interval(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), intervalSeconds,
+                        stats.values()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        long replayed = 0;
+        long firstOffset = -1;
+        long lastOffset = 0;
+        try (TrafficJournalReader reader = new TrafficJournalReader(config.journal(), config.reorderWindow().toNanos() / 1_000);
+             ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            System.out.printf("Replaying %s (captured from %s) against %s at %s%n", config.journal(),
+                    Instant.ofEpochMilli(reader.captureStartEpochMillis()), config.baseUrl(),
+                    config.maxSpeed() ? "maximum speed" : config.speed() + "x");
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                if (record.bodyTruncated()) {
+                    skipped.increment();
+                    continue;
+                }
+                if (firstOffset < 0) {
+                    firstOffset = record.offsetMicros();
+                }
+                lastOffset = record.offsetMicros();
+                JournalRecord current = record;
+                if (config.maxSpeed()) {
+                    // Sem agenda: o limite de requisições em voo segura o leitor
+                    inFlight.acquire();
+                    long sentAt = System.nanoTime();
+                    requests.execute(() -> send(current, sentAt, true));
+                } else {
+                    long intended = start + (long) ((record.offsetMicros() - firstOffset) * 1_000 / config.speed());
+                    sleepUntil(intended);
+                    requests.execute(() -> send(current, intended, false));
+                }
+                replayed++;
+            }
+        }
+        reporter.shutdownNow();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%nReplayed %d requests (%.1f s of captured traffic) in %.1f s; %d skipped with truncated body%n",
+                replayed, (lastOffset - Math.max(0, firstOffset)) / 1e6, elapsedSeconds, skipped.sum());
+        report.summary(elapsedSeconds, stats.values());
+        Map<String, Long> mismatchCounts = new TreeMap<>();
+        mismatches.forEach((route, count) -> mismatchCounts.put(route, count.sum()));
+        mismatchCounts.forEach((route, count) ->
+                System.out.printf("%s: %d responses differ in class from the capture%n", route, count));
+        LoadSummary summary = LoadSummary.of(stats.values(), mismatchCounts);
+        if (config.output() != null) {
+            summary.write(config.output());
+        }
+        if (config.baseline() != null) {
+            summary.printDelta(LoadSummary.read(config.baseline()), System.out);
+        }
+        client.close();
+    }
+
+    private void send(JournalRecord record, long intendedNanos, boolean acquired) {
+        String route = record.route();
+        EndpointStats routeStats = stats.computeIfAbsent(route, key -> new EndpointStats(key, key));
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(devicesUrl + record.path()))
+                .timeout(REQUEST_TIMEOUT)
+                .method(record.method(), record.body().length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(record.body()));
+        record.headers().forEach(request::header);
+        if (!acquired) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            routeStats.record(System.nanoTime() - intendedNanos, response.statusCode());
+            if (record.status() != 0 && statusClass(record.status()) != statusClass(response.statusCode())) {
+                mismatches.computeIfAbsent(route, key -> new LongAdder()).increment();
+            }
+        } catch (IOException e) {
+            routeStats.recordFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // 2xx e 3xx contam juntos: um If-None-Match capturado pode não bater com o ETag local
+    private static int statusClass(int status) {
+        return status == 429 ? 429 : status < 400 ? 200 : status / 100 * 100;
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ifba.iotManagement.sdk;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backoff compartilhado pelo cliente.
+ * <p>
+ * Um 429 pausa todos os envios até o {@code Retry-After} (o limite por IP do servidor vale para a conexão
+ * inteira, não para uma requisição); falhas de rede e 5xx usam espera exponencial com full jitter.
+ */
+final class Backoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+
+    private volatile long pausedUntilNanos = System.nanoTime();
+
+    Backoff(long baseMillis, long maxMillis) {
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    long delayMillis(int attempt) {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    synchronized void pauseFor(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+        }
+    }
+
+    void awaitResume() throws InterruptedException {
+        long remaining;
+        while ((remaining = pausedUntilNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * Espera indicada pelo servidor em {@code Retry-After} (segundos), ou o backoff da tentativa sem o header.
+     */
+    long retryAfterMillis(HttpResponse<?> response, int attempt) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value.trim())));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                })
+                .orElseGet(() -> delayMillis(attempt));
+    }
+}
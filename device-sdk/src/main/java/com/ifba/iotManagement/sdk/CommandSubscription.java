@@ -0,0 +1,101 @@
+package com.ifba.iotManagement.sdk;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assinatura de comandos de um recurso, criada por {@link DeviceClient#subscribeCommands}.
+ * <p>
+ * Uma virtual thread faz long-poll em {@code GET /{resourceId}/commands/wait}, entrega cada comando ao
+ * {@link DeviceCommandListener} e confirma a sequência em {@code POST /{resourceId}/commands/ack}. O servidor
+ * responde sempre o comando pendente mais antigo, então um comando não confirmado é entregue de novo.
+ */
+public final class CommandSubscription implements AutoCloseable {
+
+    private final DeviceClient client;
+    private final Backoff backoff;
+    private final String resourceId;
+    private final DeviceCommandListener listener;
+    private final int waitSeconds;
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    CommandSubscription(DeviceClient client, Backoff backoff, String resourceId,
+                        DeviceCommandListener listener, int waitSeconds) {
+        this.client = client;
+        this.backoff = backoff;
+        this.resourceId = resourceId;
+        this.listener = listener;
+        this.waitSeconds = waitSeconds;
+        this.worker = Thread.ofVirtual().name("device-sdk-commands-" + resourceId).start(this::run);
+    }
+
+    public String resourceId() {
+        return resourceId;
+    }
+
+    public boolean isActive() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        int failures = 0;
+        while (!closed) {
+            try {
+                backoff.awaitResume();
+                HttpResponse<byte[]> response = client.send(client.get(
+                        "/" + client.encode(resourceId) + "/commands/wait?timeoutSeconds=" + waitSeconds,
+                        waitSeconds + 10));
+                switch (response.statusCode()) {
+                    case 200 -> {
+                        DeviceCommand command = client.readJson(response.body(), DeviceCommand.class);
+                        listener.onCommand(command);
+                        if (command.sequence() != null) {
+                            acknowledge(command.sequence());
+                        }
+                        failures = 0;
+                    }
+                    case 204 -> failures = 0;
+                    // 429: limite por IP, vale para o cliente todo; 503: limite de long-polls em espera no servidor
+                    case 429 -> backoff.pauseFor(backoff.retryAfterMillis(response, ++failures));
+                    case 503 -> TimeUnit.MILLISECONDS.sleep(backoff.retryAfterMillis(response, ++failures));
+                    default -> throw new DeviceClientException(response.statusCode(),
+                            "Command wait failed with HTTP " + response.statusCode() + ": " + client.bodyText(response));
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                listener.onError(resourceId, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff.delayMillis(++failures));
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void acknowledge(long sequence) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(client.jsonPost(
+                "/" + client.encode(resourceId) + "/commands/ack", client.writeJson(Map.of("sequence", sequence))));
+        if (response.statusCode() == 429) {
+            backoff.pauseFor(backoff.retryAfterMillis(response, 1));
+        }
+        if (response.statusCode() != 204) {
+            throw new DeviceClientException(response.statusCode(),
+                    "Command ack failed with HTTP " + response.statusCode() + ": " + client.bodyText(response));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.ifba.iotManagement.sdk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cliente da API de dispositivos ({@code /api/v1/devices}).
+ * <p>
+ * Uma instância mantém um único {@link HttpClient} e reaproveita suas conexões (keep-alive no HTTP/1.1,
+ * multiplexação no HTTP/2), então deve ser compartilhada por todos os dispositivos de um processo ou gateway.
+ * Os status reportados por {@link #report} são agrupados em lotes para {@code POST /status:batch}; respostas
+ * 429 pausam todos os envios até o {@code Retry-After}. Comandos chegam por {@link #subscribeCommands}.
+ * <pre>
+ * try (DeviceClient client = DeviceClient.builder(URI.create("http://localhost:8080")).build()) {
+ *     client.subscribeCommands("sala_1", command -&gt; firmware.apply(command.command()));
+ *     client.report(DeviceStatusReport.of("sala_1", "ocupado", Instant.now()));
+ * }
+ * </pre>
+ */
+public final class DeviceClient implements AutoCloseable {
+
+    private static final String DEVICES_PATH = "/api/v1/devices";
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final int gzipThresholdBytes;
+    private final int commandWaitSeconds;
+    private final long closeTimeoutMillis;
+    private final Backoff backoff;
+    private final StatusBatcher batcher;
+    private final List<CommandSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private DeviceClient(Builder builder) {
+        this.http = HttpClient.newBuilder()
+                .version(builder.httpVersion)
+                .connectTimeout(builder.connectTimeout)
+                .build();
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        String base = builder.baseUrl.toString();
+        this.baseUrl = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + DEVICES_PATH;
+        this.requestTimeout = builder.requestTimeout;
+        this.gzipThresholdBytes = builder.gzipThresholdBytes;
+        this.commandWaitSeconds = builder.commandWaitSeconds;
+        this.closeTimeoutMillis = builder.closeTimeout.toMillis();
+        this.backoff = new Backoff(builder.backoffBase.toMillis(), builder.backoffMax.toMillis());
+        this.batcher = new StatusBatcher(this, backoff, builder.maxBatchSize, builder.linger.toMillis(),
+                builder.maxPendingReports, builder.maxAttempts);
+    }
+
+    /**
+     * @param baseUrl raiz do servidor, ex.: {@code http://localhost:8080}
+     */
+    public static Builder builder(URI baseUrl) {
+        return new Builder(baseUrl);
+    }
+
+    /**
+     * Enfileira uma atualização de status para o próximo lote.
+     * <p>
+     * Atualizações do mesmo recurso ainda não enviadas são fundidas (vale a de timestamp mais recente) e todas as
+     * chamadas recebem o mesmo resultado. O futuro falha com {@link DeviceClientException} em erros definitivos
+     * ou após {@code maxAttempts}, e com {@link java.util.concurrent.RejectedExecutionException} se houver
+     * {@code maxPendingReports} recursos aguardando envio.
+     */
+    public CompletableFuture<DeviceReportResult> report(DeviceStatusReport report) {
+        return batcher.submit(report);
+    }
+
+    /**
+     * Envia os status pendentes sem esperar o {@code linger}.
+     */
+    public void flush() {
+        batcher.flush();
+    }
+
+    /**
+     * Passa a entregar ao listener os comandos RESERVE/RELEASE do recurso até {@link CommandSubscription#close()}.
+     */
+    public CommandSubscription subscribeCommands(String resourceId, DeviceCommandListener listener) {
+        Objects.requireNonNull(resourceId, "resourceId");
+        Objects.requireNonNull(listener, "listener");
+        CommandSubscription subscription = new CommandSubscription(this, backoff, resourceId, listener, commandWaitSeconds);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Encerra as assinaturas e envia os status pendentes, esperando até {@code closeTimeout}.
+     */
+    @Override
+    public void close() {
+        subscriptions.forEach(CommandSubscription::close);
+        subscriptions.clear();
+        batcher.close(closeTimeoutMillis);
+        http.close();
+    }
+
+    HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    HttpRequest get(String path, int timeoutSeconds) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    HttpRequest jsonPost(String path, byte[] body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (gzipThresholdBytes >= 0 && body.length > gzipThresholdBytes) {
+            request.header("Content-Encoding", "gzip");
+            body = gzip(body);
+        }
+        return request.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    byte[] writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    <T> T readJson(byte[] body, Class<T> type) throws IOException {
+        return objectMapper.readValue(body, type);
+    }
+
+    <T> T readJson(byte[] body, TypeReference<T> type) throws IOException {
+        return objectMapper.readValue(body, type);
+    }
+
+    String bodyText(HttpResponse<byte[]> response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    String encode(String pathSegment) {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static final class Builder {
+
+        private final URI baseUrl;
+        private HttpClient.Version httpVersion = HttpClient.Version.HTTP_1_1;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        private int maxBatchSize = 500;
+        private Duration linger = Duration.ofMillis(200);
+        private int maxPendingReports = 10_000;
+        private int maxAttempts = 5;
+        private Duration backoffBase = Duration.ofMillis(500);
+        private Duration backoffMax = Duration.ofSeconds(30);
+        private int gzipThresholdBytes = 4096;
+        private int commandWaitSeconds = 30;
+        private Duration closeTimeout = Duration.ofSeconds(5);
+
+        private Builder(URI baseUrl) {
+            this.baseUrl = Objects.requireNonNull(baseUrl, "baseUrl");
+        }
+
+        /**
+         * HTTP/1.1 por padrão; HTTP/2 só tem efeito se o servidor aceitar (h2 ou upgrade h2c).
+         */
+        public Builder httpVersion(HttpClient.Version httpVersion) {
+            this.httpVersion = Objects.requireNonNull(httpVersion);
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = Objects.requireNonNull(connectTimeout);
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = Objects.requireNonNull(requestTimeout);
+            return this;
+        }
+
+        /**
+         * Itens por lote; não deve passar de {@code devices.batch.max-items} do servidor (1000 por padrão).
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Quanto a atualização mais antiga espera por outras antes de o lote sair incompleto.
+         */
+        public Builder linger(Duration linger) {
+            this.linger = Objects.requireNonNull(linger);
+            return this;
+        }
+
+        public Builder maxPendingReports(int maxPendingReports) {
+            this.maxPendingReports = maxPendingReports;
+            return this;
+        }
+
+        /**
+         * Tentativas por atualização em falhas de rede, 5xx ou THROTTLED; 429 do lote inteiro não conta.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder backoff(Duration base, Duration max) {
+            this.backoffBase = Objects.requireNonNull(base);
+            this.backoffMax = Objects.requireNonNull(max);
+            return this;
+        }
+
+        /**
+         * Corpos maiores que isso vão com {@code Content-Encoding: gzip}; negativo desliga a compressão.
+         */
+        public Builder gzipThresholdBytes(int gzipThresholdBytes) {
+            this.gzipThresholdBytes = gzipThresholdBytes;
+            return this;
+        }
+
+        /**
+         * Duração de cada long-poll de comandos; limitada no servidor por {@code devices.long-poll.max-timeout-seconds}.
+         */
+        public Builder commandWaitSeconds(int commandWaitSeconds) {
+            this.commandWaitSeconds = commandWaitSeconds;
+            return this;
+        }
+
+        public Builder closeTimeout(Duration closeTimeout) {
+            this.closeTimeout = Objects.requireNonNull(closeTimeout);
+            return this;
+        }
+
+        public DeviceClient build() {
+            return new DeviceClient(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ifba.iotManagement.sdk;
+
+/**
+ * Resposta de erro do servidor que não deve ser repetida (ex.: 400, 404) ou que esgotou as tentativas.
+ */
+public class DeviceClientException extends RuntimeException {
+
+    private final int statusCode;
+
+    public DeviceClientException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public DeviceClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    /**
+     * Status HTTP da resposta, ou -1 para falhas de rede.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ifba.iotManagement.sdk;
+
+/**
+ * Comando RESERVE/RELEASE emitido pelo servidor para o dispositivo.
+ *
+ * @param sequence sequência no outbox do servidor, confirmada pelo SDK após o listener processar o comando
+ */
+public record DeviceCommand(
+        String resourceId,
+        String command,
+        String details,
+        Long sequence
+) {
+    public static final String RESERVE = "RESERVE";
+    public static final String RELEASE = "RELEASE";
+}
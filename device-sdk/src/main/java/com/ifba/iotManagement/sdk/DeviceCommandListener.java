@@ -0,0 +1,19 @@
+package com.ifba.iotManagement.sdk;
+
+/**
+ * Callback de {@link DeviceClient#subscribeCommands}.
+ * <p>
+ * A entrega é pelo menos uma vez: o comando só é confirmado ao servidor depois que {@link #onCommand} retorna
+ * normalmente. Se o método lançar exceção, o mesmo comando é entregue de novo após o backoff.
+ */
+@FunctionalInterface
+public interface DeviceCommandListener {
+
+    void onCommand(DeviceCommand command) throws Exception;
+
+    /**
+     * Falha ao buscar, processar ou confirmar um comando. A assinatura continua ativa e tenta de novo.
+     */
+    default void onError(String resourceId, Throwable error) {
+    }
+}
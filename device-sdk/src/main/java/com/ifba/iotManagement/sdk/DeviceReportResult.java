@@ -0,0 +1,23 @@
+package com.ifba.iotManagement.sdk;
+
+import java.util.List;
+
+/**
+ * Resultado de uma atualização de status, como reportado pelo item correspondente de {@code POST /status:batch}.
+ *
+ * @param outcome       {@code UPDATED}, {@code ACTIVATED}, {@code UNCHANGED}, {@code STALE}, {@code DAMPED},
+ *                      {@code NOT_FOUND}, {@code INVALID}, ... (texto, para tolerar resultados novos do servidor)
+ * @param status        status do recurso no servidor após o lote, quando conhecido
+ * @param commands      comandos ainda não confirmados do recurso, devolvidos junto com o resultado; vazio se não
+ *                      houver ou se o servidor não os enviar. A confirmação continua com a assinatura de comandos
+ * @param nextPollAfter segundos sugeridos pelo servidor até a próxima consulta; nulo se não enviado
+ */
+public record DeviceReportResult(
+        String resourceId,
+        String outcome,
+        String status,
+        String message,
+        List<DeviceCommand> commands,
+        Long nextPollAfter
+) {
+}
@@ -0,0 +1,29 @@
+package com.ifba.iotManagement.sdk;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Atualização de status enviada pelo dispositivo; mesmos campos de {@code POST /api/v1/devices/status}.
+ *
+ * @param status          texto reportado pelo firmware ({@code livre}, {@code ocupado}, {@code offline}, ...)
+ * @param firstConnection primeira conexão do dispositivo (ativa recursos INACTIVE)
+ */
+public record DeviceStatusReport(
+        String resourceId,
+        String status,
+        Instant timestamp,
+        Boolean firstConnection,
+        Instant reservedAt,
+        Instant predictedEndTime
+) {
+    public DeviceStatusReport {
+        Objects.requireNonNull(resourceId, "resourceId");
+        Objects.requireNonNull(status, "status");
+        Objects.requireNonNull(timestamp, "timestamp");
+    }
+
+    public static DeviceStatusReport of(String resourceId, String status, Instant timestamp) {
+        return new DeviceStatusReport(resourceId, status, timestamp, null, null, null);
+    }
+}
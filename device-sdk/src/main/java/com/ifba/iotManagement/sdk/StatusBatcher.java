@@ -0,0 +1,337 @@
+package com.ifba.iotManagement.sdk;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrupa as atualizações de status em lotes para {@code POST /api/v1/devices/status:batch}.
+ * <p>
+ * Guarda só a atualização mais recente de cada recurso (como o servidor faria com o lote), e um único worker
+ * envia quando o lote enche ou quando a atualização mais antiga espera {@code linger}. Há no máximo um lote em
+ * voo por cliente. Itens recusados por limite de taxa ou falha transitória voltam para a frente da fila.
+ */
+final class StatusBatcher {
+
+    private static final System.Logger logger = System.getLogger(StatusBatcher.class.getName());
+
+    private static final TypeReference<BatchResponse> BATCH_RESPONSE = new TypeReference<>() {
+    };
+
+    private final DeviceClient client;
+    private final Backoff backoff;
+    private final long lingerNanos;
+    private final int maxPending;
+    private final int maxAttempts;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private LinkedHashMap<String, PendingReport> pending = new LinkedHashMap<>();
+    private long oldestNanos;
+    private boolean flushRequested;
+    private boolean closed;
+
+    // Reduzido à metade a cada 413 (lote acima de devices.batch.max-items no servidor)
+    private volatile int maxBatchSize;
+
+    private final Thread worker;
+
+    StatusBatcher(DeviceClient client, Backoff backoff, int maxBatchSize, long lingerMillis, int maxPending, int maxAttempts) {
+        this.client = client;
+        this.backoff = backoff;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.worker = Thread.ofVirtual().name("device-sdk-batcher").start(this::run);
+    }
+
+    CompletableFuture<DeviceReportResult> submit(DeviceStatusReport report) {
+        CompletableFuture<DeviceReportResult> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("Device client is closed"));
+                return future;
+            }
+            PendingReport current = pending.get(report.resourceId());
+            if (current != null) {
+                current.merge(new PendingReport(report, future));
+            } else if (pending.size() >= maxPending) {
+                // Backpressure: o servidor está lento ou recusando; o chamador decide se descarta ou espera
+                future.completeExceptionally(new RejectedExecutionException(
+                        "Too many pending status reports (" + maxPending + ")"));
+                return future;
+            } else {
+                boolean first = pending.isEmpty();
+                if (first) {
+                    oldestNanos = System.nanoTime();
+                }
+                pending.put(report.resourceId(), new PendingReport(report, future));
+                // Acorda o worker para contar o linger a partir do primeiro item, ou para enviar o lote cheio
+                if (first || pending.size() >= maxBatchSize) {
+                    changed.signal();
+                }
+            }
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void flush() {
+        lock.lock();
+        try {
+            flushRequested = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Envia o que estiver pendente e para o worker; o que não sair até o prazo é cancelado.
+     */
+    void close(long timeoutMillis) {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (!worker.join(Duration.ofMillis(timeoutMillis))) {
+                worker.interrupt();
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            worker.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<PendingReport> batch = List.of();
+        try {
+            while ((batch = nextBatch()) != null) {
+                backoff.awaitResume();
+                send(batch);
+                batch = List.of();
+            }
+        } catch (InterruptedException e) {
+            CancellationException cancelled = new CancellationException("Device client closed before the report was sent");
+            batch.forEach(item -> item.fail(cancelled));
+            lock.lock();
+            try {
+                pending.values().forEach(item -> item.fail(cancelled));
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            logger.log(System.Logger.Level.ERROR, "Device status batcher stopped unexpectedly", e);
+            batch.forEach(item -> item.fail(e));
+        }
+    }
+
+    private List<PendingReport> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (closed) {
+                        return null;
+                    }
+                    flushRequested = false;
+                    changed.await();
+                    continue;
+                }
+                boolean sendNow = closed || flushRequested || pending.size() >= maxBatchSize;
+                long waitNanos = sendNow ? 0 : oldestNanos + lingerNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    break;
+                }
+                changed.awaitNanos(waitNanos);
+            }
+            int size = Math.min(maxBatchSize, pending.size());
+            List<PendingReport> batch = new ArrayList<>(size);
+            Iterator<PendingReport> iterator = pending.values().iterator();
+            while (batch.size() < size) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            if (pending.isEmpty()) {
+                flushRequested = false;
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(List<PendingReport> batch) throws InterruptedException {
+        HttpResponse<byte[]> response;
+        try {
+            List<DeviceStatusReport> reports = batch.stream().map(PendingReport::report).toList();
+            response = client.send(client.jsonPost("/status:batch", client.writeJson(reports)));
+        } catch (IOException e) {
+            retry(batch, new DeviceClientException("Could not send status batch: " + e.getMessage(), e));
+            return;
+        }
+
+        int code = response.statusCode();
+        if (code == 200) {
+            complete(batch, response);
+        } else if (code == 429) {
+            // Recusa do lote inteiro não conta como tentativa: o servidor só pediu para esperar
+            backoff.pauseFor(backoff.retryAfterMillis(response, 1));
+            requeue(batch);
+        } else if (code == 413 && batch.size() > 1) {
+            maxBatchSize = Math.max(1, batch.size() / 2);
+            requeue(batch);
+        } else if (code >= 500) {
+            retry(batch, new DeviceClientException(code, "Status batch failed with HTTP " + code));
+        } else {
+            DeviceClientException error = new DeviceClientException(code,
+                    "Status batch rejected with HTTP " + code + ": " + client.bodyText(response));
+            batch.forEach(item -> item.fail(error));
+        }
+    }
+
+    private void complete(List<PendingReport> batch, HttpResponse<byte[]> response) {
+        BatchResponse body;
+        try {
+            body = client.readJson(response.body(), BATCH_RESPONSE);
+        } catch (IOException e) {
+            DeviceClientException error = new DeviceClientException("Unreadable status batch response", e);
+            batch.forEach(item -> item.fail(error));
+            return;
+        }
+        List<PendingReport> throttled = new ArrayList<>();
+        boolean[] answered = new boolean[batch.size()];
+        for (BatchItem item : body.results()) {
+            if (item.index() < 0 || item.index() >= batch.size()) {
+                continue;
+            }
+            answered[item.index()] = true;
+            PendingReport report = batch.get(item.index());
+            if ("THROTTLED".equals(item.outcome())) {
+                throttled.add(report);
+            } else {
+                report.complete(new DeviceReportResult(item.resourceId(), item.outcome(), item.status(), item.message(),
+                        item.commands() != null ? item.commands() : List.of(), item.nextPollAfter()));
+            }
+        }
+        for (int i = 0; i < answered.length; i++) {
+            if (!answered[i]) {
+                batch.get(i).fail(new DeviceClientException(200, "Status batch response has no result for item " + i));
+            }
+        }
+        if (!throttled.isEmpty()) {
+            retry(throttled, new DeviceClientException(429, "Status report throttled by the server"));
+        }
+    }
+
+    private void retry(List<PendingReport> items, DeviceClientException cause) {
+        List<PendingReport> retryable = new ArrayList<>(items.size());
+        int attempt = 1;
+        for (PendingReport item : items) {
+            if (++item.attempts >= maxAttempts) {
+                item.fail(cause);
+            } else {
+                retryable.add(item);
+                attempt = Math.max(attempt, item.attempts);
+            }
+        }
+        if (!retryable.isEmpty()) {
+            backoff.pauseFor(backoff.delayMillis(attempt));
+            requeue(retryable);
+        }
+    }
+
+    /**
+     * Devolve os itens para a frente da fila; se chegou atualização mais nova do mesmo recurso, as duas se fundem.
+     */
+    private void requeue(List<PendingReport> items) {
+        lock.lock();
+        try {
+            LinkedHashMap<String, PendingReport> reordered = new LinkedHashMap<>();
+            for (PendingReport item : items) {
+                reordered.put(item.report().resourceId(), item);
+            }
+            for (Map.Entry<String, PendingReport> entry : pending.entrySet()) {
+                PendingReport requeued = reordered.get(entry.getKey());
+                if (requeued != null) {
+                    requeued.merge(entry.getValue());
+                } else {
+                    reordered.put(entry.getKey(), entry.getValue());
+                }
+            }
+            pending = reordered;
+            oldestNanos = System.nanoTime() - lingerNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atualização pendente de um recurso e os futuros de todas as chamadas que ela absorveu.
+     */
+    private static final class PendingReport {
+
+        private DeviceStatusReport report;
+        private final List<CompletableFuture<DeviceReportResult>> futures = new ArrayList<>(1);
+        private int attempts;
+
+        PendingReport(DeviceStatusReport report, CompletableFuture<DeviceReportResult> future) {
+            this.report = report;
+            this.futures.add(future);
+        }
+
+        DeviceStatusReport report() {
+            return report;
+        }
+
+        void merge(PendingReport other) {
+            DeviceStatusReport winner = other.report.timestamp().isBefore(report.timestamp()) ? report : other.report;
+            boolean firstConnection = Boolean.TRUE.equals(report.firstConnection())
+                    || Boolean.TRUE.equals(other.report.firstConnection());
+            // Preserva a ativação de primeira conexão ao coalescer
+            report = firstConnection == Boolean.TRUE.equals(winner.firstConnection())
+                    ? winner
+                    : new DeviceStatusReport(winner.resourceId(), winner.status(), winner.timestamp(), true,
+                    winner.reservedAt(), winner.predictedEndTime());
+            futures.addAll(other.futures);
+            attempts = Math.min(attempts, other.attempts);
+        }
+
+        void complete(DeviceReportResult result) {
+            futures.forEach(future -> future.complete(result));
+        }
+
+        void fail(Throwable error) {
+            futures.forEach(future -> future.completeExceptionally(error));
+        }
+    }
+
+    record BatchResponse(int received, int applied, List<BatchItem> results) {
+    }
+
+    record BatchItem(int index, String resourceId, String outcome, String status, String message,
+                     List<DeviceCommand> commands, Long nextPollAfter) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.ifba.iotManagement.sdk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceClientTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Servidor stub no lugar do backend: as primeiras throttledBatches requisições de lote recebem 429
+    private final BlockingQueue<JsonNode> batches = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Long> acks = new LinkedBlockingQueue<>();
+    private final AtomicInteger throttledBatches = new AtomicInteger();
+    private final AtomicInteger commandWaits = new AtomicInteger();
+    private HttpServer server;
+    private DeviceClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v1/devices/status:batch", exchange -> {
+            JsonNode items = objectMapper.readTree(exchange.getRequestBody());
+            if (throttledBatches.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 429, "{}");
+                return;
+            }
+            batches.add(items);
+            StringBuilder results = new StringBuilder();
+            for (int i = 0; i < items.size(); i++) {
+                results.append(i == 0 ? "" : ",").append("""
+                        {"index":%d,"resourceId":"%s","outcome":"UPDATED","status":"RESERVED","message":null}\
+                        """.formatted(i, items.get(i).get("resourceId").asText()));
+            }
+            respond(exchange, 200, """
+                    {"received":%d,"applied":%d,"results":[%s]}""".formatted(items.size(), items.size(), results));
+        });
+        server.createContext("/api/v1/devices/sala_1/commands", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/wait")) {
+                // O comando continua pendente até ser confirmado, como no outbox do servidor
+                if (acks.isEmpty()) {
+                    commandWaits.incrementAndGet();
+                    respond(exchange, 200, """
+                            {"resourceId":"sala_1","command":"RESERVE","details":"Reserve this resource","sequence":7}""");
+                } else {
+                    respond(exchange, 204, null);
+                }
+            } else if (path.endsWith("/ack")) {
+                acks.add(objectMapper.readTree(exchange.getRequestBody()).get("sequence").asLong());
+                respond(exchange, 204, null);
+            } else {
+                respond(exchange, 404, "{}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void coalescesReportsIntoSingleBatch() throws Exception {
+        client = client(Duration.ofMillis(300));
+
+        CompletableFuture<DeviceReportResult> first = client.report(DeviceStatusReport.of("sala_1", "livre", T0));
+        CompletableFuture<DeviceReportResult> latest = client.report(DeviceStatusReport.of("sala_1", "ocupado", T0.plusSeconds(1)));
+        CompletableFuture<DeviceReportResult> other = client.report(DeviceStatusReport.of("sala_2", "ocupado", T0));
+
+        assertThat(latest.get(5, TimeUnit.SECONDS).outcome()).isEqualTo("UPDATED");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(latest.get());
+        assertThat(other.get(5, TimeUnit.SECONDS).resourceId()).isEqualTo("sala_2");
+
+        JsonNode batch = batches.poll(5, TimeUnit.SECONDS);
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0).get("status").asText()).isEqualTo("ocupado");
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void waitsForRetryAfterWhenThrottled() throws Exception {
+        throttledBatches.set(1);
+        client = client(Duration.ofMillis(10));
+
+        long start = System.nanoTime();
+        DeviceReportResult result = client.report(DeviceStatusReport.of("sala_1", "ocupado", T0)).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.outcome()).isEqualTo("UPDATED");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(1000);
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void deliversCommandAndAcknowledgesAfterListenerSucceeds() throws Exception {
+        client = client(Duration.ofMillis(10));
+        BlockingQueue<DeviceCommand> received = new LinkedBlockingQueue<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        try (CommandSubscription subscription = client.subscribeCommands("sala_1", command -> {
+            // Primeira entrega falha: o comando não é confirmado e volta na próxima espera
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("firmware busy");
+            }
+            received.add(command);
+        })) {
+            DeviceCommand command = received.poll(5, TimeUnit.SECONDS);
+            assertThat(command).isNotNull();
+            assertThat(command.command()).isEqualTo(DeviceCommand.RESERVE);
+            assertThat(acks.poll(5, TimeUnit.SECONDS)).isEqualTo(7L);
+            assertThat(commandWaits.get()).isEqualTo(2);
+            assertThat(subscription.isActive()).isTrue();
+        }
+    }
+
+    private DeviceClient client(Duration linger) {
+        return DeviceClient.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .linger(linger)
+                .backoff(Duration.ofMillis(10), Duration.ofMillis(50))
+                .commandWaitSeconds(1)
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+}
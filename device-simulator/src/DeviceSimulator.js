@@ -5,6 +5,7 @@ class DeviceSimulator {
         this.resourceId = config.resourceId;
         this.timeoutDurationMinutes = config.timeoutDurationMinutes;
         this.backendUrl = config.backendUrl;
+        this.callbackUrl = config.callbackUrl;
         
         // Estado atual do dispositivo
         this.currentStatus = 'FREE';  // FREE, RESERVED
@@ -28,6 +29,11 @@ class DeviceSimulator {
         // Perguntar periodicamente se está livre ou não (a cada 15 segundos)
         this.startStatusChecking();
         
+        // Receber comandos por push, se configurado
+        if (this.callbackUrl) {
+            this.registerCallback();
+        }
+        
         console.log(`✅ Simulador ativo! Status inicial: ${this.currentStatus}`);
     }
     
@@ -171,6 +177,40 @@ class DeviceSimulator {
         }
     }
     
+    async registerCallback() {
+        try {
+            await axios.put(
+                `${this.backendUrl}/api/v1/devices/${this.resourceId}/callback`,
+                { url: this.callbackUrl },
+                { timeout: 5000 }
+            );
+            console.log(`📬 Callback de comandos registrado: ${this.callbackUrl}`);
+        } catch (error) {
+            console.error(`❌ Erro ao registrar callback: ${error.response?.status || error.message}`);
+            // Backend pode ainda estar subindo; tentar de novo mais tarde
+            setTimeout(() => this.registerCallback(), 15000);
+        }
+    }
+    
+    async handlePushedCommand(command, sequence) {
+        console.log(`📥 Comando recebido por push: ${command} (sequência ${sequence})`);
+        
+        // O status e os detalhes da reserva vêm da consulta normal, sem esperar o próximo ciclo
+        await this.askBackendStatus();
+        
+        if (sequence) {
+            try {
+                await axios.post(
+                    `${this.backendUrl}/api/v1/devices/${this.resourceId}/commands/ack`,
+                    { sequence },
+                    { timeout: 5000 }
+                );
+            } catch (error) {
+                console.error(`❌ Erro ao confirmar comando: ${error.response?.status || error.message}`);
+            }
+        }
+    }
+    
     scheduleAutoRelease() {
         // Cancelar timer anterior se existir
         if (this.autoReleaseTimer) {
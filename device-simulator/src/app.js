@@ -19,7 +19,8 @@ const config = {
     resourceId: process.env.RESOURCE_ID,
     timeoutDurationMinutes: parseInt(process.env.TIMEOUT_DURATION_MINUTES) || 5,
     backendUrl: process.env.BACKEND_URL || 'http://localhost:8080',
-    port: parseInt(process.env.PORT) || 3000
+    port: parseInt(process.env.PORT) || 3000,
+    callbackUrl: process.env.CALLBACK_URL || null
 };
 
 console.log('🚀 Iniciando Simulador IoT...');
@@ -28,6 +29,7 @@ console.log(`📋 Configurações:
   - Timeout Duration: ${config.timeoutDurationMinutes} minutos
   - Backend URL: ${config.backendUrl}
   - Port: ${config.port}
+  - Callback URL: ${config.callbackUrl || 'desativado (apenas polling)'}
 `);
 
 // Criar instância do simulador
@@ -60,6 +62,18 @@ app.post('/force-status', (req, res) => {
     });
 });
 
+// Endpoint de push: o backend envia aqui os comandos RESERVE/RELEASE assim que emitidos
+app.post('/commands', (req, res) => {
+    const { command, sequence } = req.body || {};
+    
+    if (!['RESERVE', 'RELEASE'].includes(command)) {
+        return res.status(400).json({ error: 'Comando inválido' });
+    }
+    
+    res.status(202).end();
+    deviceSimulator.handlePushedCommand(command, sequence);
+});
+
 // Iniciar servidor
 app.listen(config.port, () => {
     console.log(`🌐 Servidor do dispositivo rodando na porta ${config.port}`);